@@ -5,9 +5,11 @@ import com.alan.autoPunish.commands.*;
 import com.alan.autoPunish.listeners.ChatListener;
 import com.alan.autoPunish.managers.*;
 import com.alan.autoPunish.utils.ConfigUtils;
+import com.alan.autoPunish.utils.SchedulerUtil;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 public class AutoPunish extends JavaPlugin {
@@ -16,9 +18,13 @@ public class AutoPunish extends JavaPlugin {
     private Logger logger;
     private ConfigManager configManager;
     private DatabaseManager databaseManager;
+    private AnalyticsManager analyticsManager;
     private WebhookManager webhookManager;
     private PunishmentQueueManager punishmentQueueManager;
     private PunishmentManager punishmentManager;
+    private ExportManager exportManager;
+    private ImportManager importManager;
+    private ReportManager reportManager;
     private PublicWebPanelManager publicWebPanelManager;
     private ChatListener chatListener; // NEW: Store chat listener reference
 
@@ -40,6 +46,10 @@ public class AutoPunish extends JavaPlugin {
         // Initialize DatabaseManager
         this.databaseManager = new DatabaseManager(this, configManager);
 
+        // Initialize AnalyticsManager, which keeps the dashboard rollups up to date
+        this.analyticsManager = new AnalyticsManager(this, databaseManager);
+        this.analyticsManager.start();
+
         // Initialize WebhookManager
         this.webhookManager = new WebhookManager(this, configManager);
 
@@ -50,13 +60,19 @@ public class AutoPunish extends JavaPlugin {
         // Initialize PunishmentManager
         this.punishmentManager = new PunishmentManager(this, configManager, databaseManager, webhookManager);
 
+        // Initialize ExportManager
+        this.exportManager = new ExportManager(this, databaseManager);
+
+        // Initialize ImportManager
+        this.importManager = new ImportManager(this, databaseManager);
+
+        // Initialize ReportManager for history-wide analysis
+        this.reportManager = new ReportManager(this, databaseManager);
+
         // Initialize API
         AutoPunishAPI.init(this);
         logger.info("AutoPunish API initialized successfully!");
 
-        // Create owner account on first run
-        createOwnerAccount();
-
         // Start public web panel if enabled
         if (getConfig().getBoolean("public-web-panel.enabled", true)) {
             this.publicWebPanelManager = new PublicWebPanelManager(this);
@@ -64,6 +80,10 @@ public class AutoPunish extends JavaPlugin {
             logger.info("Public Web Panel initialized on port " + getConfig().getInt("public-web-panel.port", 8081));
         }
 
+        // Create owner account on first run; hashing its password is slow, so not on the main thread
+        Executor hashing = publicWebPanelManager != null ? publicWebPanelManager.getHashingExecutor() : null;
+        (hashing != null ? hashing : SchedulerUtil.async(this)).execute(this::createOwnerAccount);
+
         // Register commands and listeners
         registerCommands();
         registerListeners();
@@ -80,6 +100,9 @@ public class AutoPunish extends JavaPlugin {
         Objects.requireNonNull(getCommand("punishadmin")).setExecutor(new PunishAdminCommand(this));
         Objects.requireNonNull(getCommand("resethistory")).setExecutor(new ResetHistoryCommand(this));
         Objects.requireNonNull(getCommand("rule")).setExecutor(new RuleManagementCommand(this));
+        Objects.requireNonNull(getCommand("punishexport")).setExecutor(new PunishExportCommand(this));
+        Objects.requireNonNull(getCommand("punishimport")).setExecutor(new PunishImportCommand(this));
+        Objects.requireNonNull(getCommand("staffleaderboard")).setExecutor(new StaffLeaderboardCommand(this));
 
         // NEW: Staff chat command
         Objects.requireNonNull(getCommand("staffchat")).setExecutor(new StaffChatCommand(this, chatListener));
@@ -91,6 +114,9 @@ public class AutoPunish extends JavaPlugin {
         Objects.requireNonNull(getCommand("punishadmin")).setTabCompleter(new PunishAdminCommand(this));
         Objects.requireNonNull(getCommand("resethistory")).setTabCompleter(new ResetHistoryCommand(this));
         Objects.requireNonNull(getCommand("rule")).setTabCompleter(new RuleManagementCommand(this));
+        Objects.requireNonNull(getCommand("punishexport")).setTabCompleter(new PunishExportCommand(this));
+        Objects.requireNonNull(getCommand("punishimport")).setTabCompleter(new PunishImportCommand(this));
+        Objects.requireNonNull(getCommand("staffleaderboard")).setTabCompleter(new StaffLeaderboardCommand(this));
 
         // NEW: Staff chat tab completer
         Objects.requireNonNull(getCommand("staffchat")).setTabCompleter(new StaffChatCommand(this, chatListener));
@@ -111,6 +137,21 @@ public class AutoPunish extends JavaPlugin {
             logger.info("Public Web Panel stopped");
         }
 
+        // Flush pending webhooks
+        if (webhookManager != null) {
+            webhookManager.shutdown();
+        }
+
+        // Stop running reports
+        if (reportManager != null) {
+            reportManager.stop();
+        }
+
+        // Write pending analytics counts before the database closes
+        if (analyticsManager != null) {
+            analyticsManager.stop();
+        }
+
         // Close database
         if (databaseManager != null) {
             databaseManager.close();
@@ -132,6 +173,10 @@ public class AutoPunish extends JavaPlugin {
         return databaseManager;
     }
 
+    public AnalyticsManager getAnalyticsManager() {
+        return analyticsManager;
+    }
+
     public WebhookManager getWebhookManager() {
         return webhookManager;
     }
@@ -144,6 +189,18 @@ public class AutoPunish extends JavaPlugin {
         return punishmentQueueManager;
     }
 
+    public ExportManager getExportManager() {
+        return exportManager;
+    }
+
+    public ImportManager getImportManager() {
+        return importManager;
+    }
+
+    public ReportManager getReportManager() {
+        return reportManager;
+    }
+
     public PublicWebPanelManager getPublicWebPanelManager() {
         return publicWebPanelManager;
     }
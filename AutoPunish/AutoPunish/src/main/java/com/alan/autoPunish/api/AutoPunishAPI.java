@@ -1,6 +1,7 @@
 package com.alan.autoPunish.api;
 
 import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.managers.PunishmentQueueManager;
 import com.alan.autoPunish.models.Punishment;
 import com.alan.autoPunish.models.PunishmentRule;
 import com.alan.autoPunish.models.QueuedPunishment;
@@ -84,14 +85,22 @@ public class AutoPunishAPI {
         return plugin.getPunishmentQueueManager().getQueuedPunishment(approvalId);
     }
 
+    /**
+     * @return true if the punishment was found; it is then applied asynchronously
+     */
     public static boolean approvePunishment(String approvalId, Player approver) {
         if (!isPluginReady()) return false;
-        return plugin.getPunishmentQueueManager().processApproval(approvalId, true, approver);
+        return plugin.getPunishmentQueueManager().processApproval(approvalId, true, approver)
+                .getNow(null) != PunishmentQueueManager.ApprovalResult.NOT_FOUND;
     }
 
+    /**
+     * @return true if the punishment was found; it is then denied asynchronously
+     */
     public static boolean denyPunishment(String approvalId, Player denier) {
         if (!isPluginReady()) return false;
-        return plugin.getPunishmentQueueManager().processApproval(approvalId, false, denier);
+        return plugin.getPunishmentQueueManager().processApproval(approvalId, false, denier)
+                .getNow(null) != PunishmentQueueManager.ApprovalResult.NOT_FOUND;
     }
 
     public static boolean needsApproval(String type, String duration, Player sender) {
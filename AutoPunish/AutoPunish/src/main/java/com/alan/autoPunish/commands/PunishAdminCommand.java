@@ -3,6 +3,7 @@ package com.alan.autoPunish.commands;
 import com.alan.autoPunish.AutoPunish;
 import com.alan.autoPunish.managers.PunishmentQueueManager;
 import com.alan.autoPunish.models.QueuedPunishment;
+import com.alan.autoPunish.utils.SchedulerUtil;
 import com.alan.autoPunish.utils.TimeUtil;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -97,18 +98,24 @@ public class PunishAdminCommand implements CommandExecutor, TabCompleter {
     }
 
     private boolean approvePunishment(CommandSender sender, String approvalId) {
-        boolean result = queueManager.processApproval(approvalId, true, sender);
-        if (!result) {
-            sender.sendMessage("§cFailed to approve punishment. Make sure the ID is correct.");
-        }
+        queueManager.processApproval(approvalId, true, sender).thenAcceptAsync(result -> {
+            if (result == PunishmentQueueManager.ApprovalResult.NOT_FOUND) {
+                sender.sendMessage("§cFailed to approve punishment. Make sure the ID is correct.");
+            } else if (result == PunishmentQueueManager.ApprovalResult.FAILED) {
+                sender.sendMessage("§cFailed to approve punishment. Check the console for details.");
+            }
+        }, SchedulerUtil.mainThread(plugin));
         return true;
     }
 
     private boolean denyPunishment(CommandSender sender, String approvalId) {
-        boolean result = queueManager.processApproval(approvalId, false, sender);
-        if (!result) {
-            sender.sendMessage("§cFailed to deny punishment. Make sure the ID is correct.");
-        }
+        queueManager.processApproval(approvalId, false, sender).thenAcceptAsync(result -> {
+            if (result == PunishmentQueueManager.ApprovalResult.NOT_FOUND) {
+                sender.sendMessage("§cFailed to deny punishment. Make sure the ID is correct.");
+            } else if (result == PunishmentQueueManager.ApprovalResult.FAILED) {
+                sender.sendMessage("§cFailed to deny punishment. Check the console for details.");
+            }
+        }, SchedulerUtil.mainThread(plugin));
         return true;
     }
 
@@ -0,0 +1,113 @@
+package com.alan.autoPunish.commands;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.managers.ExportManager;
+import com.alan.autoPunish.utils.SchedulerUtil;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PunishExportCommand implements CommandExecutor, TabCompleter {
+    private static final String USAGE = "§cUsage: /punishexport <ndjson|csv> [gzip] [since:yyyy-MM-dd] " +
+            "[until:yyyy-MM-dd] [rule:<rule>] [type:<type>] [hidden:true|false]";
+
+    private final AutoPunish plugin;
+
+    public PunishExportCommand(AutoPunish plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("autopunish.admin.export")) {
+            sender.sendMessage("§cYou don't have permission to use this command.");
+            return true;
+        }
+
+        if (args.length < 1) {
+            sender.sendMessage(USAGE);
+            return true;
+        }
+
+        ExportManager.Format format = ExportManager.Format.parse(args[0]);
+        if (format == null) {
+            sender.sendMessage(USAGE);
+            return true;
+        }
+
+        boolean gzip = false;
+        Long since = null;
+        Long until = null;
+        String rule = null;
+        String type = null;
+        Boolean hidden = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equalsIgnoreCase("gzip")) {
+                    gzip = true;
+                    continue;
+                }
+
+                int colon = arg.indexOf(':');
+                String key = colon > 0 ? arg.substring(0, colon).toLowerCase(Locale.ROOT) : "";
+                String value = colon > 0 ? arg.substring(colon + 1) : "";
+                switch (key) {
+                    case "since" -> since = startOfDay(value);
+                    case "until" -> until = startOfDay(value);
+                    case "rule" -> rule = value;
+                    case "type" -> type = value.toLowerCase(Locale.ROOT);
+                    case "hidden" -> hidden = Boolean.parseBoolean(value);
+                    default -> {
+                        sender.sendMessage("§cUnknown option: " + arg);
+                        sender.sendMessage(USAGE);
+                        return true;
+                    }
+                }
+            }
+        } catch (DateTimeParseException e) {
+            sender.sendMessage("§cDates must look like 2024-01-31");
+            return true;
+        }
+
+        sender.sendMessage("§eExporting punishments as " + format.getExtension() + (gzip ? ".gz" : "") + "...");
+        plugin.getExportManager()
+                .exportToFile(format, new ExportManager.Filter(since, until, rule, type, hidden), gzip)
+                .whenCompleteAsync((export, error) -> {
+                    if (error != null) {
+                        sender.sendMessage("§cExport failed, check the console for details.");
+                    } else {
+                        sender.sendMessage("§aExported §f" + export.rows() + " §apunishments to §f" +
+                                "exports/" + export.file().getName());
+                    }
+                }, SchedulerUtil.mainThread(plugin));
+        return true;
+    }
+
+    private static long startOfDay(String date) {
+        return LocalDate.parse(date).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (!sender.hasPermission("autopunish.admin.export")) {
+            return new ArrayList<>();
+        }
+
+        String input = args[args.length - 1].toLowerCase(Locale.ROOT);
+        Stream<String> options = args.length == 1
+                ? Stream.of("ndjson", "csv")
+                : Stream.of("gzip", "since:", "until:", "rule:", "type:", "hidden:");
+        return options.filter(option -> option.startsWith(input)).collect(Collectors.toList());
+    }
+}
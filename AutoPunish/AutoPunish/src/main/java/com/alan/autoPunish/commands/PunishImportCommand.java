@@ -0,0 +1,108 @@
+package com.alan.autoPunish.commands;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.managers.ImportManager;
+import com.alan.autoPunish.utils.SchedulerUtil;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class PunishImportCommand implements CommandExecutor, TabCompleter {
+    private static final String USAGE = "§cUsage: /punishimport <ndjson|csv|litebans|advancedban> <file> [restart]";
+    private static final long PROGRESS_INTERVAL_MS = 5000;
+
+    private final AutoPunish plugin;
+
+    public PunishImportCommand(AutoPunish plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("autopunish.admin.import")) {
+            sender.sendMessage("§cYou don't have permission to use this command.");
+            return true;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage(USAGE);
+            sender.sendMessage("§7Files are read from plugins/AutoPunish/imports/");
+            return true;
+        }
+
+        ImportManager.Source source = ImportManager.Source.parse(args[0]);
+        if (source == null) {
+            sender.sendMessage(USAGE);
+            return true;
+        }
+
+        File directory = importDirectory();
+        File file = new File(directory, args[1]);
+        // Only files inside the imports folder may be read
+        if (!file.getAbsoluteFile().toPath().normalize().startsWith(directory.getAbsoluteFile().toPath().normalize())
+                || !file.isFile()) {
+            sender.sendMessage("§cFile not found in imports/: " + args[1]);
+            return true;
+        }
+        boolean restart = args.length > 2 && args[2].equalsIgnoreCase("restart");
+
+        Executor mainThread = SchedulerUtil.mainThread(plugin);
+        AtomicLong lastReport = new AtomicLong(System.currentTimeMillis());
+        sender.sendMessage("§eImporting " + file.getName() + (restart ? " from the start" : "") + "...");
+        plugin.getImportManager().importFrom(source, file, restart, progress -> {
+            long now = System.currentTimeMillis();
+            long last = lastReport.get();
+            if (now - last < PROGRESS_INTERVAL_MS || !lastReport.compareAndSet(last, now)) return;
+            mainThread.execute(() -> sender.sendMessage("§7Import: " + progress.processed() + " read, " +
+                    progress.inserted() + " imported (" + progress.table() + ")"));
+        }).whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                sender.sendMessage("§cImport failed: " + cause.getMessage() + ". Run the command again to resume.");
+            } else {
+                sender.sendMessage("§aImport finished: §f" + result.processed() + " §aread, §f" + result.inserted() +
+                        " §aimported, §f" + result.skipped() + " §aunusable");
+            }
+        }, mainThread);
+        return true;
+    }
+
+    private File importDirectory() {
+        File directory = new File(plugin.getDataFolder(), "imports");
+        if (!directory.exists()) directory.mkdirs();
+        return directory;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (!sender.hasPermission("autopunish.admin.import")) {
+            return new ArrayList<>();
+        }
+
+        String input = args[args.length - 1].toLowerCase(Locale.ROOT);
+        List<String> options;
+        if (args.length == 1) {
+            options = Arrays.asList("ndjson", "csv", "litebans", "advancedban");
+        } else if (args.length == 2) {
+            String[] files = importDirectory().list();
+            options = files != null ? Arrays.asList(files) : new ArrayList<>();
+        } else if (args.length == 3) {
+            options = List.of("restart");
+        } else {
+            return new ArrayList<>();
+        }
+        return options.stream()
+                .filter(option -> option.toLowerCase(Locale.ROOT).startsWith(input))
+                .collect(Collectors.toList());
+    }
+}
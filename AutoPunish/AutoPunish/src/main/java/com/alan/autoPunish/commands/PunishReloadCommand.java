@@ -21,6 +21,7 @@ public class PunishReloadCommand implements CommandExecutor {
 
         // Reload the configuration
         plugin.getConfigManager().loadConfig();
+        plugin.getWebhookManager().reload();
         sender.sendMessage("§aAutoPunish configuration reloaded successfully!");
 
         return true;
@@ -77,7 +77,7 @@ public class PunishmentsCommand implements CommandExecutor, TabCompleter {
                     punishment.getRule(),
                     punishment.getType(),
                     formattedDuration,
-                    punishment.getStaffName(),
+                    punishment.getStaffDisplayName(),
                     dateFormat.format(punishment.getDate())
             ));
         }
@@ -2,7 +2,9 @@ package com.alan.autoPunish.commands;
 
 import com.alan.autoPunish.AutoPunish;
 import com.alan.autoPunish.managers.ConfigManager;
+import com.alan.autoPunish.managers.RuleSimulation;
 import com.alan.autoPunish.models.PunishmentRule;
+import com.alan.autoPunish.utils.SchedulerUtil;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -83,6 +85,13 @@ public class RuleManagementCommand implements CommandExecutor, TabCompleter {
                 }
                 editTier(sender, args[1], args[2], args[3], args[4]);
                 break;
+            case "simulate":
+                if (args.length < 5) {
+                    sender.sendMessage("§cUsage: /rule simulate <ruleName> <tierNumber> <newType> <newDuration>");
+                    return true;
+                }
+                simulateTier(sender, args[1], args[2], args[3], args[4]);
+                break;
             default:
                 sendHelp(sender);
                 break;
@@ -100,6 +109,7 @@ public class RuleManagementCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§e/rule addtier <ruleName> <type> <duration> §7- Adds a new tier to a rule.");
         sender.sendMessage("§e/rule removetier <ruleName> <tierNumber> §7- Removes a tier from a rule.");
         sender.sendMessage("§e/rule edittier <ruleName> <tierNumber> <newType> <newDuration> §7- Edits an existing tier.");
+        sender.sendMessage("§e/rule simulate <ruleName> <tierNumber> <newType> <newDuration> §7- Shows what an edit would have changed in past punishments.");
     }
 
     private void listRules(CommandSender sender) {
@@ -203,6 +213,61 @@ public class RuleManagementCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    /**
+     * Replay past punishments as if a tier had been edited, and compare them with the
+     * current rules. The simulation runs off the main thread; nothing is changed.
+     */
+    private void simulateTier(CommandSender sender, String ruleName, String tierStr, String newType, String newDuration) {
+        PunishmentRule rule = configManager.getRule(ruleName);
+        if (rule == null) {
+            sender.sendMessage("§cRule '" + ruleName + "' does not exist.");
+            return;
+        }
+        int tierIndex;
+        try {
+            tierIndex = Integer.parseInt(tierStr) - 1; // User provides 1-based index
+        } catch (NumberFormatException e) {
+            sender.sendMessage("§cTier must be a number.");
+            return;
+        }
+        List<Map<String, String>> tiers = new ArrayList<>(rule.getPunishmentTiers());
+        if (tierIndex < 0 || tierIndex >= tiers.size()) {
+            sender.sendMessage("§cInvalid tier number. Please check '/rule info " + ruleName + "'.");
+            return;
+        }
+        Map<String, String> newTier = new HashMap<>();
+        newTier.put("type", newType);
+        newTier.put("duration", newDuration);
+        tiers.set(tierIndex, newTier);
+
+        sender.sendMessage("§7Simulating past punishments, this may take a moment...");
+        plugin.getReportManager().simulateRules(Map.of(rule.getName(), new PunishmentRule(rule.getName(), tiers)))
+                .thenAcceptAsync(report -> {
+                    if (report == null) {
+                        sender.sendMessage("§cFailed to simulate the rule change.");
+                        return;
+                    }
+                    RuleSimulation.RuleOutcome outcome = report.result().rules().stream()
+                            .filter(candidate -> candidate.rule().equals(rule.getName()))
+                            .findFirst().orElse(null);
+                    if (outcome == null) return;
+
+                    sender.sendMessage("§6=== Simulation of " + rule.getName() + " over " +
+                            report.result().rows() + " past punishments ===");
+                    for (int i = 0; i < outcome.candidate().size(); i++) {
+                        RuleSimulation.TierOutcome before = outcome.current().get(i);
+                        RuleSimulation.TierOutcome after = outcome.candidate().get(i);
+                        sender.sendMessage(String.format("§7%d. §f%s %s§7: §f%d §7-> §f%d §7punishments, §f%d §7-> §f%d §7players",
+                                after.tier(), after.type(), after.duration(),
+                                before.punishments(), after.punishments(), before.players(), after.players()));
+                    }
+                    sender.sendMessage("§7Approvals for this rule: §f" + outcome.currentApprovals() + " §7-> §f" +
+                            outcome.candidateApprovals() + "§7, all rules: §f" + report.result().currentApprovals() +
+                            " §7-> §f" + report.result().candidateApprovals());
+                    sender.sendMessage("§7Punishments that would change: §f" + report.result().changed());
+                }, SchedulerUtil.mainThread(plugin));
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (!sender.hasPermission("autopunish.admin.rules")) {
@@ -210,7 +275,7 @@ public class RuleManagementCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 1) {
-            return Arrays.asList("list", "info", "create", "delete", "addtier", "removetier", "edittier").stream()
+            return Arrays.asList("list", "info", "create", "delete", "addtier", "removetier", "edittier", "simulate").stream()
                     .filter(s -> s.startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
         }
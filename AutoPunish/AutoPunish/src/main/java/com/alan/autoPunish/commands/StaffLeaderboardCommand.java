@@ -0,0 +1,94 @@
+package com.alan.autoPunish.commands;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.managers.AnalyticsManager;
+import com.alan.autoPunish.utils.SchedulerUtil;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public class StaffLeaderboardCommand implements CommandExecutor, TabCompleter {
+    private static final String USAGE = "§cUsage: /staffleaderboard [day|week|month|all] [issued|approved|denied|hidden]";
+    private static final int LIMIT = 10;
+
+    private final AutoPunish plugin;
+
+    public StaffLeaderboardCommand(AutoPunish plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("autopunish.view.leaderboard")) {
+            sender.sendMessage("§cYou don't have permission to use this command.");
+            return true;
+        }
+
+        AnalyticsManager.Period period = args.length > 0 ? AnalyticsManager.Period.parse(args[0]) : AnalyticsManager.Period.WEEK;
+        AnalyticsManager.Sort sort = args.length > 1 ? AnalyticsManager.Sort.parse(args[1]) : AnalyticsManager.Sort.ISSUED;
+        if (period == null || sort == null) {
+            sender.sendMessage(USAGE);
+            return true;
+        }
+
+        AnalyticsManager analytics = plugin.getAnalyticsManager();
+        CompletableFuture.supplyAsync(() -> analytics.getLeaderboard(period, System.currentTimeMillis(), sort, LIMIT),
+                SchedulerUtil.async(plugin)).thenAcceptAsync(leaderboard -> {
+            if (leaderboard == null) {
+                sender.sendMessage("§cFailed to load the staff leaderboard.");
+                return;
+            }
+
+            String title = period == AnalyticsManager.Period.ALL ? "all time" : "this " + name(period);
+            sender.sendMessage("§6=== Staff leaderboard (" + title + ", by " + name(sort) + ") ===");
+            if (leaderboard.isEmpty()) {
+                sender.sendMessage("§7No staff activity yet.");
+                return;
+            }
+            for (int i = 0; i < leaderboard.size(); i++) {
+                AnalyticsManager.StaffActivity activity = leaderboard.get(i);
+                sender.sendMessage(String.format("§7%d. §f%s §7- issued §f%d§7, approved §f%d§7, denied §f%d§7, hidden §f%d",
+                        i + 1,
+                        activity.staffName(),
+                        activity.issued(),
+                        activity.approved(),
+                        activity.denied(),
+                        activity.hidden()
+                ));
+            }
+        }, SchedulerUtil.mainThread(plugin));
+        return true;
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (!sender.hasPermission("autopunish.view.leaderboard")) {
+            return new ArrayList<>();
+        }
+
+        String input = args[args.length - 1].toLowerCase(Locale.ROOT);
+        List<String> options;
+        if (args.length == 1) {
+            options = Arrays.asList("day", "week", "month", "all");
+        } else if (args.length == 2) {
+            options = Arrays.asList("issued", "approved", "denied", "hidden");
+        } else {
+            return new ArrayList<>();
+        }
+        return options.stream()
+                .filter(option -> option.startsWith(input))
+                .collect(Collectors.toList());
+    }
+}
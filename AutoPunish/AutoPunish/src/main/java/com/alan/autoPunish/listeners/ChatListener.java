@@ -33,7 +33,7 @@ public class ChatListener implements Listener {
         // NEW: Broadcast chat message to web panel chat system
         try {
             String message = "[" + player.getWorld().getName() + "] " + player.getName() + ": " + event.getMessage();
-            boolean success = plugin.getDatabaseManager().saveChatMessage(
+            boolean success = saveChatMessage(
                     "[In-Game] " + player.getName(),
                     player.getUniqueId().toString(),
                     event.getMessage()
@@ -56,7 +56,7 @@ public class ChatListener implements Listener {
 
         // Announce player join to web chat
         try {
-            boolean success = plugin.getDatabaseManager().saveChatMessage(
+            boolean success = saveChatMessage(
                     "[System]",
                     "system",
                     player.getName() + " joined the game"
@@ -77,7 +77,7 @@ public class ChatListener implements Listener {
 
         // Announce player quit to web chat
         try {
-            boolean success = plugin.getDatabaseManager().saveChatMessage(
+            boolean success = saveChatMessage(
                     "[System]",
                     "system",
                     player.getName() + " left the game"
@@ -100,7 +100,7 @@ public class ChatListener implements Listener {
 
         // Save message to web panel chat
         try {
-            boolean success = plugin.getDatabaseManager().saveChatMessage(
+            boolean success = saveChatMessage(
                     player.getName(),
                     player.getUniqueId().toString(),
                     message
@@ -124,6 +124,15 @@ public class ChatListener implements Listener {
         }
     }
 
+    // Save a message for the web panel chat and push it to open panels
+    private boolean saveChatMessage(String staffName, String staffUuid, String message) {
+        boolean success = plugin.getDatabaseManager().saveChatMessage(staffName, staffUuid, message);
+        if (success && plugin.getPublicWebPanelManager() != null) {
+            plugin.getPublicWebPanelManager().publishChatMessage(staffName, staffUuid, message);
+        }
+        return success;
+    }
+
     // NEW: Broadcast message to online staff members
     private void broadcastToStaff(String message) {
         for (Player player : plugin.getServer().getOnlinePlayers()) {
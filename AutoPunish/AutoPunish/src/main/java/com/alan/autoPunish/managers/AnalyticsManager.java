@@ -0,0 +1,751 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.models.Punishment;
+import com.alan.autoPunish.web.DataVersion;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Punishment counts per hour and day, broken down by rule, type and staff member, for
+ * dashboard charts, and per-staff activity counters for leaderboards. Rollups count visible
+ * punishments only; all buckets and periods are aligned to UTC.
+ *
+ * Every write to {@code punishments} runs between {@link #beginWrite} and {@link #endWrite}
+ * and reports the rows it adds or removes through {@link #record}. A background flusher adds
+ * the buffered counts to {@code punishment_rollups} and {@code staff_activity}, folds hourly
+ * buckets past the retention into daily ones, and on first start backfills the history.
+ * Timeseries and leaderboard queries read those tables only.
+ *
+ * The backfill scans one window at a time without blocking writers. A window's counts are
+ * only kept if no write reported a row in it during the scan and no write is still running;
+ * otherwise it is scanned again. Rows before the scanned windows are counted by
+ * {@link #record}, rows after them by later scans.
+ */
+public class AnalyticsManager {
+    public static final long HOUR = 3_600_000L;
+    public static final long DAY = 24 * HOUR;
+    public static final long WEEK = 7 * DAY;
+    // 1970-01-05, the first Monday after the epoch
+    private static final long FIRST_MONDAY = 4 * DAY;
+    private static final long BACKFILL_WINDOW = 30 * DAY;
+    // Renamed when staff counters were added, so older installs rebuild once
+    private static final String BACKFILL_STATE = "rollups-v2-backfilled-until";
+
+    // Staff counter slots, in the column order of staff_activity
+    static final int ISSUED = 0;
+    static final int APPROVED = 1;
+    static final int DENIED = 2;
+    static final int HIDDEN = 3;
+
+    private final AutoPunish plugin;
+    private final Logger logger;
+    private final DatabaseManager databaseManager;
+    // Only held to update the in-memory counts and backfill position, never across queries
+    private final Object writeLock = new Object();
+    private final long flushIntervalSeconds;
+    private final long hourlyRetentionMillis;
+    private final int maxPoints;
+    private final DataVersion version = new DataVersion("a");
+
+    // Guarded by writeLock
+    private Map<RollupKey, Integer> pending = new HashMap<>();
+    private Map<StaffKey, int[]> pendingStaff = new HashMap<>();
+    // Rows dated at or after this are counted when the backfill reaches them
+    private long backfilledUntil = Long.MAX_VALUE;
+    // Window the backfill is scanning, and whether a write reported a row in it meanwhile
+    private long scanFrom = Long.MAX_VALUE;
+    private long scanTo = Long.MAX_VALUE;
+    private boolean scanDirty;
+    private int writesInFlight;
+
+    private volatile long hourlySince;
+    private ScheduledExecutorService flusher;
+
+    public enum Interval {
+        HOUR(AnalyticsManager.HOUR),
+        DAY(AnalyticsManager.DAY),
+        WEEK(AnalyticsManager.WEEK);
+
+        private final long millis;
+
+        Interval(long millis) {
+            this.millis = millis;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        /** Start of the bucket containing {@code time}; weeks start on Monday */
+        public long align(long time) {
+            long offset = this == WEEK ? FIRST_MONDAY : 0;
+            return floor(time - offset, millis) + offset;
+        }
+
+        public static Interval parse(String value) {
+            for (Interval interval : values()) {
+                if (interval.name().equalsIgnoreCase(value)) return interval;
+            }
+            return null;
+        }
+    }
+
+    public enum GroupBy {
+        NONE, RULE, TYPE, STAFF;
+
+        public static GroupBy parse(String value) {
+            for (GroupBy group : values()) {
+                if (group.name().equalsIgnoreCase(value)) return group;
+            }
+            return null;
+        }
+    }
+
+    /** Leaderboard periods; weeks start on Monday, months on the 1st */
+    public enum Period {
+        DAY("d"), WEEK("w"), MONTH("m"), ALL("a");
+
+        private final String code;
+
+        Period(String code) {
+            this.code = code;
+        }
+
+        /** Start of the period containing {@code time}, 0 for all time */
+        public long start(long time) {
+            return switch (this) {
+                case DAY -> Interval.DAY.align(time);
+                case WEEK -> Interval.WEEK.align(time);
+                case MONTH -> LocalDate.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC).withDayOfMonth(1)
+                        .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                case ALL -> 0L;
+            };
+        }
+
+        public static Period parse(String value) {
+            for (Period period : values()) {
+                if (period.name().equalsIgnoreCase(value)) return period;
+            }
+            return null;
+        }
+    }
+
+    /** Leaderboard ordering, one per counter */
+    public enum Sort {
+        ISSUED("issued"), APPROVED("approved"), DENIED("denied"), HIDDEN("hidden");
+
+        private final String column;
+
+        Sort(String column) {
+            this.column = column;
+        }
+
+        public static Sort parse(String value) {
+            for (Sort sort : values()) {
+                if (sort.name().equalsIgnoreCase(value)) return sort;
+            }
+            return null;
+        }
+    }
+
+    public record Series(String key, long total, long[] counts) {}
+
+    /**
+     * @param issued punishments issued, hidden ones included
+     * @param approved queued punishments of others this member approved
+     * @param denied queued punishments this member denied
+     * @param hidden punishments issued by this member that are hidden now
+     */
+    public record StaffActivity(String staffName, int issued, int approved, int denied, int hidden) {}
+
+    /**
+     * @param buckets start of each bucket; every series has one count per bucket
+     * @param hourlySince hourly counts exist from here on, older ones are per day
+     */
+    public record Timeseries(Interval interval, GroupBy groupBy, long from, long to, long hourlySince,
+                             long[] buckets, List<Series> series) {}
+
+    private record RollupKey(long bucket, String rule, String type, String staffName) {}
+
+    record StaffKey(long day, String staffName) {}
+
+    private record StaffRow(Period period, long start, String staffName) {}
+
+    public AnalyticsManager(AutoPunish plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.databaseManager = databaseManager;
+        this.flushIntervalSeconds = Math.max(1, plugin.getConfig().getLong("analytics.flush-interval-seconds", 10));
+        this.hourlyRetentionMillis = Math.max(1, plugin.getConfig().getLong("analytics.hourly-retention-days", 14)) * DAY;
+        this.maxPoints = Math.max(1, plugin.getConfig().getInt("analytics.max-points", 2000));
+    }
+
+    /**
+     * Load the backfill state and start the flusher.
+     */
+    public void start() {
+        try (Connection conn = databaseManager.openDedicatedConnection()) {
+            Long state = loadBackfillState(conn);
+            synchronized (writeLock) {
+                // Until the rebuild below, writes leave every row to the backfill
+                backfilledUntil = state != null ? state : Long.MIN_VALUE;
+            }
+            if (state == null) {
+                // First start, or the state row was deleted to rebuild. Denials are not
+                // stored anywhere else, so their counts are kept.
+                try (PreparedStatement rollups = conn.prepareStatement("DELETE FROM punishment_rollups");
+                     PreparedStatement staff = conn.prepareStatement(
+                             "UPDATE staff_activity SET issued = 0, approved = 0, hidden = 0")) {
+                    rollups.executeUpdate();
+                    staff.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load analytics state, charts will not be updated: " + e.getMessage(), e);
+            return;
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-analytics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, 0, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the flusher and write the counts it has not written yet.
+     */
+    public void stop() {
+        if (flusher == null) return;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) flusher.shutdownNow();
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        flushSafely();
+    }
+
+    public DataVersion getVersion() {
+        return version;
+    }
+
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    /**
+     * Call before writing to {@code punishments}, and {@link #endWrite} once the write was
+     * committed and its rows recorded, or failed.
+     */
+    void beginWrite() {
+        synchronized (writeLock) {
+            writesInFlight++;
+        }
+    }
+
+    void endWrite() {
+        synchronized (writeLock) {
+            writesInFlight--;
+            if (writesInFlight == 0) writeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Count a punishment row added ({@code delta} 1) or removed (-1) by a committed write;
+     * changing a row is removing the old one and adding the new one. Staff counters go to
+     * the punishment's day. Called between {@link #beginWrite} and {@link #endWrite}.
+     */
+    void record(String rule, String type, String staffName, String approvedBy, long date, boolean hidden, int delta) {
+        synchronized (writeLock) {
+            if (date >= scanFrom && date < scanTo) {
+                // The scan may or may not have seen this write, so it has to look again
+                scanDirty = true;
+                return;
+            }
+            if (date >= backfilledUntil) return;
+            if (!hidden) pending.merge(new RollupKey(floor(date, HOUR), rule, type, staffName), delta, Integer::sum);
+            countStaff(pendingStaff, staffName, approvedBy, floor(date, DAY), hidden, delta);
+        }
+    }
+
+    /**
+     * Count a queued punishment denied by {@code staffName}. Denials are not stored in
+     * {@code punishments}, so these counts cannot be rebuilt from history.
+     */
+    public void recordDenial(String staffName, long time) {
+        synchronized (writeLock) {
+            pendingStaff.computeIfAbsent(new StaffKey(floor(time, DAY), staffName), key -> new int[4])[DENIED]++;
+        }
+    }
+
+    static void countStaff(Map<StaffKey, int[]> counts, String staffName, String approvedBy, long day,
+                                   boolean hidden, int delta) {
+        int[] issuer = counts.computeIfAbsent(new StaffKey(day, staffName), key -> new int[4]);
+        issuer[ISSUED] += delta;
+        if (hidden) issuer[HIDDEN] += delta;
+        // Rank auto-approvals are the issuer's own decision, not an approval by staff
+        if (approvedBy != null && !Punishment.AUTO_APPROVED.equals(approvedBy)) {
+            counts.computeIfAbsent(new StaffKey(day, approvedBy), key -> new int[4])[APPROVED] += delta;
+        }
+    }
+
+    // --- Flusher ---
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to update punishment analytics: " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized void flush() throws SQLException {
+        long cutoff = floor(System.currentTimeMillis() - hourlyRetentionMillis, DAY);
+        synchronized (writeLock) {
+            if (cutoff <= hourlySince && backfilledUntil == Long.MAX_VALUE
+                    && pending.isEmpty() && pendingStaff.isEmpty()) return;
+        }
+
+        boolean changed = false;
+        try (Connection conn = databaseManager.openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            // Each count must see the writes committed before it, not a snapshot from the cycle's start
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            try {
+                if (cutoff > hourlySince) {
+                    changed |= compact(conn, cutoff);
+                    hourlySince = cutoff;
+                }
+                if (backfilledUntil != Long.MAX_VALUE) changed |= backfill(conn, cutoff);
+                changed |= flushPending(conn, cutoff);
+            } finally {
+                if (changed) version.bump();
+            }
+        }
+    }
+
+    // Fold hourly buckets older than the cutoff into daily ones
+    private boolean compact(Connection conn, long cutoff) throws SQLException {
+        Map<RollupKey, Integer> days = new HashMap<>();
+        try (PreparedStatement st = conn.prepareStatement("SELECT bucket_start, rule, type, staff_name, total " +
+                "FROM punishment_rollups WHERE granularity = 'h' AND bucket_start < ?")) {
+            st.setLong(1, cutoff);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    days.merge(new RollupKey(floor(rs.getLong("bucket_start"), DAY), rs.getString("rule"),
+                            rs.getString("type"), rs.getString("staff_name")), rs.getInt("total"), Integer::sum);
+                }
+            }
+        }
+        if (days.isEmpty()) return false;
+
+        try {
+            add(conn, "d", days);
+            try (PreparedStatement st = conn.prepareStatement(
+                    "DELETE FROM punishment_rollups WHERE granularity = 'h' AND bucket_start < ?")) {
+                st.setLong(1, cutoff);
+                st.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+        return true;
+    }
+
+    // Count existing punishments one window at a time, committing the progress with each window
+    private boolean backfill(Connection conn, long cutoff) throws SQLException {
+        long start = backfilledUntil;
+        if (start == Long.MIN_VALUE) {
+            try (PreparedStatement st = conn.prepareStatement("SELECT MIN(date) AS first FROM punishments");
+                 ResultSet rs = st.executeQuery()) {
+                Timestamp first = rs.next() ? rs.getTimestamp("first") : null;
+                start = first != null ? floor(first.getTime(), DAY) : floor(System.currentTimeMillis(), DAY);
+            }
+            logger.info("Building punishment analytics from existing history...");
+        }
+
+        long rows = 0;
+        while (true) {
+            long end = start + BACKFILL_WINDOW;
+            boolean last = end > System.currentTimeMillis();
+            long to = last ? Long.MAX_VALUE : end;
+            Map<RollupKey, Integer> hours = new HashMap<>();
+            Map<RollupKey, Integer> days = new HashMap<>();
+            Map<StaffKey, int[]> staff = new HashMap<>();
+            long counted = scanWindow(conn, start, to, cutoff, hours, days, staff);
+            if (counted < 0) return rows > 0;
+            rows += counted;
+
+            try {
+                add(conn, "h", hours);
+                add(conn, "d", days);
+                addStaff(conn, staff);
+                saveBackfillState(conn, last ? Long.MAX_VALUE : end);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                synchronized (writeLock) {
+                    // Counts recorded meanwhile for this window are read again on the next attempt
+                    backfilledUntil = start;
+                    long from = start;
+                    pending.keySet().removeIf(key -> key.bucket() >= from);
+                    pendingStaff.forEach((key, counts) -> {
+                        if (key.day() < from) return;
+                        counts[ISSUED] = 0;
+                        counts[APPROVED] = 0;
+                        counts[HIDDEN] = 0;
+                    });
+                }
+                throw e;
+            }
+
+            if (last) break;
+            start = end;
+        }
+        logger.info("Punishment analytics built from " + rows + " punishments");
+        return true;
+    }
+
+    /**
+     * Count a window like {@link #countPunishments}, again until no write touched it meanwhile,
+     * then move the backfill position past it.
+     *
+     * @return rows counted, or -1 if the flusher is stopping
+     */
+    private long scanWindow(Connection conn, long from, long to, long cutoff, Map<RollupKey, Integer> hours,
+                            Map<RollupKey, Integer> days, Map<StaffKey, int[]> staff) throws SQLException {
+        while (true) {
+            synchronized (writeLock) {
+                scanFrom = from;
+                scanTo = to;
+                scanDirty = false;
+            }
+            hours.clear();
+            days.clear();
+            staff.clear();
+            long rows = countPunishments(conn, from, to, cutoff, hours, days, staff);
+            // The transaction only read, so the next scan sees writes committed since
+            conn.commit();
+
+            synchronized (writeLock) {
+                // A write that committed during the scan may not have recorded its rows yet
+                try {
+                    while (writesInFlight > 0 && !scanDirty) writeLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    scanFrom = Long.MAX_VALUE;
+                    scanTo = Long.MAX_VALUE;
+                    return -1;
+                }
+                if (scanDirty) continue;
+                scanFrom = Long.MAX_VALUE;
+                scanTo = Long.MAX_VALUE;
+                backfilledUntil = to;
+                return rows;
+            }
+        }
+    }
+
+    private boolean flushPending(Connection conn, long cutoff) throws SQLException {
+        Map<RollupKey, Integer> batch;
+        Map<StaffKey, int[]> staffBatch;
+        synchronized (writeLock) {
+            if (pending.isEmpty() && pendingStaff.isEmpty()) return false;
+            batch = pending;
+            staffBatch = pendingStaff;
+            pending = new HashMap<>();
+            pendingStaff = new HashMap<>();
+        }
+
+        Map<RollupKey, Integer> hours = new HashMap<>();
+        Map<RollupKey, Integer> days = new HashMap<>();
+        for (Map.Entry<RollupKey, Integer> entry : batch.entrySet()) {
+            RollupKey key = entry.getKey();
+            if (key.bucket() >= cutoff) {
+                hours.merge(key, entry.getValue(), Integer::sum);
+            } else {
+                days.merge(new RollupKey(floor(key.bucket(), DAY), key.rule(), key.type(), key.staffName()),
+                        entry.getValue(), Integer::sum);
+            }
+        }
+
+        try {
+            add(conn, "h", hours);
+            add(conn, "d", days);
+            addStaff(conn, staffBatch);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            synchronized (writeLock) {
+                batch.forEach((key, delta) -> pending.merge(key, delta, Integer::sum));
+                staffBatch.forEach((key, counts) -> {
+                    int[] merged = pendingStaff.computeIfAbsent(key, k -> new int[4]);
+                    for (int i = 0; i < counts.length; i++) merged[i] += counts[i];
+                });
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Count punishments dated in [from, to): visible ones into hourly buckets from the cutoff
+     * on and daily buckets before it, all of them into daily staff counters.
+     */
+    private long countPunishments(Connection conn, long from, long to, long cutoff, Map<RollupKey, Integer> hours,
+                                  Map<RollupKey, Integer> days, Map<StaffKey, int[]> staff) throws SQLException {
+        String sql = "SELECT rule, type, staff_name, approved_by, date, hidden FROM punishments WHERE date >= ?" +
+                (to != Long.MAX_VALUE ? " AND date < ?" : "");
+        long rows = 0;
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setFetchSize(1000);
+            st.setTimestamp(1, new Timestamp(from));
+            if (to != Long.MAX_VALUE) st.setTimestamp(2, new Timestamp(to));
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    long date = rs.getTimestamp("date").getTime();
+                    boolean hidden = rs.getBoolean("hidden");
+                    if (!hidden) {
+                        boolean hourly = date >= cutoff;
+                        RollupKey key = new RollupKey(floor(date, hourly ? HOUR : DAY),
+                                rs.getString("rule"), rs.getString("type"), rs.getString("staff_name"));
+                        (hourly ? hours : days).merge(key, 1, Integer::sum);
+                    }
+                    countStaff(staff, rs.getString("staff_name"), rs.getString("approved_by"),
+                            floor(date, DAY), hidden, 1);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Add counts to existing buckets, creating the missing ones
+    private void add(Connection conn, String granularity, Map<RollupKey, Integer> counts) throws SQLException {
+        if (counts.isEmpty()) return;
+        try (PreparedStatement update = conn.prepareStatement("UPDATE punishment_rollups SET total = total + ? " +
+                "WHERE bucket_start = ? AND granularity = ? AND rule = ? AND type = ? AND staff_name = ?");
+             PreparedStatement insert = conn.prepareStatement("INSERT INTO punishment_rollups " +
+                     "(bucket_start, granularity, rule, type, staff_name, total) VALUES (?, ?, ?, ?, ?, ?)")) {
+            boolean inserts = false;
+            for (Map.Entry<RollupKey, Integer> entry : counts.entrySet()) {
+                RollupKey key = entry.getKey();
+                int delta = entry.getValue();
+                if (delta == 0) continue;
+
+                update.setInt(1, delta);
+                update.setLong(2, key.bucket());
+                update.setString(3, granularity);
+                update.setString(4, key.rule());
+                update.setString(5, key.type());
+                update.setString(6, key.staffName());
+                if (update.executeUpdate() > 0) continue;
+
+                insert.setLong(1, key.bucket());
+                insert.setString(2, granularity);
+                insert.setString(3, key.rule());
+                insert.setString(4, key.type());
+                insert.setString(5, key.staffName());
+                insert.setInt(6, delta);
+                insert.addBatch();
+                inserts = true;
+            }
+            if (inserts) insert.executeBatch();
+        }
+    }
+
+    // Add daily staff counts to their day, week, month and all-time rows
+    private void addStaff(Connection conn, Map<StaffKey, int[]> counts) throws SQLException {
+        Map<StaffRow, int[]> rows = new HashMap<>();
+        for (Map.Entry<StaffKey, int[]> entry : counts.entrySet()) {
+            StaffKey key = entry.getKey();
+            for (Period period : Period.values()) {
+                int[] row = rows.computeIfAbsent(new StaffRow(period, period.start(key.day()), key.staffName()),
+                        k -> new int[4]);
+                for (int i = 0; i < row.length; i++) row[i] += entry.getValue()[i];
+            }
+        }
+        if (rows.isEmpty()) return;
+
+        try (PreparedStatement update = conn.prepareStatement("UPDATE staff_activity SET issued = issued + ?, " +
+                "approved = approved + ?, denied = denied + ?, hidden = hidden + ? " +
+                "WHERE period = ? AND period_start = ? AND staff_name = ?");
+             PreparedStatement insert = conn.prepareStatement("INSERT INTO staff_activity " +
+                     "(period, period_start, staff_name, issued, approved, denied, hidden) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            boolean inserts = false;
+            for (Map.Entry<StaffRow, int[]> entry : rows.entrySet()) {
+                StaffRow key = entry.getKey();
+                int[] delta = entry.getValue();
+                if (delta[ISSUED] == 0 && delta[APPROVED] == 0 && delta[DENIED] == 0 && delta[HIDDEN] == 0) continue;
+
+                for (int i = 0; i < delta.length; i++) update.setInt(i + 1, delta[i]);
+                update.setString(5, key.period().code);
+                update.setLong(6, key.start());
+                update.setString(7, key.staffName());
+                if (update.executeUpdate() > 0) continue;
+
+                insert.setString(1, key.period().code);
+                insert.setLong(2, key.start());
+                insert.setString(3, key.staffName());
+                for (int i = 0; i < delta.length; i++) insert.setInt(i + 4, delta[i]);
+                insert.addBatch();
+                inserts = true;
+            }
+            if (inserts) insert.executeBatch();
+        }
+    }
+
+    private Long loadBackfillState(Connection conn) throws SQLException {
+        try (PreparedStatement st = conn.prepareStatement("SELECT long_value FROM analytics_state WHERE name = ?")) {
+            st.setString(1, BACKFILL_STATE);
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next() ? rs.getLong("long_value") : null;
+            }
+        }
+    }
+
+    private void saveBackfillState(Connection conn, long value) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement("UPDATE analytics_state SET long_value = ? WHERE name = ?")) {
+            update.setLong(1, value);
+            update.setString(2, BACKFILL_STATE);
+            if (update.executeUpdate() > 0) return;
+        }
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO analytics_state (name, long_value) VALUES (?, ?)")) {
+            insert.setString(1, BACKFILL_STATE);
+            insert.setLong(2, value);
+            insert.executeUpdate();
+        }
+    }
+
+    // --- Queries ---
+
+    /**
+     * Punishment counts per bucket between {@code from} and {@code to}, widened to whole
+     * buckets. Ranges older than {@link Timeseries#hourlySince()} only have daily counts,
+     * which hourly series report in the first hour of their day.
+     *
+     * @param rule optional exact filters, like {@code type} and {@code staffName}
+     * @return the series, or null if the query failed or spans more than the configured max points
+     */
+    public Timeseries getTimeseries(Interval interval, GroupBy groupBy, long from, long to,
+                                    String rule, String type, String staffName) {
+        long hourly = hourlySince;
+        long[] range = alignRange(interval, from, to, hourly);
+        long start = range[0];
+        long end = range[1];
+        int points = (int) ((end - start) / interval.getMillis());
+        if (points > maxPoints) return null;
+
+        StringBuilder sql = new StringBuilder("SELECT bucket_start, rule, type, staff_name, total " +
+                "FROM punishment_rollups WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> params = new ArrayList<>(List.of(start, end));
+        if (rule != null) { sql.append(" AND rule = ?"); params.add(rule); }
+        if (type != null) { sql.append(" AND type = ?"); params.add(type); }
+        if (staffName != null) { sql.append(" AND staff_name = ?"); params.add(staffName); }
+
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) st.setObject(i + 1, params.get(i));
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    String key = switch (groupBy) {
+                        case NONE -> "all";
+                        case RULE -> rs.getString("rule");
+                        case TYPE -> rs.getString("type").toLowerCase(Locale.ROOT);
+                        case STAFF -> rs.getString("staff_name");
+                    };
+                    int index = (int) ((interval.align(rs.getLong("bucket_start")) - start) / interval.getMillis());
+                    counts.computeIfAbsent(key, k -> new long[points])[index] += rs.getInt("total");
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load punishment timeseries: " + e.getMessage(), e);
+            return null;
+        }
+
+        List<Series> series = new ArrayList<>();
+        counts.forEach((key, values) -> {
+            long total = 0;
+            for (long value : values) total += value;
+            if (total != 0) series.add(new Series(key, total, values));
+        });
+        series.sort((a, b) -> Long.compare(b.total(), a.total()));
+
+        long[] buckets = new long[points];
+        for (int i = 0; i < points; i++) buckets[i] = start + i * interval.getMillis();
+        return new Timeseries(interval, groupBy, start, end, hourly, buckets, series);
+    }
+
+    /**
+     * Staff members active in the period containing {@code time}, best first. Reads one row
+     * per staff member; counts written in the last flush interval are not included yet.
+     *
+     * @return at most {@code limit} entries, or null if the query failed
+     */
+    public List<StaffActivity> getLeaderboard(Period period, long time, Sort sort, int limit) {
+        String sql = "SELECT staff_name, issued, approved, denied, hidden FROM staff_activity " +
+                "WHERE period = ? AND period_start = ? AND (issued <> 0 OR approved <> 0 OR denied <> 0 OR hidden <> 0) " +
+                "ORDER BY " + sort.column + " DESC, staff_name LIMIT ?";
+        List<StaffActivity> leaderboard = new ArrayList<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setString(1, period.code);
+            st.setLong(2, period.start(time));
+            st.setInt(3, limit);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    leaderboard.add(new StaffActivity(rs.getString("staff_name"), rs.getInt("issued"),
+                            rs.getInt("approved"), rs.getInt("denied"), rs.getInt("hidden")));
+                }
+            }
+            return leaderboard;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load staff leaderboard: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return number of buckets {@link #getTimeseries} would answer for this range
+     */
+    public long countBuckets(Interval interval, long from, long to) {
+        long[] range = alignRange(interval, from, to, hourlySince);
+        return (range[1] - range[0]) / interval.getMillis();
+    }
+
+    static long[] alignRange(Interval interval, long from, long to, long hourlySince) {
+        long start = interval.align(from < hourlySince ? Interval.DAY.align(from) : from);
+        long end = Math.max(start + interval.getMillis(), interval.align(to - 1) + interval.getMillis());
+        return new long[]{start, end};
+    }
+
+    private static long floor(long time, long size) {
+        return Math.floorDiv(time, size) * size;
+    }
+}
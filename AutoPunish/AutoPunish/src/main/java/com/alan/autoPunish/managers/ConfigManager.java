@@ -2,6 +2,11 @@ package com.alan.autoPunish.managers;
 
 import com.alan.autoPunish.AutoPunish;
 import com.alan.autoPunish.models.PunishmentRule;
+import com.alan.autoPunish.utils.TimeUtil;
+import com.alan.autoPunish.webhook.WebhookDigestConfig;
+import com.alan.autoPunish.webhook.WebhookEventType;
+import com.alan.autoPunish.webhook.WebhookRoute;
+import com.alan.autoPunish.webhook.WebhookSinkConfig;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
@@ -17,12 +22,17 @@ public class ConfigManager {
     private String storageType;
     private Map<String, String> mysqlConfig;
     private Map<String, PunishmentRule> rules;
+    private Map<String, WebhookSinkConfig> webhookSinks;
+    private List<WebhookRoute> webhookRoutes;
+    private WebhookDigestConfig webhookDigest;
 
     public ConfigManager(AutoPunish plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.rules = new HashMap<>();
         this.mysqlConfig = new HashMap<>();
+        this.webhookSinks = new LinkedHashMap<>();
+        this.webhookRoutes = new ArrayList<>();
         loadConfig();
     }
 
@@ -33,6 +43,7 @@ public class ConfigManager {
 
         // Load Discord webhook
         discordWebhook = config.getString("discord-webhook", "");
+        loadWebhookRouting();
 
         // Load storage configuration
         storageType = config.getString("storage.type", "sqlite");
@@ -81,6 +92,93 @@ public class ConfigManager {
         logger.info("Configuration loaded successfully!");
     }
 
+    // Load webhook sinks and routes; fall back to the single discord-webhook for every event
+    private void loadWebhookRouting() {
+        webhookSinks.clear();
+        webhookRoutes.clear();
+
+        ConfigurationSection sinksSection = config.getConfigurationSection("webhooks.sinks");
+        if (sinksSection != null) {
+            for (String name : sinksSection.getKeys(false)) {
+                ConfigurationSection sink = sinksSection.getConfigurationSection(name);
+                if (sink == null) continue;
+                webhookSinks.put(name, new WebhookSinkConfig(
+                        name,
+                        sink.getString("url", ""),
+                        sink.getString("format", "discord"),
+                        sink.getInt("queue-size", 500),
+                        sink.getInt("rate-limit", 30),
+                        sink.getInt("burst", 5),
+                        sink.getInt("max-retries", 3),
+                        sink.getLong("retry-backoff-ms", 1000)
+                ));
+            }
+        }
+
+        for (Map<?, ?> routeMap : config.getMapList("webhooks.routes")) {
+            List<String> sinks = toStringList(routeMap.get("sinks"));
+            if (sinks.isEmpty()) {
+                logger.warning("Ignoring webhook route without sinks: " + routeMap);
+                continue;
+            }
+            Set<String> events = new HashSet<>(toLowerCaseList(routeMap.get("events")));
+            for (String event : events) {
+                if (event.equals("*")) continue;
+                try {
+                    WebhookEventType.fromKey(event);
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Unknown webhook event '" + event + "' in route " + routeMap);
+                }
+            }
+            webhookRoutes.add(new WebhookRoute(
+                    events,
+                    new HashSet<>(toLowerCaseList(routeMap.get("rules"))),
+                    new HashSet<>(toLowerCaseList(routeMap.get("types"))),
+                    sinks
+            ));
+        }
+
+        if (webhookSinks.isEmpty() && discordWebhook != null && !discordWebhook.isEmpty()) {
+            webhookSinks.put("default", new WebhookSinkConfig("default", discordWebhook, "discord", 500, 30, 5, 3, 1000));
+        }
+        if (webhookRoutes.isEmpty() && webhookSinks.containsKey("default")) {
+            webhookRoutes.add(new WebhookRoute(Set.of(), Set.of(), Set.of(), List.of("default")));
+        }
+
+        ConfigurationSection digest = config.getConfigurationSection("webhooks.digest");
+        if (digest != null && digest.getBoolean("enabled", false)) {
+            webhookDigest = new WebhookDigestConfig(
+                    true,
+                    digest.getLong("interval-minutes", 15) * 60,
+                    new HashSet<>(toLowerCaseList(digest.getList("events", List.of("punishment")))),
+                    new HashSet<>(toLowerCaseList(digest.getList("types", List.of("warn", "mute")))),
+                    TimeUtil.parseDuration(digest.getString("max-duration", "1h")),
+                    digest.getInt("top", 5)
+            );
+        } else {
+            webhookDigest = WebhookDigestConfig.disabled();
+        }
+
+        logger.info("Loaded " + webhookSinks.size() + " webhook sink(s) and " + webhookRoutes.size() + " route(s)" +
+                (webhookDigest.enabled() ? ", digest every " + webhookDigest.intervalSeconds() / 60 + " minute(s)" : ""));
+    }
+
+    private List<String> toStringList(Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof Collection<?> collection) {
+            for (Object item : collection) result.add(String.valueOf(item));
+        } else if (value != null) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
+
+    private List<String> toLowerCaseList(Object value) {
+        List<String> result = toStringList(value);
+        result.replaceAll(String::toLowerCase);
+        return result;
+    }
+
     // Save rules to config.yml
     public void saveRulesToConfig() {
         ConfigurationSection rulesSection = config.createSection("rules");
@@ -145,6 +243,18 @@ public class ConfigManager {
         return discordWebhook;
     }
 
+    public Map<String, WebhookSinkConfig> getWebhookSinks() {
+        return webhookSinks;
+    }
+
+    public List<WebhookRoute> getWebhookRoutes() {
+        return webhookRoutes;
+    }
+
+    public WebhookDigestConfig getWebhookDigest() {
+        return webhookDigest;
+    }
+
     public String getStorageType() {
         return storageType;
     }
@@ -2,29 +2,47 @@ package com.alan.autoPunish.managers;
 
 import com.alan.autoPunish.AutoPunish;
 import com.alan.autoPunish.models.Punishment;
+import com.alan.autoPunish.models.PunishmentRecord;
 import com.alan.autoPunish.models.PunishmentRule;
 import com.alan.autoPunish.models.QueuedPunishment;
+import com.alan.autoPunish.utils.PasswordHasher;
+import com.alan.autoPunish.web.DataVersion;
+import com.alan.autoPunish.web.PanelSession;
+import com.alan.autoPunish.web.PlayerNameIndex;
+import com.alan.autoPunish.web.TokenRevocation;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 
 public class DatabaseManager {
     private final AutoPunish plugin;
     private final Logger logger;
     private final ConfigManager configManager;
+    private final PasswordHasher passwordHasher;
     private Connection connection;
 
+    // Bumped after writes so the web panel can answer unchanged reads with 304
+    private final DataVersion punishmentVersion = new DataVersion("p");
+    private final DataVersion chatVersion = new DataVersion("c");
+    private final PlayerNameIndex playerNameIndex = new PlayerNameIndex();
+    private boolean playerNameIndexLoaded;
+    // Index checks are metadata queries, so they run once rather than on every reconnect
+    private boolean indexesChecked;
+    // Serializes changes to existing punishments, so the rows read before a change are the ones changed
+    private final Object punishmentUpdateLock = new Object();
+
     public DatabaseManager(AutoPunish plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.configManager = configManager;
+        this.passwordHasher = new PasswordHasher(plugin.getConfig().getInt("public-web-panel.login.hash-iterations", 600_000));
         setupDatabase();
     }
 
@@ -39,6 +57,7 @@ public class DatabaseManager {
 
             createTables();
             migrateTables(); // Handle schema updates
+            loadPlayerNameIndex();
             logger.info("Database connection established successfully!");
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to connect to database: " + e.getMessage(), e);
@@ -53,10 +72,12 @@ public class DatabaseManager {
         if (!dataFolder.exists()) dataFolder.mkdirs();
 
         File dbFile = new File(dataFolder, "punishments");
-        String url = "jdbc:h2:" + dbFile.getAbsolutePath() + ";MODE=MySQL";
-
         logger.info("Connecting to H2 database at: " + dbFile.getAbsolutePath());
-        connection = DriverManager.getConnection(url);
+        connection = DriverManager.getConnection(h2Url());
+    }
+
+    private String h2Url() {
+        return "jdbc:h2:" + new File(plugin.getDataFolder(), "punishments").getAbsolutePath() + ";MODE=MySQL";
     }
 
     private void setupMysql() throws SQLException {
@@ -67,10 +88,27 @@ public class DatabaseManager {
         }
 
         Map<String, String> cfg = configManager.getMysqlConfig();
-        String url = "jdbc:mysql://" + cfg.get("host") + ":" + cfg.get("port") + "/" + cfg.get("database") +
-                "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
+        connection = DriverManager.getConnection(mysqlUrl(cfg), cfg.get("username"), cfg.get("password"));
+    }
+
+    private static String mysqlUrl(Map<String, String> cfg) {
+        return "jdbc:mysql://" + cfg.get("host") + ":" + cfg.get("port") + "/" + cfg.get("database") +
+                "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&useCursorFetch=true";
+    }
 
-        connection = DriverManager.getConnection(url, cfg.get("username"), cfg.get("password"));
+    /**
+     * Connection of its own for long reads such as exports, which would otherwise be cut
+     * off when another call closes the shared one. The caller closes it.
+     */
+    Connection openDedicatedConnection() throws SQLException {
+        if (configManager.getStorageType().equalsIgnoreCase("mysql")) {
+            Map<String, String> cfg = configManager.getMysqlConfig();
+            // Imports send batches as multi-row inserts instead of one round trip per row
+            return DriverManager.getConnection(mysqlUrl(cfg) + "&rewriteBatchedStatements=true",
+                    cfg.get("username"), cfg.get("password"));
+        }
+        // Lazy execution lets H2 hand out rows as it reads them instead of building the result first
+        return DriverManager.getConnection(h2Url() + ";LAZY_QUERY_EXECUTION=1");
     }
 
     private void createTables() throws SQLException {
@@ -90,7 +128,8 @@ public class DatabaseManager {
                             "staff_uuid VARCHAR(36) NOT NULL, " +
                             "date TIMESTAMP NOT NULL, " +
                             "evidence_link VARCHAR(500) NULL, " +
-                            "hidden BOOLEAN DEFAULT FALSE" +
+                            "hidden BOOLEAN DEFAULT FALSE, " +
+                            "approved_by VARCHAR(100) NULL" +
                             ");"
             );
 
@@ -109,6 +148,51 @@ public class DatabaseManager {
                             ");"
             );
 
+            // Resume points of punishment imports, one row per source file or table
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS import_checkpoints (" +
+                            "source_key VARCHAR(255) PRIMARY KEY, " +
+                            "position BIGINT NOT NULL, " +
+                            "processed BIGINT NOT NULL, " +
+                            "inserted BIGINT NOT NULL, " +
+                            "updated_at TIMESTAMP NOT NULL" +
+                            ");"
+            );
+
+            // Visible punishments per hour ('h') or day ('d'), maintained by AnalyticsManager
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS punishment_rollups (" +
+                            "bucket_start BIGINT NOT NULL, " +
+                            "granularity CHAR(1) NOT NULL, " +
+                            "rule VARCHAR(50) NOT NULL, " +
+                            "type VARCHAR(20) NOT NULL, " +
+                            "staff_name VARCHAR(100) NOT NULL, " +
+                            "total INT NOT NULL, " +
+                            "PRIMARY KEY (bucket_start, granularity, rule, type, staff_name)" +
+                            ");"
+            );
+
+            // Staff counters per day ('d'), week ('w'), month ('m') and all time ('a'), maintained by AnalyticsManager
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS staff_activity (" +
+                            "period CHAR(1) NOT NULL, " +
+                            "period_start BIGINT NOT NULL, " +
+                            "staff_name VARCHAR(100) NOT NULL, " +
+                            "issued INT NOT NULL, " +
+                            "approved INT NOT NULL, " +
+                            "denied INT NOT NULL, " +
+                            "hidden INT NOT NULL, " +
+                            "PRIMARY KEY (period, period_start, staff_name)" +
+                            ");"
+            );
+
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS analytics_state (" +
+                            "name VARCHAR(50) PRIMARY KEY, " +
+                            "long_value BIGINT NOT NULL" +
+                            ");"
+            );
+
             statement.execute(
                     "CREATE TABLE IF NOT EXISTS rules (" +
                             "rule_name VARCHAR(50) NOT NULL, " +
@@ -141,6 +225,29 @@ public class DatabaseManager {
                             ");"
             );
 
+            // Web panel sessions (only used when public-web-panel.sessions.persist is enabled)
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS panel_sessions (" +
+                            "session_key VARCHAR(64) PRIMARY KEY, " +
+                            "username VARCHAR(50) NOT NULL, " +
+                            "uuid VARCHAR(36) NULL, " +
+                            "role VARCHAR(20) NOT NULL, " +
+                            "created_at BIGINT NOT NULL, " +
+                            "expires_at BIGINT NOT NULL" +
+                            ");"
+            );
+
+            // Revoked web panel tokens, shared by panel nodes in token auth mode
+            statement.execute(
+                    "CREATE TABLE IF NOT EXISTS panel_token_revocations (" +
+                            "kind VARCHAR(10) NOT NULL, " +
+                            "subject VARCHAR(64) NOT NULL, " +
+                            "revoked_at BIGINT NOT NULL, " +
+                            "expires_at BIGINT NOT NULL, " +
+                            "PRIMARY KEY (kind, subject, revoked_at)" +
+                            ");"
+            );
+
             logger.info("Database tables created successfully!");
         }
     }
@@ -196,13 +303,95 @@ public class DatabaseManager {
                 }
             }
 
+            // Check if approved_by column exists
+            try {
+                DatabaseMetaData metaData = connection.getMetaData();
+                ResultSet rs = metaData.getColumns(null, null, "PUNISHMENTS", "APPROVED_BY");
+                if (!rs.next()) {
+                    logger.info("Migrating punishments table: adding approved_by column");
+                    statement.execute("ALTER TABLE punishments ADD COLUMN approved_by VARCHAR(100) NULL");
+                    splitApproverNames();
+                } else {
+                    logger.info("approved_by column already exists in punishments table");
+                }
+                rs.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Could not check for approved_by column: " + e.getMessage());
+                try {
+                    statement.execute("ALTER TABLE punishments ADD COLUMN approved_by VARCHAR(100) NULL");
+                    logger.info("Added approved_by column to punishments table");
+                    splitApproverNames();
+                } catch (SQLException ignored) {
+                    logger.info("approved_by column already exists or migration completed");
+                }
+            }
+
             // Check and fix column sizes if needed
             fixColumnSizes(statement);
+
+            if (!indexesChecked) {
+                // Date ranges and chronological exports read through this index instead of scanning
+                boolean date = ensureIndex(statement, "idx_punishments_date", "date");
+                // Player histories, and analysis jobs reading the history player by player
+                boolean player = ensureIndex(statement, "idx_punishments_player", "player_uuid, date");
+                indexesChecked = date && player;
+            }
         } catch (Exception e) {
             logger.log(Level.WARNING, "Database migration check failed: " + e.getMessage());
         }
     }
 
+    // Approvals used to be stored as "Staff (Approved by Admin)" in staff_name
+    private void splitApproverNames() throws SQLException {
+        Pattern approved = Pattern.compile("^(.*?) \\(Approved by (.*)\\)$");
+        Map<String, String[]> names = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, staff_name FROM punishments WHERE staff_name LIKE '% (Approved by %)'")) {
+            while (rs.next()) {
+                Matcher matcher = approved.matcher(rs.getString("staff_name"));
+                if (!matcher.matches()) continue;
+                String approver = matcher.group(2).endsWith(" (Auto-approved by rank)")
+                        ? Punishment.AUTO_APPROVED : matcher.group(2);
+                names.put(rs.getString("id"), new String[]{matcher.group(1), approver});
+            }
+        }
+        if (names.isEmpty()) return;
+
+        try (PreparedStatement st = connection.prepareStatement(
+                "UPDATE punishments SET staff_name = ?, approved_by = ? WHERE id = ?")) {
+            for (Map.Entry<String, String[]> entry : names.entrySet()) {
+                st.setString(1, entry.getValue()[0]);
+                st.setString(2, entry.getValue()[1]);
+                st.setString(3, entry.getKey());
+                st.addBatch();
+            }
+            st.executeBatch();
+        }
+        logger.info("Moved approvers of " + names.size() + " punishments into approved_by");
+    }
+
+    /**
+     * @return whether the index exists now
+     */
+    private boolean ensureIndex(Statement statement, String name, String columns) {
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : new String[]{"PUNISHMENTS", "punishments"}) {
+                try (ResultSet rs = metaData.getIndexInfo(null, null, table, false, true)) {
+                    while (rs.next()) {
+                        if (name.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+                    }
+                }
+            }
+            logger.info("Migrating punishments table: adding index " + name);
+            statement.execute("CREATE INDEX " + name + " ON punishments (" + columns + ")");
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not add punishments index " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     // NEW: Fix column sizes for existing databases
     private void fixColumnSizes(Statement statement) throws SQLException {
         logger.info("Checking column sizes for migration...");
@@ -281,6 +470,60 @@ public class DatabaseManager {
         return connection;
     }
 
+    public DataVersion getPunishmentVersion() {
+        return punishmentVersion;
+    }
+
+    public PlayerNameIndex getPlayerNameIndex() {
+        return playerNameIndex;
+    }
+
+    // Every write to punishments runs between these two, see AnalyticsManager
+    AnalyticsManager beginPunishmentWrite() {
+        AnalyticsManager analytics = plugin.getAnalyticsManager();
+        if (analytics != null) analytics.beginWrite();
+        return analytics;
+    }
+
+    void endPunishmentWrite(AnalyticsManager analytics) {
+        if (analytics != null) analytics.endWrite();
+    }
+
+    // Call after the write committed, before endPunishmentWrite
+    void recordAnalytics(String rule, String type, String staffName, String approvedBy, long date, boolean hidden,
+                         int delta) {
+        AnalyticsManager analytics = plugin.getAnalyticsManager();
+        if (analytics != null) analytics.record(rule, type, staffName, approvedBy, date, hidden, delta);
+    }
+
+    private void recordAnalytics(PunishmentRecord row, int delta) {
+        recordAnalytics(row.rule(), row.type(), row.staffName(), row.approvedBy(), row.date(), row.hidden(), delta);
+    }
+
+    // Every visible (name, player) pair with its latest punishment, for typeahead search.
+    // Loaded once; later reconnects keep the index, which writes maintain themselves.
+    private void loadPlayerNameIndex() {
+        if (playerNameIndexLoaded) return;
+        String sql = "SELECT player_name, player_uuid, MAX(date) AS last_seen FROM punishments " +
+                "WHERE hidden = FALSE GROUP BY player_name, player_uuid";
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                Timestamp lastSeen = rs.getTimestamp("last_seen");
+                playerNameIndex.add(rs.getString("player_name"), rs.getString("player_uuid"),
+                        lastSeen != null ? lastSeen.getTime() : 0L);
+            }
+            playerNameIndexLoaded = true;
+            logger.info("Indexed " + playerNameIndex.size() + " punished players for search");
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to build player name index: " + e.getMessage(), e);
+        }
+    }
+
+    public DataVersion getChatVersion() {
+        return chatVersion;
+    }
+
     // --- Rule Management ---
     public void syncRule(PunishmentRule rule) {
         String deleteSql = "DELETE FROM rules WHERE rule_name = ?;";
@@ -381,7 +624,7 @@ public class DatabaseManager {
 
     // --- Punishments ---
     public void savePunishment(Punishment p) {
-        String sql = "INSERT INTO punishments (id, player_uuid, player_name, rule, type, duration, staff_name, staff_uuid, date, evidence_link, hidden) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+        String sql = "INSERT INTO punishments (id, player_uuid, player_name, rule, type, duration, staff_name, staff_uuid, date, evidence_link, hidden, approved_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
         try (Connection conn = getConnection();
              PreparedStatement st = conn.prepareStatement(sql)) {
             st.setString(1, p.getId().toString());
@@ -395,7 +638,17 @@ public class DatabaseManager {
             st.setTimestamp(9, new Timestamp(p.getDate().getTime()));
             st.setString(10, null); // evidence_link is initially null
             st.setBoolean(11, false); // hidden is initially false
-            st.executeUpdate();
+            st.setString(12, p.getApprovedBy());
+            AnalyticsManager analytics = beginPunishmentWrite();
+            try {
+                st.executeUpdate();
+                recordAnalytics(p.getRule(), p.getType(), p.getStaffName(), p.getApprovedBy(),
+                        p.getDate().getTime(), false, 1);
+            } finally {
+                endPunishmentWrite(analytics);
+            }
+            punishmentVersion.bump();
+            playerNameIndex.add(p.getPlayerName(), p.getPlayerUuid().toString(), p.getDate().getTime());
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to save punishment: " + e.getMessage(), e);
         }
@@ -408,6 +661,23 @@ public class DatabaseManager {
         return fetchPunishments("SELECT * FROM punishments WHERE player_uuid = ? AND hidden = FALSE ORDER BY date DESC;", playerUuid.toString());
     }
 
+    // Every punishment of a player including hidden ones, newest first; null if the query failed
+    public List<PunishmentRecord> getPunishmentRecordsForPlayer(String playerUuid) {
+        String sql = "SELECT * FROM punishments WHERE player_uuid = ? ORDER BY date DESC";
+        List<PunishmentRecord> records = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setString(1, playerUuid);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) records.add(PunishmentRecord.fromResultSet(rs));
+            }
+            return records;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to fetch player punishments: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
     // Get punishments for a player filtered by rule (excluding hidden)
     public List<Punishment> getPunishmentHistoryForRule(UUID playerUuid, String rule) {
         return fetchPunishments("SELECT * FROM punishments WHERE player_uuid = ? AND rule = ? AND hidden = FALSE ORDER BY date ASC;", playerUuid.toString(), rule);
@@ -436,6 +706,7 @@ public class DatabaseManager {
             st.setString(1, evidenceLink);
             st.setString(2, punishmentId);
             int rowsAffected = st.executeUpdate();
+            if (rowsAffected > 0) punishmentVersion.bump();
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to update evidence link: " + e.getMessage(), e);
@@ -463,15 +734,159 @@ public class DatabaseManager {
     // NEW: Hide/unhide a punishment
     public boolean setPunishmentHidden(String punishmentId, boolean hidden) {
         String sql = "UPDATE punishments SET hidden = ? WHERE id = ?";
+        synchronized (punishmentUpdateLock) {
+            Map<String, PunishmentRecord> before = fetchRecordsById(List.of(punishmentId));
+            if (before == null) return false;
+            AnalyticsManager analytics = beginPunishmentWrite();
+            try (Connection conn = getConnection();
+                 PreparedStatement st = conn.prepareStatement(sql)) {
+                st.setBoolean(1, hidden);
+                st.setString(2, punishmentId);
+                int rowsAffected = st.executeUpdate();
+                if (rowsAffected > 0) {
+                    recordVisibilityChanges(before.values(), hidden);
+                    punishmentVersion.bump();
+                }
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Failed to set punishment hidden status: " + e.getMessage(), e);
+                return false;
+            } finally {
+                endPunishmentWrite(analytics);
+            }
+        }
+    }
+
+    // --- Bulk moderation ---
+
+    /**
+     * Ids of punishments matching every given (non-null) criterion, at most {@code limit}.
+     * Names and rules match exactly, unlike the listing's substring search.
+     *
+     * @return the ids, or null if the query failed
+     */
+    public List<String> findPunishmentIds(String playerName, String playerUuid, String rule, String type,
+                                          String staffName, Long since, Long until, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM punishments WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (playerName != null) { sql.append(" AND LOWER(player_name) = LOWER(?)"); params.add(playerName); }
+        if (playerUuid != null) { sql.append(" AND player_uuid = ?"); params.add(playerUuid); }
+        if (rule != null) { sql.append(" AND rule = ?"); params.add(rule); }
+        if (type != null) { sql.append(" AND type = ?"); params.add(type); }
+        if (staffName != null) { sql.append(" AND staff_name = ?"); params.add(staffName); }
+        if (since != null) { sql.append(" AND date >= ?"); params.add(new Timestamp(since)); }
+        if (until != null) { sql.append(" AND date < ?"); params.add(new Timestamp(until)); }
+        sql.append(" ORDER BY date DESC LIMIT ?");
+        params.add(limit);
+
+        List<String> ids = new ArrayList<>();
         try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) st.setObject(i + 1, params.get(i));
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) ids.add(rs.getString("id"));
+            }
+            return ids;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to find punishments for bulk update: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Hide or unhide many punishments in one transaction.
+     *
+     * @return number of punishments updated, or -1 if nothing was changed because of an error
+     */
+    public int setPunishmentsHidden(Collection<String> punishmentIds, boolean hidden) {
+        synchronized (punishmentUpdateLock) {
+            Map<String, PunishmentRecord> before = fetchRecordsById(punishmentIds);
+            if (before == null) return -1;
+            AnalyticsManager analytics = beginPunishmentWrite();
+            try {
+                int updated = executeBulkUpdate("UPDATE punishments SET hidden = ? WHERE id = ?", hidden, punishmentIds);
+                if (updated > 0) recordVisibilityChanges(before.values(), hidden);
+                return updated;
+            } finally {
+                endPunishmentWrite(analytics);
+            }
+        }
+    }
+
+    // Analytics counts of punishments that became visible or hidden
+    private void recordVisibilityChanges(Collection<PunishmentRecord> before, boolean hidden) {
+        for (PunishmentRecord row : before) {
+            if (row.hidden() == hidden) continue;
+            recordAnalytics(row, -1);
+            recordAnalytics(row.withHidden(hidden), 1);
+        }
+    }
+
+    // Rows by id, looked up in chunks; null if a query failed
+    private Map<String, PunishmentRecord> fetchRecordsById(Collection<String> punishmentIds) {
+        Map<String, PunishmentRecord> records = new HashMap<>();
+        List<String> ids = new ArrayList<>(punishmentIds);
+        for (int from = 0; from < ids.size(); from += 500) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + 500));
+            String sql = "SELECT * FROM punishments WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (Connection conn = getConnection();
+                 PreparedStatement st = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) st.setString(i + 1, chunk.get(i));
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        PunishmentRecord record = PunishmentRecord.fromResultSet(rs);
+                        records.put(record.id(), record);
+                    }
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Failed to load punishments by id: " + e.getMessage(), e);
+                return null;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Set the same evidence link on many punishments in one transaction.
+     *
+     * @return number of punishments updated, or -1 if nothing was changed because of an error
+     */
+    public int updateEvidenceLinks(Collection<String> punishmentIds, String evidenceLink) {
+        return executeBulkUpdate("UPDATE punishments SET evidence_link = ? WHERE id = ?", evidenceLink, punishmentIds);
+    }
+
+    // Runs on a connection of its own, so other queries neither join the transaction nor
+    // close the connection under it
+    private int executeBulkUpdate(String sql, Object value, Collection<String> punishmentIds) {
+        if (punishmentIds.isEmpty()) return 0;
+
+        try (Connection conn = openDedicatedConnection();
              PreparedStatement st = conn.prepareStatement(sql)) {
-            st.setBoolean(1, hidden);
-            st.setString(2, punishmentId);
-            int rowsAffected = st.executeUpdate();
-            return rowsAffected > 0;
+            conn.setAutoCommit(false);
+            try {
+                int updated = 0;
+                for (String id : punishmentIds) {
+                    st.setObject(1, value);
+                    st.setString(2, id);
+                    st.addBatch();
+                }
+                for (int count : st.executeBatch()) {
+                    // Some drivers report SUCCESS_NO_INFO (-2) instead of a row count
+                    updated += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+                }
+                conn.commit();
+                // One bump for the whole batch, so caches are invalidated once
+                if (updated > 0) punishmentVersion.bump();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Failed to set punishment hidden status: " + e.getMessage(), e);
-            return false;
+            logger.log(Level.SEVERE, "Failed to bulk update punishments: " + e.getMessage(), e);
+            return -1;
         }
     }
 
@@ -492,6 +907,104 @@ public class DatabaseManager {
         return false;
     }
 
+    /** Receives the rows of {@link #streamPunishments} one at a time */
+    public interface PunishmentRowHandler {
+        void accept(PunishmentRecord punishment) throws IOException;
+    }
+
+    /**
+     * Hand every matching punishment, oldest first, to a handler without collecting them.
+     * Reads through a forward-only cursor on a dedicated connection, {@code fetchSize} rows
+     * per round trip, so memory use does not depend on the number of rows.
+     *
+     * @param hidden null for both hidden and visible punishments
+     * @return number of rows handled, or -1 if the query failed
+     * @throws IOException if the handler failed; the export is then aborted
+     */
+    public long streamPunishments(Long since, Long until, String rule, String type, Boolean hidden,
+                                  int fetchSize, PunishmentRowHandler handler) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM punishments WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (since != null) { sql.append(" AND date >= ?"); params.add(new Timestamp(since)); }
+        if (until != null) { sql.append(" AND date < ?"); params.add(new Timestamp(until)); }
+        if (rule != null) { sql.append(" AND rule = ?"); params.add(rule); }
+        if (type != null) { sql.append(" AND type = ?"); params.add(type); }
+        if (hidden != null) { sql.append(" AND hidden = ?"); params.add(hidden); }
+        sql.append(" ORDER BY date ASC");
+
+        long count = 0;
+        try (Connection conn = openDedicatedConnection();
+             PreparedStatement st = conn.prepareStatement(sql.toString(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            st.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) st.setObject(i + 1, params.get(i));
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(PunishmentRecord.fromResultSet(rs));
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to stream punishments after " + count + " rows: " + e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    @FunctionalInterface
+    public interface HistoryRowHandler {
+        void accept(String playerUuid, String rule, String type, String duration, long date);
+    }
+
+    /**
+     * Hand every visible punishment to a handler, grouped by player and oldest first within
+     * a player, for analysis jobs over the whole history. Reads like {@link #streamPunishments}.
+     *
+     * @return number of rows handled, or -1 if the query failed
+     */
+    public long streamHistoryByPlayer(int fetchSize, HistoryRowHandler handler) {
+        String sql = "SELECT player_uuid, rule, type, duration, date FROM punishments " +
+                "WHERE hidden = FALSE ORDER BY player_uuid, date";
+        long count = 0;
+        try (Connection conn = openDedicatedConnection();
+             PreparedStatement st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            st.setFetchSize(fetchSize);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getTimestamp(5).getTime());
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to read punishment history after " + count + " rows: " + e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * Batched writer for one import source, on a connection of its own. The caller closes it.
+     */
+    public PunishmentImportWriter openImportWriter(String sourceKey) throws SQLException {
+        Connection conn = openDedicatedConnection();
+        try {
+            return new PunishmentImportWriter(this, conn, sourceKey);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    // Called by the import writer with the rows of each committed batch, before it ends the write
+    void punishmentsImported(List<PunishmentRecord> rows) {
+        for (PunishmentRecord row : rows) {
+            recordAnalytics(row, 1);
+            if (!row.hidden()) playerNameIndex.add(row.playerName(), row.playerUuid(), row.date());
+        }
+        punishmentVersion.bump();
+    }
+
     // NEW: Get all punishments including hidden ones (for staff management)
     public List<Punishment> getAllPunishments() {
         return fetchPunishments("SELECT * FROM punishments ORDER BY date DESC;");
@@ -542,16 +1055,34 @@ public class DatabaseManager {
 
     // --- Player History Reset ---
     public boolean resetPlayerHistory(UUID playerUuid) {
+        synchronized (punishmentUpdateLock) {
+            List<PunishmentRecord> removed = getPunishmentRecordsForPlayer(playerUuid.toString());
+            if (removed == null) return false;
+            AnalyticsManager analytics = beginPunishmentWrite();
+            try {
+                return deletePlayerHistory(playerUuid, removed);
+            } finally {
+                endPunishmentWrite(analytics);
+            }
+        }
+    }
+
+    private boolean deletePlayerHistory(UUID playerUuid, List<PunishmentRecord> removed) {
         try (Connection conn = getConnection();
              PreparedStatement st1 = conn.prepareStatement("DELETE FROM punishments WHERE player_uuid = ?;");
              PreparedStatement st2 = conn.prepareStatement("DELETE FROM queued_punishments WHERE player_uuid = ?;")) {
 
             st1.setString(1, playerUuid.toString());
             st1.executeUpdate();
+            for (PunishmentRecord row : removed) {
+                recordAnalytics(row, -1);
+            }
 
             st2.setString(1, playerUuid.toString());
             st2.executeUpdate();
 
+            punishmentVersion.bump();
+            playerNameIndex.remove(playerUuid.toString());
             return true;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to reset player history", e);
@@ -570,6 +1101,7 @@ public class DatabaseManager {
             st.setString(4, message);
             st.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
             st.executeUpdate();
+            chatVersion.bump();
             return true;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to save chat message: " + e.getMessage(), e);
@@ -609,7 +1141,7 @@ public class DatabaseManager {
              PreparedStatement st = conn.prepareStatement(sql)) {
             st.setString(1, UUID.randomUUID().toString());
             st.setString(2, username);
-            st.setString(3, hashPassword(password));
+            st.setString(3, passwordHasher.hash(password));
             st.setString(4, uuid);
             st.setString(5, role);
             st.executeUpdate();
@@ -622,26 +1154,44 @@ public class DatabaseManager {
 
     public Map<String, Object> authenticateStaffUser(String username, String password) {
         String sql = "SELECT * FROM staff_users WHERE username = ?";
+        Map<String, Object> user = null;
+        String storedHash = null;
         try (Connection conn = getConnection();
              PreparedStatement st = conn.prepareStatement(sql)) {
             st.setString(1, username);
             try (ResultSet rs = st.executeQuery()) {
                 if (rs.next()) {
-                    String storedHash = rs.getString("password_hash");
-                    if (verifyPassword(password, storedHash)) {
-                        Map<String, Object> user = new HashMap<>();
-                        user.put("id", rs.getString("id"));
-                        user.put("username", rs.getString("username"));
-                        user.put("uuid", rs.getString("uuid"));
-                        user.put("role", rs.getString("role"));
-                        return user;
-                    }
+                    storedHash = rs.getString("password_hash");
+                    user = new HashMap<>();
+                    user.put("id", rs.getString("id"));
+                    user.put("username", rs.getString("username"));
+                    user.put("uuid", rs.getString("uuid"));
+                    user.put("role", rs.getString("role"));
                 }
             }
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to authenticate staff user: " + e.getMessage(), e);
+            return null;
+        }
+
+        // Deliberately slow, so it runs after the query rather than while holding the connection
+        if (!passwordHasher.verify(password, storedHash)) return null;
+        if (passwordHasher.needsRehash(storedHash)) {
+            updateStaffPasswordHash((String) user.get("id"), passwordHasher.hash(password));
+        }
+        return user;
+    }
+
+    private void updateStaffPasswordHash(String id, String passwordHash) {
+        String sql = "UPDATE staff_users SET password_hash = ? WHERE id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setString(1, passwordHash);
+            st.setString(2, id);
+            st.executeUpdate();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to upgrade staff password hash: " + e.getMessage(), e);
         }
-        return null;
     }
 
     public boolean isStaffUser(String username) {
@@ -693,51 +1243,132 @@ public class DatabaseManager {
         }
     }
 
-    // --- Password Hashing Utilities ---
-    private String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] salt = generateSalt();
-            md.update(salt);
-            byte[] hashedPassword = md.digest(password.getBytes());
-
-            // Combine salt and hash
-            byte[] saltedHash = new byte[salt.length + hashedPassword.length];
-            System.arraycopy(salt, 0, saltedHash, 0, salt.length);
-            System.arraycopy(hashedPassword, 0, saltedHash, salt.length, hashedPassword.length);
-
-            return Base64.getEncoder().encodeToString(saltedHash);
-        } catch (NoSuchAlgorithmException e) {
-            logger.log(Level.SEVERE, "Failed to hash password", e);
-            return null;
+    // --- Web Panel Session Methods ---
+    public List<PanelSession> loadPanelSessions(long now) {
+        List<PanelSession> sessions = new ArrayList<>();
+        String sql = "SELECT * FROM panel_sessions WHERE expires_at > ?";
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setLong(1, now);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    long createdAt = rs.getLong("created_at");
+                    sessions.add(new PanelSession(
+                            rs.getString("session_key"),
+                            rs.getString("username"),
+                            rs.getString("uuid"),
+                            rs.getString("role"),
+                            createdAt,
+                            createdAt,
+                            rs.getLong("expires_at")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load panel sessions: " + e.getMessage(), e);
         }
+        return sessions;
     }
 
-    private boolean verifyPassword(String password, String storedHash) {
-        try {
-            byte[] saltedHash = Base64.getDecoder().decode(storedHash);
-            byte[] salt = new byte[16];
-            byte[] hash = new byte[saltedHash.length - 16];
+    public boolean savePanelSession(PanelSession session) {
+        String sql = "INSERT INTO panel_sessions (session_key, username, uuid, role, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setString(1, session.getKey());
+            st.setString(2, session.getUsername());
+            st.setString(3, session.getUuid());
+            st.setString(4, session.getRole());
+            st.setLong(5, session.getCreatedAt());
+            st.setLong(6, session.getExpiresAt());
+            st.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to save panel session: " + e.getMessage(), e);
+            return false;
+        }
+    }
 
-            System.arraycopy(saltedHash, 0, salt, 0, 16);
-            System.arraycopy(saltedHash, 16, hash, 0, hash.length);
+    public boolean updatePanelSessionExpiry(Collection<PanelSession> sessions) {
+        String sql = "UPDATE panel_sessions SET expires_at = ? WHERE session_key = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            for (PanelSession session : sessions) {
+                st.setLong(1, session.getExpiresAt());
+                st.setString(2, session.getKey());
+                st.addBatch();
+            }
+            st.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to update panel session expiry: " + e.getMessage(), e);
+            return false;
+        }
+    }
 
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(salt);
-            byte[] hashedPassword = md.digest(password.getBytes());
+    public boolean deletePanelSession(String sessionKey) {
+        return executePanelSessionDelete("DELETE FROM panel_sessions WHERE session_key = ?", sessionKey);
+    }
 
-            return Arrays.equals(hash, hashedPassword);
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Failed to verify password", e);
+    public boolean deletePanelSessionsForUser(String username) {
+        return executePanelSessionDelete("DELETE FROM panel_sessions WHERE username = ?", username);
+    }
+
+    public boolean deleteExpiredPanelSessions(long now) {
+        return executePanelSessionDelete("DELETE FROM panel_sessions WHERE expires_at <= ?", now);
+    }
+
+    public boolean saveTokenRevocation(TokenRevocation revocation) {
+        String sql = "INSERT INTO panel_token_revocations (kind, subject, revoked_at, expires_at) VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setString(1, revocation.kind());
+            st.setString(2, revocation.subject());
+            st.setLong(3, revocation.revokedAt());
+            st.setLong(4, revocation.expiresAt());
+            st.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to save token revocation: " + e.getMessage(), e);
             return false;
         }
     }
 
-    private byte[] generateSalt() {
-        SecureRandom random = new SecureRandom();
-        byte[] salt = new byte[16];
-        random.nextBytes(salt);
-        return salt;
+    public List<TokenRevocation> loadTokenRevocations(long revokedSince) {
+        List<TokenRevocation> revocations = new ArrayList<>();
+        String sql = "SELECT * FROM panel_token_revocations WHERE revoked_at >= ?";
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setLong(1, revokedSince);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    revocations.add(new TokenRevocation(
+                            rs.getString("kind"),
+                            rs.getString("subject"),
+                            rs.getLong("revoked_at"),
+                            rs.getLong("expires_at")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load token revocations: " + e.getMessage(), e);
+        }
+        return revocations;
+    }
+
+    public boolean deleteExpiredTokenRevocations(long now) {
+        return executePanelSessionDelete("DELETE FROM panel_token_revocations WHERE expires_at <= ?", now);
+    }
+
+    private boolean executePanelSessionDelete(String sql, Object param) {
+        try (Connection conn = getConnection();
+             PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setObject(1, param);
+            st.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to delete panel session(s): " + e.getMessage(), e);
+            return false;
+        }
     }
 
     public synchronized void close() {
@@ -755,17 +1386,7 @@ public class DatabaseManager {
 
     // --- Helpers ---
     public Punishment createPunishmentFromResultSet(ResultSet rs) throws SQLException {
-        return new Punishment(
-                UUID.fromString(rs.getString("id")),
-                UUID.fromString(rs.getString("player_uuid")),
-                rs.getString("player_name"),
-                rs.getString("rule"),
-                rs.getString("type"),
-                rs.getString("duration"),
-                rs.getString("staff_name"),
-                UUID.fromString(rs.getString("staff_uuid")),
-                rs.getTimestamp("date")
-        );
+        return PunishmentRecord.fromResultSet(rs).toPunishment();
     }
 
     private QueuedPunishment createQueuedPunishmentFromResultSet(ResultSet rs) throws SQLException {
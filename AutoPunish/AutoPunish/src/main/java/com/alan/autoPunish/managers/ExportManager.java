@@ -0,0 +1,203 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.utils.SchedulerUtil;
+import com.alan.autoPunish.web.PunishmentJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports punishments as NDJSON or CSV, to an HTTP response or a file.
+ *
+ * Rows go straight from the database cursor to the output, optionally through gzip,
+ * so memory use stays the same however many punishments are exported.
+ */
+public class ExportManager {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String CSV_HEADER =
+            "id,player_uuid,player_name,rule,type,duration,staff_name,staff_uuid,date,evidence_link,hidden,approved_by\n";
+
+    private final AutoPunish plugin;
+    private final Logger logger;
+    private final DatabaseManager databaseManager;
+    private final int fetchSize;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv; charset=utf-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @return the format with this name, or null if there is none
+         */
+        public static Format parse(String name) {
+            if (name == null) return null;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Which punishments to export; null fields do not filter.
+     *
+     * @param since inclusive, epoch millis
+     * @param until exclusive, epoch millis
+     */
+    public record Filter(Long since, Long until, String rule, String type, Boolean hidden) {
+    }
+
+    public record FileExport(File file, long rows) {
+    }
+
+    public ExportManager(AutoPunish plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.databaseManager = databaseManager;
+        this.fetchSize = Math.max(1, plugin.getConfig().getInt("export.fetch-size", 1000));
+    }
+
+    /**
+     * Write all matching punishments to {@code out}, which is flushed but not closed.
+     * Nothing reaches {@code out} before the first rows are read, so a failing query
+     * leaves it untouched unless the failure happens mid-export.
+     *
+     * @return number of punishments written, or -1 if the database query failed
+     */
+    public long export(OutputStream out, Format format, Filter filter, boolean gzip) throws IOException {
+        GZIPOutputStream zip = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        OutputStream target = new BufferedOutputStream(zip != null ? zip : out, BUFFER_SIZE);
+
+        long rows;
+        if (format == Format.NDJSON) {
+            try (JsonGenerator json = PunishmentJson.createGenerator(target)) {
+                json.setRootValueSeparator(null);
+                rows = databaseManager.streamPunishments(filter.since(), filter.until(), filter.rule(),
+                        filter.type(), filter.hidden(), fetchSize, punishment -> {
+                            PunishmentJson.write(json, punishment);
+                            json.writeRaw('\n');
+                        });
+            }
+        } else {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            csv.write(CSV_HEADER);
+            rows = databaseManager.streamPunishments(filter.since(), filter.until(), filter.rule(),
+                    filter.type(), filter.hidden(), fetchSize, punishment -> {
+                        csvField(csv, punishment.id()).write(',');
+                        csvField(csv, punishment.playerUuid()).write(',');
+                        csvField(csv, punishment.playerName()).write(',');
+                        csvField(csv, punishment.rule()).write(',');
+                        csvField(csv, punishment.type()).write(',');
+                        csvField(csv, punishment.duration()).write(',');
+                        csvField(csv, punishment.staffName()).write(',');
+                        csvField(csv, punishment.staffUuid()).write(',');
+                        csv.write(Instant.ofEpochMilli(punishment.date()).toString());
+                        csv.write(',');
+                        csvField(csv, punishment.evidenceLink()).write(',');
+                        csv.write(punishment.hidden() ? "true" : "false");
+                        csv.write(',');
+                        csvField(csv, punishment.approvedBy());
+                        csv.write('\n');
+                    });
+            if (rows >= 0) csv.flush();
+        }
+        if (rows < 0) return rows;
+
+        target.flush();
+        if (zip != null) zip.finish();
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * Export into a new file under {@code exports/} in the plugin folder, off the main thread.
+     * The file only appears under its final name once it is complete.
+     */
+    public CompletableFuture<FileExport> exportToFile(Format format, Filter filter, boolean gzip) {
+        return CompletableFuture.supplyAsync(() -> {
+            File directory = new File(plugin.getDataFolder(), "exports");
+            if (!directory.exists()) directory.mkdirs();
+
+            String name = "punishments-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." +
+                    format.getExtension() + (gzip ? ".gz" : "");
+            File file = new File(directory, name);
+            File partial = new File(directory, name + ".part");
+
+            try {
+                long rows;
+                try (OutputStream out = new FileOutputStream(partial)) {
+                    rows = export(out, format, filter, gzip);
+                }
+                if (rows < 0) throw new IOException("Database query failed");
+
+                Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                logger.info("Exported " + rows + " punishments to " + file.getName());
+                return new FileExport(file, rows);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to export punishments to " + name + ": " + e.getMessage(), e);
+                partial.delete();
+                throw new UncheckedIOException(e);
+            }
+        }, SchedulerUtil.async(plugin));
+    }
+
+    /**
+     * Quote a CSV field when needed. Values starting with a formula character get a leading
+     * quote, so spreadsheets show staff-entered text instead of evaluating it.
+     */
+    static Writer csvField(Writer csv, String value) throws IOException {
+        if (value == null || value.isEmpty()) return csv;
+
+        boolean formula = "=+-@".indexOf(value.charAt(0)) >= 0;
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            csv.write(value);
+            return csv;
+        }
+
+        csv.write('"');
+        if (formula) csv.write('\'');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+        return csv;
+    }
+}
@@ -0,0 +1,156 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.utils.TimeUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The visible punishment history in columns, partitioned by player, for analysis jobs.
+ *
+ * Rules, types and durations are stored as ids into small dictionaries, so a row takes
+ * about 20 bytes. Rows of one player are contiguous and oldest first, and players are
+ * independent, so jobs can split the player range across threads. Read-only once loaded.
+ */
+public final class HistorySnapshot {
+    private final List<String> rules = new ArrayList<>();
+    private final List<String> types = new ArrayList<>();
+    private final List<String> durations = new ArrayList<>();
+    private final Map<String, Integer> ruleIds = new HashMap<>();
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final Map<String, Integer> durationIds = new HashMap<>();
+    private long[] durationMillis = new long[16];
+
+    private int[] rowRule = new int[1024];
+    private int[] rowType = new int[1024];
+    private int[] rowDuration = new int[1024];
+    private long[] rowDate = new long[1024];
+    private int rows;
+    private int[] playerStarts = new int[256];
+    private int players;
+    private String lastPlayer;
+
+    /** Empty snapshot to {@link #add} rows to, then {@link #finish}; {@link #load} does both */
+    HistorySnapshot() {
+    }
+
+    /**
+     * Read the whole visible history in one pass.
+     *
+     * @return the snapshot, or null if the query failed
+     */
+    public static HistorySnapshot load(DatabaseManager databaseManager, int fetchSize) {
+        HistorySnapshot snapshot = new HistorySnapshot();
+        if (databaseManager.streamHistoryByPlayer(fetchSize, snapshot::add) < 0) return null;
+        return snapshot.finish();
+    }
+
+    /** Append a row; rows of a player must be contiguous and oldest first */
+    void add(String playerUuid, String rule, String type, String duration, long date) {
+        if (!playerUuid.equals(lastPlayer)) {
+            if (players == playerStarts.length) playerStarts = Arrays.copyOf(playerStarts, players * 2);
+            playerStarts[players++] = rows;
+            lastPlayer = playerUuid;
+        }
+        if (rows == rowDate.length) {
+            int capacity = rows * 2;
+            rowRule = Arrays.copyOf(rowRule, capacity);
+            rowType = Arrays.copyOf(rowType, capacity);
+            rowDuration = Arrays.copyOf(rowDuration, capacity);
+            rowDate = Arrays.copyOf(rowDate, capacity);
+        }
+        rowRule[rows] = id(rules, ruleIds, rule);
+        rowType[rows] = id(types, typeIds, type.toLowerCase(Locale.ROOT));
+        int durationId = id(durations, durationIds, duration);
+        if (durationId == durationMillis.length) durationMillis = Arrays.copyOf(durationMillis, durationId * 2);
+        durationMillis[durationId] = TimeUtil.parseDuration(duration);
+        rowDuration[rows] = durationId;
+        rowDate[rows] = date;
+        rows++;
+    }
+
+    HistorySnapshot finish() {
+        playerStarts = Arrays.copyOf(playerStarts, players + 1);
+        playerStarts[players] = rows;
+        return this;
+    }
+
+    private static int id(List<String> names, Map<String, Integer> ids, String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int players() {
+        return players;
+    }
+
+    /** First row of a player */
+    public int start(int player) {
+        return playerStarts[player];
+    }
+
+    /** Row after the last row of a player */
+    public int end(int player) {
+        return playerStarts[player + 1];
+    }
+
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    public String ruleName(int rule) {
+        return rules.get(rule);
+    }
+
+    /** Id of a rule name, -1 if no row has it */
+    public int ruleId(String name) {
+        return ruleIds.getOrDefault(name, -1);
+    }
+
+    public int typeCount() {
+        return types.size();
+    }
+
+    public String typeName(int type) {
+        return types.get(type);
+    }
+
+    public int rule(int row) {
+        return rowRule[row];
+    }
+
+    public int type(int row) {
+        return rowType[row];
+    }
+
+    /** Type of a row in lower case */
+    public String typeOf(int row) {
+        return types.get(rowType[row]);
+    }
+
+    public String duration(int row) {
+        return durations.get(rowDuration[row]);
+    }
+
+    /** Sentence length of a row in milliseconds, 0 for permanent or instant punishments */
+    public long durationMillis(int row) {
+        return durationMillis[rowDuration[row]];
+    }
+
+    public long date(int row) {
+        return rowDate[row];
+    }
+}
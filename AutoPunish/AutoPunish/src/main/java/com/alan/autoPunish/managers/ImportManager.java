@@ -0,0 +1,566 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.models.PunishmentRecord;
+import com.alan.autoPunish.utils.CsvReader;
+import com.alan.autoPunish.utils.SchedulerUtil;
+import com.alan.autoPunish.utils.TimeUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports punishments from NDJSON/CSV files in the {@link ExportManager} format and from
+ * LiteBans or AdvancedBan tables dumped into a local H2 database file.
+ *
+ * Every source is read as a stream of rows and written in batches by a
+ * {@link PunishmentImportWriter}. Imported rows get ids derived from their source id, so
+ * importing the same data twice adds nothing, and each batch commits together with a
+ * checkpoint, so an interrupted import continues where it stopped.
+ */
+public class ImportManager {
+    private static final Set<String> TYPES = Set.of("warn", "mute", "ban", "kick", "demotion");
+    private static final String NO_STAFF_UUID = new UUID(0, 0).toString();
+
+    private final AutoPunish plugin;
+    private final Logger logger;
+    private final DatabaseManager databaseManager;
+    private final int batchSize;
+    private final String liteBansPrefix;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public enum Source {
+        NDJSON, CSV, LITEBANS, ADVANCEDBAN;
+
+        /**
+         * @return the source with this name, or null if there is none
+         */
+        public static Source parse(String name) {
+            if (name == null) return null;
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Totals so far; {@code processed} counts rows read, including unusable and duplicate ones.
+     */
+    public record Progress(String table, long processed, long inserted, long skipped) {
+    }
+
+    public ImportManager(AutoPunish plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.databaseManager = databaseManager;
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("import.batch-size", 2000));
+        this.liteBansPrefix = plugin.getConfig().getString("import.litebans-table-prefix", "litebans_");
+    }
+
+    /**
+     * Import a file off the main thread. Only one import runs at a time.
+     *
+     * @param file     NDJSON or CSV file (optionally .gz), or an H2 database file for the plugin sources
+     * @param restart  ignore checkpoints and read the source from the start; existing rows are still skipped
+     * @param progress called from the import thread after every committed batch
+     * @return completes with the final totals
+     */
+    public CompletableFuture<Progress> importFrom(Source source, File file, boolean restart, Consumer<Progress> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another import is still running"));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Progress result = run(source, file, restart, progress);
+                logger.info("Imported " + result.inserted() + " of " + result.processed() + " punishments from " +
+                        file.getName() + " (" + result.skipped() + " unusable)");
+                return result;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Import from " + file.getName() + " failed: " + e.getMessage(), e);
+                throw new CompletionException(e);
+            } finally {
+                running.set(false);
+            }
+        }, SchedulerUtil.async(plugin));
+    }
+
+    private Progress run(Source source, File file, boolean restart, Consumer<Progress> progress) throws Exception {
+        Totals totals = new Totals(progress);
+        String keyPrefix = source.name().toLowerCase(Locale.ROOT) + ":" + file.getName();
+
+        switch (source) {
+            case NDJSON, CSV -> {
+                try (RowSource rows = source == Source.NDJSON ? new NdjsonRows(file) : new CsvRows(file)) {
+                    importRows(keyPrefix, rows, restart, totals);
+                }
+            }
+            case LITEBANS -> {
+                try (Connection dump = openDump(file)) {
+                    String history = findTable(dump, liteBansPrefix + "history");
+                    if (history != null) {
+                        try (Statement st = dump.createStatement()) {
+                            // Player names are looked up per row, which needs this index on the dump
+                            st.execute("CREATE INDEX IF NOT EXISTS autopunish_import_history ON " + history + " (uuid, date)");
+                        }
+                    }
+                    String[][] tables = {{"bans", "ban"}, {"mutes", "mute"}, {"warnings", "warn"}, {"kicks", "kick"}};
+                    for (String[] table : tables) {
+                        String name = findTable(dump, liteBansPrefix + table[0]);
+                        if (name == null) continue;
+                        try (RowSource rows = new LiteBansRows(dump, name, history, table[0], table[1])) {
+                            importRows(keyPrefix + ":" + table[0], rows, restart, totals);
+                        }
+                    }
+                }
+            }
+            case ADVANCEDBAN -> {
+                try (Connection dump = openDump(file)) {
+                    // Every punishment, active or not, is in the history table
+                    String name = findTable(dump, "PunishmentHistory");
+                    if (name == null) throw new SQLException("No PunishmentHistory table in " + file.getName());
+                    try (RowSource rows = new AdvancedBanRows(dump, name)) {
+                        importRows(keyPrefix + ":history", rows, restart, totals);
+                    }
+                }
+            }
+        }
+        return totals.snapshot(null);
+    }
+
+    private void importRows(String sourceKey, RowSource rows, boolean restart, Totals totals) throws Exception {
+        try (PunishmentImportWriter writer = databaseManager.openImportWriter(sourceKey)) {
+            long position = writer.start(restart);
+            long processedBefore = writer.getProcessed();
+            long insertedBefore = writer.getInserted();
+            rows.seek(position);
+
+            List<PunishmentRecord> batch = new ArrayList<>(batchSize);
+            long read = 0;
+            while (rows.next()) {
+                PunishmentRecord row = rows.current();
+                if (row != null) {
+                    batch.add(row);
+                } else {
+                    totals.skipped++;
+                }
+                if (++read >= batchSize) {
+                    writer.write(batch, rows.position(), read);
+                    batch.clear();
+                    read = 0;
+                    totals.report(sourceKey, writer.getProcessed() - processedBefore, writer.getInserted() - insertedBefore);
+                }
+            }
+            if (read > 0) writer.write(batch, rows.position(), read);
+
+            totals.add(writer.getProcessed() - processedBefore, writer.getInserted() - insertedBefore);
+            totals.report(sourceKey, 0, 0);
+        }
+    }
+
+    // ---------------------------------------------------------------- sources
+
+    /**
+     * Rows of one import source, read forward. Positions are opaque resume points.
+     */
+    interface RowSource extends AutoCloseable {
+        /** Continue after the row this position was taken at; 0 is the start */
+        void seek(long position) throws Exception;
+
+        boolean next() throws Exception;
+
+        /** Current row mapped to a punishment, or null if it cannot be imported */
+        PunishmentRecord current() throws Exception;
+
+        /** Position just after the current row */
+        long position();
+    }
+
+    /** NDJSON as written by the exporter; positions count records */
+    private static class NdjsonRows implements RowSource {
+        private final String name;
+        private final InputStream in;
+        private final MappingIterator<JsonNode> records;
+        private JsonNode record;
+        private long position;
+
+        NdjsonRows(File file) throws IOException {
+            this.name = file.getName();
+            this.in = openFile(file);
+            this.records = new ObjectMapper().readerFor(JsonNode.class).readValues(in);
+        }
+
+        @Override
+        public void seek(long target) throws IOException {
+            while (position < target && records.hasNextValue()) {
+                records.nextValue();
+                position++;
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (!records.hasNextValue()) return false;
+            record = records.nextValue();
+            position++;
+            return true;
+        }
+
+        @Override
+        public PunishmentRecord current() {
+            return fromExportFields("file:" + name + ":" + position, field -> {
+                JsonNode value = record.get(field);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            records.close();
+            in.close();
+        }
+    }
+
+    /** CSV with a header row naming the exporter's columns; positions count records */
+    static class CsvRows implements RowSource {
+        private final String name;
+        private final BufferedReader in;
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> record;
+        private long position;
+
+        CsvRows(File file) throws IOException {
+            this.name = file.getName();
+            this.in = new BufferedReader(new InputStreamReader(openFile(file), StandardCharsets.UTF_8), 64 * 1024);
+            this.csv = new CsvReader(in);
+            List<String> header = csv.next();
+            if (header == null) throw new IOException(name + " is empty");
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        @Override
+        public void seek(long target) throws IOException {
+            while (position < target && csv.next() != null) position++;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            record = csv.next();
+            if (record == null) return false;
+            position++;
+            return true;
+        }
+
+        @Override
+        public PunishmentRecord current() {
+            return fromExportFields("file:" + name + ":" + position, field -> {
+                Integer index = columns.get(field);
+                if (index == null || index >= record.size()) return null;
+                String value = record.get(index);
+                // Undo the exporter's guard against spreadsheet formulas
+                if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@".indexOf(value.charAt(1)) >= 0) {
+                    value = value.substring(1);
+                }
+                return value.isEmpty() ? null : value;
+            });
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** Rows of a table with an increasing numeric id; positions are ids */
+    private abstract static class TableRows implements RowSource {
+        private final PreparedStatement statement;
+        private ResultSet rows;
+        private long position;
+
+        TableRows(Connection dump, String sql) throws SQLException {
+            this.statement = dump.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            this.statement.setFetchSize(1000);
+        }
+
+        @Override
+        public void seek(long afterId) throws SQLException {
+            statement.setLong(1, afterId);
+            rows = statement.executeQuery();
+            position = afterId;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            if (!rows.next()) return false;
+            position = rows.getLong("id");
+            return true;
+        }
+
+        @Override
+        public PunishmentRecord current() throws SQLException {
+            return map(rows);
+        }
+
+        abstract PunishmentRecord map(ResultSet row) throws SQLException;
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (rows != null) rows.close();
+            statement.close();
+        }
+    }
+
+    /** One LiteBans table; names come from its history table */
+    private static class LiteBansRows extends TableRows {
+        private final String kind;
+        private final String type;
+
+        /**
+         * @param kind unprefixed table name, part of the imported ids
+         */
+        LiteBansRows(Connection dump, String table, String history, String kind, String type) throws SQLException {
+            super(dump, "SELECT p.*, " + (history != null
+                    ? "(SELECT h.name FROM " + history + " h WHERE h.uuid = p.uuid ORDER BY h.date DESC LIMIT 1)"
+                    : "NULL") + " AS autopunish_name FROM " + table + " p WHERE p.id > ? ORDER BY p.id");
+            this.kind = kind;
+            this.type = type;
+        }
+
+        @Override
+        PunishmentRecord map(ResultSet row) throws SQLException {
+            long time = row.getLong("time");
+            String duration = "0";
+            if (type.equals("ban") || type.equals("mute")) {
+                long until = row.getLong("until");
+                duration = until > 0 ? TimeUtil.toDurationString(until - time) : "0";
+            }
+            return punishment("litebans:" + kind + ":" + row.getLong("id"),
+                    row.getString("uuid"), row.getString("autopunish_name"), row.getString("reason"), type, duration,
+                    row.getString("banned_by_name"), row.getString("banned_by_uuid"), time);
+        }
+    }
+
+    /** AdvancedBan's PunishmentHistory table */
+    private static class AdvancedBanRows extends TableRows {
+        AdvancedBanRows(Connection dump, String table) throws SQLException {
+            super(dump, "SELECT * FROM " + table + " WHERE id > ? ORDER BY id");
+        }
+
+        @Override
+        PunishmentRecord map(ResultSet row) throws SQLException {
+            String kind = row.getString("punishmentType");
+            if (kind == null) return null;
+            kind = kind.toUpperCase(Locale.ROOT);
+            String type;
+            if (kind.contains("BAN")) type = "ban";
+            else if (kind.contains("MUTE")) type = "mute";
+            else if (kind.contains("WARNING")) type = "warn";
+            else if (kind.equals("KICK")) type = "kick";
+            else return null; // Notes are not punishments
+
+            long start = row.getLong("start");
+            long end = row.getLong("end");
+            String duration = kind.startsWith("TEMP_") && end > start ? TimeUtil.toDurationString(end - start) : "0";
+            return punishment("advancedban:" + row.getLong("id"), row.getString("uuid"), row.getString("name"),
+                    row.getString("reason"), type, duration, row.getString("operator"), null, start);
+        }
+    }
+
+    // ---------------------------------------------------------------- mapping
+
+    static PunishmentRecord fromExportFields(String sourceId, Function<String, String> field) {
+        String id = field.apply("id");
+        Long date = parseDate(field.apply("date"));
+        if (date == null) return null;
+
+        // Ids from other tools are stable across files; without one, the file position has to do
+        PunishmentRecord row = punishment(id != null ? "file-id:" + id : sourceId,
+                field.apply("player_uuid"), field.apply("player_name"),
+                field.apply("rule"), field.apply("type"), field.apply("duration"),
+                field.apply("staff_name"), field.apply("staff_uuid"), date);
+        if (row == null) return null;
+
+        // Rows exported by AutoPunish keep their id, so they match the originals
+        return new PunishmentRecord(isUuid(id) ? id : row.id(), row.playerUuid(), row.playerName(), row.rule(),
+                row.type(), row.duration(), row.staffName(), row.staffUuid(), row.date(),
+                truncate(field.apply("evidence_link"), 500), Boolean.parseBoolean(field.apply("hidden")),
+                truncate(field.apply("approved_by"), 100));
+    }
+
+    /**
+     * Map imported fields to a row, fitting them to the table's columns.
+     *
+     * @return null if the row has no usable player or type
+     */
+    private static PunishmentRecord punishment(String sourceId, String playerUuid, String playerName, String reason,
+                                               String type, String duration, String staffName, String staffUuid,
+                                               long date) {
+        type = type != null ? type.trim().toLowerCase(Locale.ROOT) : null;
+        if (type == null || !TYPES.contains(type)) return null;
+
+        String uuid = normalizeUuid(playerUuid);
+        if (uuid == null && playerName != null && !playerName.isBlank()) {
+            // Offline-mode servers derive UUIDs from names the same way
+            uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + playerName).getBytes(StandardCharsets.UTF_8)).toString();
+        }
+        if (uuid == null) return null;
+
+        String staffId = normalizeUuid(staffUuid);
+        String rule = reason != null && !reason.isBlank() ? reason.trim() : "imported";
+        String id = UUID.nameUUIDFromBytes(sourceId.getBytes(StandardCharsets.UTF_8)).toString();
+
+        return new PunishmentRecord(id, uuid,
+                truncate(playerName != null && !playerName.isBlank() ? playerName : "Unknown", 100),
+                truncate(rule, 50), type,
+                duration != null && TimeUtil.parseDuration(duration) > 0 ? duration : "0",
+                truncate(staffName != null && !staffName.isBlank() ? staffName : "Console", 100),
+                staffId != null ? staffId : NO_STAFF_UUID,
+                date, null, false, null);
+    }
+
+    /**
+     * @return the UUID in dashed form, also from the 32-digit form some plugins store, or null
+     */
+    private static String normalizeUuid(String value) {
+        if (value == null) return null;
+        value = value.trim();
+        if (value.length() == 32) {
+            value = value.substring(0, 8) + "-" + value.substring(8, 12) + "-" + value.substring(12, 16) + "-" +
+                    value.substring(16, 20) + "-" + value.substring(20);
+        }
+        return isUuid(value) ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static boolean isUuid(String value) {
+        if (value == null || value.length() != 36) return false;
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Epoch millis or an ISO-8601 instant */
+    private static Long parseDate(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(value.trim()).toEpochMilli();
+            } catch (RuntimeException invalid) {
+                return null;
+            }
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static InputStream openFile(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024);
+        return file.getName().endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    private static Connection openDump(File file) throws SQLException {
+        String path = file.getAbsolutePath();
+        if (path.endsWith(".mv.db")) path = path.substring(0, path.length() - ".mv.db".length());
+        // Dumps may use any identifier case; IFEXISTS stops a typo from creating an empty database
+        return DriverManager.getConnection("jdbc:h2:" + path +
+                ";MODE=MySQL;IFEXISTS=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;LAZY_QUERY_EXECUTION=1");
+    }
+
+    /**
+     * @return the table's name as stored, quoted for use in SQL, or null if it does not exist
+     */
+    private static String findTable(Connection dump, String name) throws SQLException {
+        DatabaseMetaData metaData = dump.getMetaData();
+        try (ResultSet tables = metaData.getTables(null, null, null, new String[]{"TABLE", "BASE TABLE"})) {
+            while (tables.next()) {
+                String table = tables.getString("TABLE_NAME");
+                if (table.equalsIgnoreCase(name)) return "\"" + table + "\"";
+            }
+        }
+        return null;
+    }
+
+    private static class Totals {
+        private final Consumer<Progress> progress;
+        private long processed;
+        private long inserted;
+        private long skipped;
+
+        Totals(Consumer<Progress> progress) {
+            this.progress = progress;
+        }
+
+        void add(long processedDelta, long insertedDelta) {
+            processed += processedDelta;
+            inserted += insertedDelta;
+        }
+
+        /** Report the finished sources plus the running one */
+        void report(String table, long runningProcessed, long runningInserted) {
+            if (progress == null) return;
+            progress.accept(new Progress(table, processed + runningProcessed, inserted + runningInserted, skipped));
+        }
+
+        Progress snapshot(String table) {
+            return new Progress(table, processed, inserted, skipped);
+        }
+    }
+}
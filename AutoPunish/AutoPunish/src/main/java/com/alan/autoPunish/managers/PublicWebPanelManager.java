@@ -2,28 +2,110 @@ package com.alan.autoPunish.managers;
 
 import com.alan.autoPunish.AutoPunish;
 import com.alan.autoPunish.models.Punishment;
+import com.alan.autoPunish.models.PunishmentRecord;
+import com.alan.autoPunish.models.PunishmentRule;
+import com.alan.autoPunish.models.QueuedPunishment;
+import com.alan.autoPunish.utils.TimeUtil;
+import com.alan.autoPunish.web.ChatBroadcastHub;
+import com.alan.autoPunish.web.DataVersion;
+import com.alan.autoPunish.web.DatabaseSessionPersistence;
+import com.alan.autoPunish.web.HttpCaching;
+import com.alan.autoPunish.web.LiveFeedBroadcaster;
+import com.alan.autoPunish.web.LoginThrottle;
+import com.alan.autoPunish.web.PanelAuthenticator;
+import com.alan.autoPunish.web.PanelSession;
+import com.alan.autoPunish.web.PanelSessionStore;
+import com.alan.autoPunish.web.PanelTokenService;
+import com.alan.autoPunish.web.PlayerHistoryCache;
+import com.alan.autoPunish.web.PlayerNameIndex;
+import com.alan.autoPunish.web.PunishmentJson;
+import com.alan.autoPunish.web.RateLimiter;
+import com.alan.autoPunish.web.RequestPool;
+import com.alan.autoPunish.web.ResponseCache;
+import com.alan.autoPunish.web.StaticSnapshots;
+import com.fasterxml.jackson.core.JsonGenerator;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.UnauthorizedResponse;
 import io.javalin.http.staticfiles.Location;
-
+import io.javalin.json.JavalinJackson;
+import org.eclipse.jetty.server.Request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class PublicWebPanelManager {
+    // Request attribute holding the resolved session, empty when the caller is not logged in
+    private static final String SESSION_ATTRIBUTE = "autopunish.session";
+
     private final AutoPunish plugin;
     private final Logger logger;
     private final int port;
+    private final long sharedDatabaseRevalidateMillis;
+    private final ResponseCache responseCache;
+    private final PlayerHistoryCache playerHistoryCache;
+    private final LiveFeedBroadcaster liveFeed;
+    private final int streamFetchSize;
+    private final int streamBufferMaxRows;
+    private final int maxPageSize;
+    // Each streamed page holds a database connection of its own until it is written
+    private final Semaphore streamPermits;
+    private final boolean trustForwardedFor;
+    private final int bulkMaxPunishments;
+    private long approvalWaitMillis;
     private Javalin app;
 
-    // Simple session storage (in production, use proper session management)
-    private final Map<String, Map<String, Object>> sessions = new HashMap<>();
+    private PanelAuthenticator sessions;
+    private ChatBroadcastHub chatHub;
+    private RequestPool publicPool;
+    private RequestPool staffPool;
+    private RateLimiter rateLimiter;
+    private RequestPool loginPool;
+    private RequestPool exportPool;
+    private LoginThrottle loginThrottle;
+    private JavalinJackson jsonMapper;
+    private StaticSnapshots snapshots;
 
     public PublicWebPanelManager(AutoPunish plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.port = plugin.getConfig().getInt("public-web-panel.port", 8081);
+        // Other servers sharing a MySQL database do not bump our data versions
+        this.sharedDatabaseRevalidateMillis = "mysql".equalsIgnoreCase(plugin.getConfigManager().getStorageType())
+                ? plugin.getConfig().getLong("public-web-panel.cache.shared-database-revalidate-seconds", 15) * 1000L
+                : 0L;
+        boolean cacheEnabled = plugin.getConfig().getBoolean("public-web-panel.cache.enabled", true);
+        this.responseCache = new ResponseCache(cacheEnabled
+                ? plugin.getConfig().getLong("public-web-panel.cache.max-size-kb", 4096) * 1024L
+                : 0L);
+        this.playerHistoryCache = new PlayerHistoryCache(plugin.getConfig().getInt("public-web-panel.cache.max-players", 1000));
+        this.liveFeed = new LiveFeedBroadcaster(
+                plugin.getConfig().getInt("public-web-panel.live-feed.max-queued-per-client", 64),
+                ctx -> sessions != null && sessions.authenticate(ctx.cookie("session_id")) != null,
+                logger);
+        this.streamFetchSize = Math.max(1, plugin.getConfig().getInt("public-web-panel.streaming.fetch-size", 200));
+        this.streamBufferMaxRows = plugin.getConfig().getInt("public-web-panel.streaming.buffer-max-rows", 100);
+        this.maxPageSize = Math.max(1, plugin.getConfig().getInt("public-web-panel.streaming.max-page-size", 1000));
+        this.streamPermits = new Semaphore(Math.max(1, plugin.getConfig().getInt("public-web-panel.streaming.max-streams", 2)));
+        this.trustForwardedFor = plugin.getConfig().getBoolean("public-web-panel.rate-limit.trust-forwarded-for", false);
+        this.bulkMaxPunishments = Math.max(1, plugin.getConfig().getInt("public-web-panel.bulk.max-punishments", 1000));
     }
 
     public void start() {
@@ -35,7 +117,54 @@ public class PublicWebPanelManager {
         try {
             logger.info("Starting public web panel on port " + port);
 
+            sessions = createAuthenticator();
+            sessions.start();
+            chatHub = new ChatBroadcastHub(
+                    plugin.getConfig().getInt("public-web-panel.chat-stream.history-size", 200),
+                    ctx -> sessions.authenticate(getSessionId(ctx)) != null,
+                    logger);
+
+            boolean virtualThreads = "virtual".equalsIgnoreCase(plugin.getConfig().getString("public-web-panel.execution.mode", "platform"));
+            long requestTimeoutMillis = plugin.getConfig().getLong("public-web-panel.execution.request-timeout-seconds", 10) * 1000L;
+            // Answer approvals before the pool's own timeout would turn them into a 503
+            approvalWaitMillis = Math.max(1000L, requestTimeoutMillis - 1000L);
+            // Public browsing and staff actions get separate pools so a flood of one cannot starve the other
+            publicPool = new RequestPool("public",
+                    plugin.getConfig().getInt("public-web-panel.execution.public-concurrency", 8),
+                    plugin.getConfig().getInt("public-web-panel.execution.public-queue", 64),
+                    requestTimeoutMillis, virtualThreads);
+            staffPool = new RequestPool("staff",
+                    plugin.getConfig().getInt("public-web-panel.execution.staff-concurrency", 4),
+                    plugin.getConfig().getInt("public-web-panel.execution.staff-queue", 32),
+                    requestTimeoutMillis, virtualThreads);
+
+            // Password hashing is deliberately slow, so logins get their own small pool
+            loginPool = new RequestPool("login",
+                    plugin.getConfig().getInt("public-web-panel.login.hash-threads", 2),
+                    plugin.getConfig().getInt("public-web-panel.login.hash-queue", 16),
+                    requestTimeoutMillis, false);
+            // Exports can run for minutes on a large table, so they get no request timeout
+            exportPool = new RequestPool("export",
+                    plugin.getConfig().getInt("public-web-panel.export.concurrency", 1),
+                    plugin.getConfig().getInt("public-web-panel.export.queue", 2),
+                    0, false);
+            loginThrottle = new LoginThrottle(
+                    plugin.getConfig().getInt("public-web-panel.login.max-failures-per-user", 5),
+                    plugin.getConfig().getInt("public-web-panel.login.max-failures-per-address", 20),
+                    plugin.getConfig().getLong("public-web-panel.login.lockout-seconds", 60) * 1000L,
+                    plugin.getConfig().getInt("public-web-panel.login.max-tracked", 10000));
+
+            rateLimiter = createRateLimiter();
+            if (rateLimiter != null) rateLimiter.start();
+
+            jsonMapper = new JavalinJackson().updateMapper(PunishmentJson::register);
+            snapshots = createSnapshots();
+            if (snapshots != null) snapshots.start();
+
             app = Javalin.create(config -> {
+                config.useVirtualThreads = virtualThreads;
+                config.jsonMapper(jsonMapper);
+
                 // ✅ FIXED: CORS configuration for Javalin 6.x
                 config.registerPlugin(new io.javalin.plugin.bundled.CorsPlugin(cors -> {
                     cors.addRule(it -> it.anyHost());
@@ -47,6 +176,23 @@ public class PublicWebPanelManager {
                     staticFiles.directory = "/public-web";
                     staticFiles.location = Location.CLASSPATH;
                 });
+
+                // Snapshots are stored gzipped and plain; the gzipped files are skipped for clients that cannot take them
+                if (snapshots != null) {
+                    config.staticFiles.add(staticFiles -> {
+                        staticFiles.hostedPath = "/snapshots";
+                        staticFiles.directory = snapshots.getGzipDirectory().toString();
+                        staticFiles.location = Location.EXTERNAL;
+                        staticFiles.headers = Map.of("Content-Encoding", "gzip", "Vary", "Accept-Encoding", "Cache-Control", "max-age=0");
+                        staticFiles.skipFileFunction = request -> !acceptsGzip(request.getHeader("Accept-Encoding"));
+                    });
+                    config.staticFiles.add(staticFiles -> {
+                        staticFiles.hostedPath = "/snapshots";
+                        staticFiles.directory = snapshots.getPlainDirectory().toString();
+                        staticFiles.location = Location.EXTERNAL;
+                        staticFiles.headers = Map.of("Vary", "Accept-Encoding", "Cache-Control", "max-age=0");
+                    });
+                }
             });
 
             setupRoutes();
@@ -63,141 +209,538 @@ public class PublicWebPanelManager {
     private void setupRoutes() {
         app.get("/", ctx -> ctx.redirect("/index.html"));
 
+        if (rateLimiter != null) {
+            app.before("/api/punishments*", ctx -> {
+                if (ctx.method() == HandlerType.GET) rateLimiter.check(ctx, isSearchQuery(ctx) ? "search" : "read");
+            });
+            app.before("/api/players*", ctx -> rateLimiter.check(ctx, "read"));
+            app.before("/api/analytics/*", ctx -> rateLimiter.check(ctx, "read"));
+            app.before("/api/auth/*", ctx -> rateLimiter.check(ctx, "auth"));
+        }
+
         // Public endpoints
-        app.get("/api/punishments", ctx -> getPunishments(ctx, null));
-        app.get("/api/punishments/warns", ctx -> getPunishments(ctx, "warn"));
-        app.get("/api/punishments/mutes", ctx -> getPunishments(ctx, "mute"));
-        app.get("/api/punishments/bans", ctx -> getPunishments(ctx, "ban"));
-        app.get("/api/punishments/stats", this::getPunishmentStats);
+        app.get("/api/punishments", publicPool.wrap(ctx -> getPunishments(ctx, null)));
+        app.get("/api/punishments/warns", publicPool.wrap(ctx -> getPunishments(ctx, "warn")));
+        app.get("/api/punishments/mutes", publicPool.wrap(ctx -> getPunishments(ctx, "mute")));
+        app.get("/api/punishments/bans", publicPool.wrap(ctx -> getPunishments(ctx, "ban")));
+        app.get("/api/punishments/stats", publicPool.wrap(this::getPunishmentStats));
+        // Chart data from the analytics rollups; never scans the punishments table
+        app.get("/api/analytics/timeseries", publicPool.wrap(this::getAnalyticsTimeseries));
 
         // NEW: Get specific punishment (with evidence link)
-        app.get("/api/punishments/{id}", this::getPunishmentById);
+        app.get("/api/punishments/{id}", publicPool.wrap(this::getPunishmentById));
+
+        // Typeahead search; registered before {uuid} so "search" is not taken for a UUID
+        app.get("/api/players/search", publicPool.wrap(this::searchPlayers));
+        // Everything the panel shows on a player page in one response
+        app.get("/api/players/{uuid}", publicPool.wrap(this::getPlayerProfile));
 
         // NEW: Evidence link endpoints
-        app.put("/api/punishments/{id}/evidence", this::updateEvidenceLink);
+        app.put("/api/punishments/{id}/evidence", staffPool.wrap(this::updateEvidenceLink));
 
         // NEW: Hide/unhide punishment
-        app.put("/api/punishments/{id}/hide", this::togglePunishmentVisibility);
-        app.get("/api/punishments/{id}/hidden", this::getPunishmentHiddenStatus);
+        app.put("/api/punishments/{id}/hide", staffPool.wrap(this::togglePunishmentVisibility));
+        app.get("/api/punishments/{id}/hidden", staffPool.wrap(this::getPunishmentHiddenStatus));
+
+        // Bulk moderation by id list or filter, one transaction per request
+        app.post("/api/punishments/bulk/hide", staffPool.wrap(this::bulkSetVisibility));
+        app.post("/api/punishments/bulk/evidence", staffPool.wrap(this::bulkUpdateEvidence));
+
+        // Approval queue; approve/deny answer once the punishment was really applied or denied
+        app.get("/api/queue", staffPool.wrap(this::getApprovalQueue));
+        app.post("/api/queue/{approvalId}/approve", staffPool.wrap(ctx -> resolveApproval(ctx, true)));
+        app.post("/api/queue/{approvalId}/deny", staffPool.wrap(ctx -> resolveApproval(ctx, false)));
+
+        // Full export (including hidden punishments), streamed as NDJSON or CSV
+        app.get("/api/export/punishments", exportPool.wrap(this::exportPunishments));
 
         // NEW: Staff chat endpoints
-        app.get("/api/staff/chat", this::getChatMessages);
-        app.post("/api/staff/chat", this::postChatMessage);
+        app.get("/api/staff/chat", staffPool.wrap(this::getChatMessages));
+        app.post("/api/staff/chat", staffPool.wrap(this::postChatMessage));
+        app.before("/api/staff/chat/stream", ctx -> {
+            if (!isAuthenticated(ctx)) throw new UnauthorizedResponse();
+        });
+        app.sse("/api/staff/chat/stream", client -> chatHub.subscribe(client, client.ctx().header("Last-Event-ID")));
 
         // NEW: Authentication endpoints
-        app.post("/api/auth/login", this::login);
-        app.post("/api/auth/logout", this::logout);
-        app.get("/api/auth/session", this::getSessionStatus);
+        app.post("/api/auth/login", loginPool.wrap(this::login));
+        app.post("/api/auth/logout", staffPool.wrap(this::logout));
+        app.get("/api/auth/session", staffPool.wrap(this::getSessionStatus));
+
+        // Staff activity leaderboard
+        app.get("/api/staff/leaderboard", staffPool.wrap(this::getStaffLeaderboard));
+
+        // History-wide reports
+        app.get("/api/reports/recidivism", staffPool.wrap(this::getRecidivismReport));
+        app.post("/api/reports/simulate", staffPool.wrap(this::simulateRules));
 
         // NEW: Team management endpoints
-        app.post("/api/staff/users", this::createStaffUser);
-        app.get("/api/staff/users", this::getAllStaffUsers);
-        app.delete("/api/staff/users/{username}", this::deleteStaffUser);
+        app.post("/api/staff/users", staffPool.wrap(this::createStaffUser));
+        app.get("/api/staff/users", staffPool.wrap(this::getAllStaffUsers));
+        app.delete("/api/staff/users/{username}", staffPool.wrap(this::deleteStaffUser));
+
+        // Answered directly so it stays reachable while the pools are saturated
+        app.get("/api/metrics", this::getMetrics);
+
+        // Live punishment feed for the dashboard
+        app.ws("/api/live", ws -> {
+            ws.onConnect(liveFeed::connect);
+            ws.onClose(liveFeed::disconnect);
+            ws.onError(liveFeed::disconnect);
+        });
 
         app.error(404, ctx -> ctx.json(Map.of("error", "Not found")));
     }
 
     private void getPunishments(Context ctx, String type) {
         try {
-            int page = ctx.queryParamAsClass("page", Integer.class).getOrDefault(1);
-            int size = ctx.queryParamAsClass("size", Integer.class).getOrDefault(20);
-            String sortBy = ctx.queryParamAsClass("sort", String.class).getOrDefault("date");
-            String sortOrder = ctx.queryParamAsClass("order", String.class).getOrDefault("desc");
-            String playerFilter = ctx.queryParam("player");
-            String ruleFilter = ctx.queryParam("rule");
-
-            List<Map<String, Object>> punishments = new ArrayList<>();
+            int page = Math.max(1, ctx.queryParamAsClass("page", Integer.class).getOrDefault(1));
+            int size = Math.min(maxPageSize, Math.max(1, ctx.queryParamAsClass("size", Integer.class).getOrDefault(20)));
+            String sortBy = normalizeSortField(ctx.queryParamAsClass("sort", String.class).getOrDefault("date"));
+            String sortOrder = "asc".equalsIgnoreCase(ctx.queryParam("order")) ? "asc" : "desc";
+            String playerFilter = normalizeFilter(ctx.queryParam("player"));
+            String ruleFilter = normalizeFilter(ctx.queryParam("rule"));
+
+            DataVersion version = plugin.getDatabaseManager().getPunishmentVersion();
+            String etag = etag(version);
+            if (HttpCaching.notModified(ctx, etag, lastModified(version), false)) return;
+
+            // Same filters and sort in any parameter order or case share one cache entry
+            String route = type != null ? "punishments/" + type : "punishments";
+            String cacheKey = page + "|" + size + "|" + sortBy + "|" + sortOrder + "|" + playerFilter + "|" + ruleFilter;
+            byte[] cached = responseCache.get(route, cacheKey, etag);
+            if (cached != null) {
+                sendJson(ctx, cached);
+                return;
+            }
+
+            // Small pages are buffered so they can be cached; large ones stream row by row
+            if (size <= streamBufferMaxRows) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                writePunishments(buffer, false, type, page, size, sortBy, sortOrder, playerFilter, ruleFilter);
+                byte[] body = buffer.toByteArray();
+                responseCache.put(route, cacheKey, etag, body);
+                sendJson(ctx, body);
+            } else {
+                if (!streamPermits.tryAcquire()) {
+                    ctx.status(503);
+                    ctx.header("Retry-After", "1");
+                    ctx.json(Map.of("error", "Too many large listings in progress, try again shortly"));
+                    return;
+                }
+                try {
+                    ctx.contentType("application/json");
+                    writePunishments(RequestPool.outputStream(ctx), true, type, page, size, sortBy, sortOrder, playerFilter, ruleFilter);
+                } finally {
+                    streamPermits.release();
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error loading public punishments" + (type != null ? " [" + type + "]" : "") + ": " + e.getMessage(), e);
+            // Part of a streamed body has already been sent
+            if (ctx.res().isCommitted()) {
+                abortResponse(ctx, e);
+                return;
+            }
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to load punishments"));
+        }
+    }
+
+    /**
+     * Write one page of visible punishments as the public list endpoints return it.
+     *
+     * @param stream read on a connection of its own with a cursor, for pages written to the client as they are read
+     */
+    private void writePunishments(OutputStream out, boolean stream, String type, int page, int size, String sortBy,
+                                  String sortOrder, String playerFilter, String ruleFilter) throws SQLException, IOException {
+        // Build SQL dynamically - EXCLUDE HIDDEN PUNISHMENTS
+        StringBuilder sql = new StringBuilder("SELECT * FROM punishments WHERE hidden = FALSE");
+        StringBuilder countSql = new StringBuilder("SELECT COUNT(*) AS total FROM punishments WHERE hidden = FALSE");
+        List<Object> params = new ArrayList<>();
+        List<Object> countParams = new ArrayList<>();
+
+        List<String> conditions = new ArrayList<>();
+        if (type != null) {
+            conditions.add("type = ?");
+            params.add(type);
+            countParams.add(type);
+        }
+        if (playerFilter != null && !playerFilter.isEmpty()) {
+            conditions.add("player_name LIKE ?");
+            params.add("%" + playerFilter + "%");
+            countParams.add("%" + playerFilter + "%");
+        }
+        if (ruleFilter != null && !ruleFilter.isEmpty()) {
+            conditions.add("rule LIKE ?");
+            params.add("%" + ruleFilter + "%");
+            countParams.add("%" + ruleFilter + "%");
+        }
+
+        if (!conditions.isEmpty()) {
+            String where = String.join(" AND ", conditions);
+            sql.append(" AND ").append(where);
+            countSql.append(" AND ").append(where);
+        }
+
+        // Sorting
+        sql.append(" ORDER BY ").append(sanitizeSortField(sortBy))
+                .append(sortOrder.equalsIgnoreCase("asc") ? " ASC" : " DESC");
+
+        // Pagination
+        sql.append(" LIMIT ? OFFSET ?");
+        params.add(size);
+        params.add((page - 1L) * size);
+
+        // A streamed page is read while other requests close the shared connection, so it gets its own
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+        try (Connection connection = stream ? databaseManager.openDedicatedConnection() : databaseManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             PreparedStatement countStmt = connection.prepareStatement(countSql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+            for (int i = 0; i < countParams.size(); i++) countStmt.setObject(i + 1, countParams.get(i));
+            stmt.setFetchSize(streamFetchSize);
+
             int total = 0;
+            try (ResultSet rsCount = countStmt.executeQuery()) {
+                if (rsCount.next()) total = rsCount.getInt("total");
+            }
+
+            try (ResultSet rs = stmt.executeQuery();
+                 JsonGenerator json = PunishmentJson.createGenerator(out)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("punishments");
+                while (rs.next()) PunishmentJson.writeRow(json, rs);
+                json.writeEndArray();
+                json.writeNumberField("total", total);
+                json.writeNumberField("page", page);
+                json.writeNumberField("size", size);
+                json.writeStringField("sortBy", sortBy);
+                json.writeStringField("sortOrder", sortOrder);
+                json.writeEndObject();
+            }
+        }
+    }
 
-            // Build SQL dynamically - EXCLUDE HIDDEN PUNISHMENTS
-            StringBuilder sql = new StringBuilder("SELECT * FROM punishments WHERE hidden = FALSE");
-            StringBuilder countSql = new StringBuilder("SELECT COUNT(*) AS total FROM punishments WHERE hidden = FALSE");
-            List<Object> params = new ArrayList<>();
-            List<Object> countParams = new ArrayList<>();
+    private void searchPlayers(Context ctx) {
+        String query = normalizeFilter(ctx.queryParam("q"));
+        int limit = Math.max(1, Math.min(50, ctx.queryParamAsClass("limit", Integer.class).getOrDefault(10)));
+        if (query.isEmpty()) {
+            ctx.status(400);
+            ctx.json(Map.of("error", "Query parameter q is required"));
+            return;
+        }
 
-            List<String> conditions = new ArrayList<>();
-            if (type != null) {
-                conditions.add("type = ?");
-                params.add(type);
-                countParams.add(type);
+        List<Map<String, Object>> players = new ArrayList<>();
+        for (PlayerNameIndex.Match match : plugin.getDatabaseManager().getPlayerNameIndex().search(query, limit)) {
+            Map<String, Object> player = new LinkedHashMap<>();
+            player.put("name", match.name());
+            player.put("uuid", match.uuid());
+            player.put("last_punished", match.lastSeen());
+            players.add(player);
+        }
+        ctx.json(Map.of("players", players));
+    }
+
+    private void getPlayerProfile(Context ctx) {
+        try {
+            String uuid;
+            try {
+                uuid = UUID.fromString(ctx.pathParam("uuid")).toString();
+            } catch (IllegalArgumentException e) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "Invalid player UUID"));
+                return;
             }
-            if (playerFilter != null && !playerFilter.isEmpty()) {
-                conditions.add("player_name LIKE ?");
-                params.add("%" + playerFilter + "%");
-                countParams.add("%" + playerFilter + "%");
+
+            // Staff also see hidden punishments and pending approvals, which are not versioned
+            boolean staff = isAuthenticated(ctx);
+            DataVersion version = plugin.getDatabaseManager().getPunishmentVersion();
+            String generation = etag(version);
+            if (!staff) {
+                // Severity decays and sanctions expire over time, so the profile changes once a minute anyway
+                long minute = System.currentTimeMillis() / 60_000L;
+                long modified = Math.max(lastModified(version), minute * 60_000L);
+                if (HttpCaching.notModified(ctx, etag(version, uuid, minute), modified, false)) return;
             }
-            if (ruleFilter != null && !ruleFilter.isEmpty()) {
-                conditions.add("rule LIKE ?");
-                params.add("%" + ruleFilter + "%");
-                countParams.add("%" + ruleFilter + "%");
+
+            List<PunishmentRecord> history = playerHistoryCache.get(uuid, generation,
+                    plugin.getDatabaseManager()::getPunishmentRecordsForPlayer);
+            if (history == null) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to load player history"));
+                return;
             }
 
-            if (!conditions.isEmpty()) {
-                String where = String.join(" AND ", conditions);
-                sql.append(" AND ").append(where);
-                countSql.append(" AND ").append(where);
+            long now = System.currentTimeMillis();
+            List<PunishmentRecord> visible = new ArrayList<>();
+            List<Punishment> scored = new ArrayList<>();
+            Map<String, Integer> ruleCounts = new TreeMap<>();
+            List<Map<String, Object>> active = new ArrayList<>();
+            for (PunishmentRecord record : history) {
+                if (record.hidden() && !staff) continue;
+                visible.add(record);
+                if (record.hidden()) continue;
+
+                // Same inputs as the escalation logic, which ignores hidden punishments
+                scored.add(record.toPunishment());
+                ruleCounts.merge(record.rule(), 1, Integer::sum);
+                Long expiresAt = activeUntil(record, now);
+                if (expiresAt != null) {
+                    Map<String, Object> sanction = new LinkedHashMap<>();
+                    sanction.put("id", record.id());
+                    sanction.put("type", record.type());
+                    sanction.put("rule", record.rule());
+                    sanction.put("duration", record.duration());
+                    sanction.put("date", record.date());
+                    sanction.put("expires", expiresAt == Long.MAX_VALUE ? null : expiresAt);
+                    active.add(sanction);
+                }
             }
 
-            // Sorting
-            sql.append(" ORDER BY ").append(sanitizeSortField(sortBy))
-                    .append(sortOrder.equalsIgnoreCase("asc") ? " ASC" : " DESC");
+            List<Map<String, Object>> pending = staff ? getPendingApprovals(uuid) : List.of();
+            if (visible.isEmpty() && pending.isEmpty()) {
+                ctx.status(404);
+                ctx.json(Map.of("error", "No punishments found for this player"));
+                return;
+            }
 
-            // Pagination
-            sql.append(" LIMIT ? OFFSET ?");
-            params.add(size);
-            params.add((page - 1) * size);
+            PunishmentManager punishmentManager = plugin.getPunishmentManager();
+            int severityScore = punishmentManager.calculateSeverityScore(scored);
+
+            Map<String, Object> profile = new LinkedHashMap<>();
+            profile.put("uuid", uuid);
+            profile.put("name", !history.isEmpty() ? history.get(0).playerName() : pending.get(0).get("player_name"));
+            profile.put("total", scored.size());
+            profile.put("severityScore", severityScore);
+            profile.put("tier", punishmentManager.determineGlobalTier(severityScore));
+            profile.put("ruleCounts", ruleCounts);
+            profile.put("active", active);
+            profile.put("history", visible);
+            if (staff) profile.put("pending", pending);
+            ctx.json(profile);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error loading player profile: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to load player profile"));
+        }
+    }
 
-            // FIXED: Proper connection handling with try-with-resources
-            try (Connection connection = plugin.getDatabaseManager().getConnection();
-                 PreparedStatement stmt = connection.prepareStatement(sql.toString());
-                 PreparedStatement countStmt = connection.prepareStatement(countSql.toString())) {
+    // Mutes and bans still in force: expiry time, Long.MAX_VALUE for permanent, null otherwise
+    private static Long activeUntil(PunishmentRecord record, long now) {
+        String type = record.type().toLowerCase(Locale.ROOT);
+        if (!type.equals("mute") && !type.equals("ban")) return null;
+
+        long millis = TimeUtil.parseDuration(record.duration());
+        if (millis <= 0) return Long.MAX_VALUE;
+        long expiresAt = record.date() + millis;
+        return expiresAt > now ? expiresAt : null;
+    }
 
-                for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
-                for (int i = 0; i < countParams.size(); i++) countStmt.setObject(i + 1, countParams.get(i));
+    private List<Map<String, Object>> getPendingApprovals(String uuid) {
+        List<Map<String, Object>> pending = new ArrayList<>();
+        PunishmentQueueManager queueManager = plugin.getPunishmentQueueManager();
+        if (queueManager == null) return pending;
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        Map<String, Object> punishment = new HashMap<>();
-                        punishment.put("id", rs.getString("id"));
-                        punishment.put("player_uuid", rs.getString("player_uuid"));
-                        punishment.put("player_name", rs.getString("player_name"));
-                        punishment.put("rule", rs.getString("rule"));
-                        punishment.put("type", rs.getString("type"));
-                        punishment.put("duration", rs.getString("duration"));
-                        punishment.put("staff_name", rs.getString("staff_name"));
-                        punishment.put("staff_uuid", rs.getString("staff_uuid"));
-                        punishment.put("date", rs.getTimestamp("date"));
-                        punishment.put("evidence_link", rs.getString("evidence_link"));
-                        punishment.put("hidden", rs.getBoolean("hidden"));
-                        punishments.add(punishment);
-                    }
-                }
+        for (QueuedPunishment queued : queueManager.getQueuedPunishments()) {
+            if (!queued.getPlayerUuid().toString().equals(uuid)) continue;
+            pending.add(queuedToJson(queued));
+        }
+        return pending;
+    }
 
-                try (ResultSet rsCount = countStmt.executeQuery()) {
-                    if (rsCount.next()) total = rsCount.getInt("total");
+    private static Map<String, Object> queuedToJson(QueuedPunishment queued) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("approval_id", queued.getApprovalId());
+        entry.put("player_uuid", queued.getPlayerUuid().toString());
+        entry.put("player_name", queued.getPlayerName());
+        entry.put("rule", queued.getRule());
+        entry.put("type", queued.getType());
+        entry.put("duration", queued.getDuration());
+        entry.put("staff_name", queued.getStaffName());
+        entry.put("queued_date", queued.getQueuedDate().getTime());
+        return entry;
+    }
+
+    private void getApprovalQueue(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            PunishmentQueueManager queueManager = plugin.getPunishmentQueueManager();
+            if (queueManager == null) {
+                ctx.json(Map.of("queue", List.of(), "total", 0));
+                return;
+            }
+
+            String player = queryFilter(ctx, "player");
+            String rule = queryFilter(ctx, "rule");
+            String type = queryFilter(ctx, "type");
+            String staff = queryFilter(ctx, "staff");
+
+            List<QueuedPunishment> queued = queueManager.getQueuedPunishments();
+            queued.sort(Comparator.comparing(QueuedPunishment::getQueuedDate));
+            List<Map<String, Object>> queue = new ArrayList<>();
+            for (QueuedPunishment entry : queued) {
+                if (player != null && !entry.getPlayerName().equalsIgnoreCase(player)
+                        && !entry.getPlayerUuid().toString().equalsIgnoreCase(player)) continue;
+                if (rule != null && !entry.getRule().equalsIgnoreCase(rule)) continue;
+                if (type != null && !entry.getType().equalsIgnoreCase(type)) continue;
+                if (staff != null && !entry.getStaffName().equalsIgnoreCase(staff)) continue;
+                queue.add(queuedToJson(entry));
+            }
+
+            ctx.json(Map.of("queue", queue, "total", queued.size()));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error listing approval queue: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to list approval queue: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Approve or deny a queued punishment. Waits for the pipeline, so the response reports
+     * whether the punishment was really applied; only the Bukkit step runs on the main thread.
+     */
+    private void resolveApproval(Context ctx, boolean approved) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            PunishmentQueueManager queueManager = plugin.getPunishmentQueueManager();
+            if (queueManager == null) {
+                ctx.status(404);
+                ctx.json(Map.of("error", "Approval system is not available"));
+                return;
+            }
+
+            String approvalId = ctx.pathParam("approvalId");
+            String adminName = getSession(ctx).getUsername();
+            CompletableFuture<PunishmentQueueManager.ApprovalResult> future =
+                    queueManager.processApproval(approvalId, approved, plugin.getServer().getConsoleSender(), adminName);
+
+            PunishmentQueueManager.ApprovalResult result;
+            try {
+                result = future.get(approvalWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still running (e.g. the main thread is busy); the live feed reports the outcome
+                ctx.status(202);
+                ctx.json(Map.of("success", true, "approval_id", approvalId, "status", "processing"));
+                return;
+            }
+
+            switch (result) {
+                case NOT_FOUND -> {
+                    ctx.status(404);
+                    ctx.json(Map.of("error", "No pending punishment found with ID: " + approvalId));
+                }
+                case FAILED -> {
+                    ctx.status(500);
+                    ctx.json(Map.of("error", "Failed to " + (approved ? "execute" : "deny") + " punishment"));
                 }
+                default -> ctx.json(Map.of("success", true, "approval_id", approvalId,
+                        "status", approved ? "approved" : "denied"));
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error resolving queued punishment: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to resolve queued punishment: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Download punishments as NDJSON or CSV. The body is written while the rows are read,
+     * with chunked transfer encoding, so no export is ever held in memory.
+     */
+    private void exportPunishments(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            ExportManager.Format format = ExportManager.Format.parse(
+                    ctx.queryParamAsClass("format", String.class).getOrDefault("ndjson"));
+            if (format == null) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "Format must be ndjson or csv"));
+                return;
             }
 
-            ctx.json(Map.of(
-                    "punishments", punishments,
-                    "total", total,
-                    "page", page,
-                    "size", size,
-                    "sortBy", sortBy,
-                    "sortOrder", sortOrder
-            ));
+            Long since;
+            Long until;
+            try {
+                since = queryFilter(ctx, "since") != null ? Long.parseLong(queryFilter(ctx, "since")) : null;
+                until = queryFilter(ctx, "until") != null ? Long.parseLong(queryFilter(ctx, "until")) : null;
+            } catch (NumberFormatException e) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "since and until must be epoch milliseconds"));
+                return;
+            }
+            String hiddenFilter = queryFilter(ctx, "hidden");
+            ExportManager.Filter filter = new ExportManager.Filter(since, until,
+                    queryFilter(ctx, "rule"), queryFilter(ctx, "type"),
+                    hiddenFilter != null ? Boolean.valueOf(hiddenFilter) : null);
+            boolean gzip = Boolean.parseBoolean(ctx.queryParam("gzip"));
+
+            String filename = "punishments." + format.getExtension() + (gzip ? ".gz" : "");
+            ctx.contentType(gzip ? "application/gzip" : format.getContentType());
+            ctx.header("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+            long rows = plugin.getExportManager().export(RequestPool.outputStream(ctx), format, filter, gzip);
+            if (rows < 0) {
+                if (ctx.res().isCommitted()) {
+                    abortResponse(ctx, new IOException("Export query failed after the download started"));
+                    return;
+                }
+                ctx.res().reset();
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to export punishments"));
+            }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error loading public punishments" + (type != null ? " [" + type + "]" : "") + ": " + e.getMessage(), e);
+            logger.log(Level.SEVERE, "Error exporting punishments: " + e.getMessage(), e);
+            // Part of the export has already been sent
+            if (ctx.res().isCommitted()) {
+                abortResponse(ctx, e);
+                return;
+            }
+            ctx.res().reset();
             ctx.status(500);
-            ctx.json(Map.of("error", "Failed to load punishments" + (type != null ? " [" + type + "]" : "") + ": " + e.getMessage()));
+            ctx.json(Map.of("error", "Failed to export punishments: " + e.getMessage()));
         }
     }
 
+    // Drop the connection of a streamed response that failed midway, so the client sees an
+    // error instead of a body that ends cleanly but short
+    private static void abortResponse(Context ctx, Throwable cause) {
+        Request request = Request.getBaseRequest(ctx.req());
+        if (request != null) request.getHttpChannel().abort(cause);
+    }
+
+    private static String queryFilter(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        if (value == null) return null;
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
     // NEW: Get specific punishment by ID
     private void getPunishmentById(Context ctx) {
         try {
             String id = ctx.pathParam("id");
 
+            DataVersion version = plugin.getDatabaseManager().getPunishmentVersion();
+            if (HttpCaching.notModified(ctx, etag(version), lastModified(version), false)) return;
+
             try (Connection connection = plugin.getDatabaseManager().getConnection();
                  PreparedStatement stmt = connection.prepareStatement("SELECT * FROM punishments WHERE id = ?")) {
 
@@ -205,20 +748,7 @@ public class PublicWebPanelManager {
 
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
-                        Map<String, Object> punishment = new HashMap<>();
-                        punishment.put("id", rs.getString("id"));
-                        punishment.put("player_uuid", rs.getString("player_uuid"));
-                        punishment.put("player_name", rs.getString("player_name"));
-                        punishment.put("rule", rs.getString("rule"));
-                        punishment.put("type", rs.getString("type"));
-                        punishment.put("duration", rs.getString("duration"));
-                        punishment.put("staff_name", rs.getString("staff_name"));
-                        punishment.put("staff_uuid", rs.getString("staff_uuid"));
-                        punishment.put("date", rs.getTimestamp("date"));
-                        punishment.put("evidence_link", rs.getString("evidence_link"));
-                        punishment.put("hidden", rs.getBoolean("hidden"));
-
-                        ctx.json(punishment);
+                        ctx.json(PunishmentRecord.fromResultSet(rs));
                     } else {
                         ctx.status(404);
                         ctx.json(Map.of("error", "Punishment not found"));
@@ -228,7 +758,7 @@ public class PublicWebPanelManager {
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error loading punishment by ID: " + e.getMessage(), e);
             ctx.status(500);
-            ctx.json(Map.of("error", "Failed to load punishment: " + e.getMessage()));
+            ctx.json(Map.of("error", "Failed to load punishment"));
         }
     }
 
@@ -255,6 +785,7 @@ public class PublicWebPanelManager {
             boolean success = plugin.getDatabaseManager().updateEvidenceLink(id, evidenceLink);
 
             if (success) {
+                liveFeed.evidenceUpdated(id, evidenceLink);
                 ctx.json(Map.of("success", true, "message", "Evidence link updated successfully"));
             } else {
                 ctx.status(500);
@@ -284,6 +815,8 @@ public class PublicWebPanelManager {
             boolean success = plugin.getDatabaseManager().setPunishmentHidden(id, hidden);
 
             if (success) {
+                liveFeed.visibilityChanged(id, hidden);
+
                 // Broadcast to in-game chat
                 String action = hidden ? "hidden" : "unhidden";
                 plugin.getServer().broadcastMessage("§6[AutoPunish] §eStaff member has " + action + " a punishment (ID: " + id + ")");
@@ -304,6 +837,135 @@ public class PublicWebPanelManager {
         }
     }
 
+    private void bulkSetVisibility(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
+            boolean hidden = (Boolean) requestBody.getOrDefault("hidden", true);
+            List<String> ids = resolveBulkTargets(ctx, requestBody);
+            if (ids == null) return;
+
+            int updated = plugin.getDatabaseManager().setPunishmentsHidden(ids, hidden);
+            if (updated < 0) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to update punishment visibility"));
+                return;
+            }
+
+            String action = hidden ? "hidden" : "unhidden";
+            if (updated > 0) {
+                liveFeed.bulkChanged(action, updated);
+                plugin.getServer().broadcastMessage("§6[AutoPunish] §eStaff member has " + action + " " + updated + " punishment(s)");
+            }
+            ctx.json(Map.of("success", true, "matched", ids.size(), "updated", updated, "hidden", hidden));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error in bulk visibility update: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to update punishment visibility: " + e.getMessage()));
+        }
+    }
+
+    private void bulkUpdateEvidence(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
+            String evidenceLink = (String) requestBody.get("evidence_link");
+            if (evidenceLink == null || evidenceLink.trim().isEmpty()) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "Evidence link is required"));
+                return;
+            }
+            List<String> ids = resolveBulkTargets(ctx, requestBody);
+            if (ids == null) return;
+
+            int updated = plugin.getDatabaseManager().updateEvidenceLinks(ids, evidenceLink);
+            if (updated < 0) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to update evidence links"));
+                return;
+            }
+
+            if (updated > 0) liveFeed.bulkChanged("evidence", updated);
+            ctx.json(Map.of("success", true, "matched", ids.size(), "updated", updated));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error in bulk evidence update: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to update evidence links: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Punishment ids a bulk request targets: either {@code "ids": [...]} or a
+     * {@code "filter"} object. Answers with 400 and returns null if neither is usable.
+     */
+    private List<String> resolveBulkTargets(Context ctx, Map<String, Object> requestBody) {
+        Object rawIds = requestBody.get("ids");
+        Object rawFilter = requestBody.get("filter");
+
+        if (rawIds instanceof List<?> list && !list.isEmpty()) {
+            if (list.size() > bulkMaxPunishments) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "At most " + bulkMaxPunishments + " punishments per request"));
+                return null;
+            }
+            List<String> ids = new ArrayList<>(list.size());
+            for (Object id : list) if (id != null) ids.add(id.toString());
+            return ids;
+        }
+
+        if (rawFilter instanceof Map<?, ?> filter) {
+            String player = filterValue(filter, "player");
+            String playerUuid = filterValue(filter, "player_uuid");
+            String rule = filterValue(filter, "rule");
+            String type = filterValue(filter, "type");
+            String staff = filterValue(filter, "staff");
+            Long since = filter.get("since") instanceof Number n ? n.longValue() : null;
+            Long until = filter.get("until") instanceof Number n ? n.longValue() : null;
+            if (player == null && playerUuid == null && rule == null && type == null && staff == null
+                    && since == null && until == null) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "Filter needs at least one criterion"));
+                return null;
+            }
+
+            // One extra row tells us the filter is too broad, so we never apply half of it
+            List<String> ids = plugin.getDatabaseManager().findPunishmentIds(
+                    player, playerUuid, rule, type, staff, since, until, bulkMaxPunishments + 1);
+            if (ids == null) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to resolve filter"));
+                return null;
+            }
+            if (ids.size() > bulkMaxPunishments) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "Filter matches more than " + bulkMaxPunishments + " punishments, narrow it down"));
+                return null;
+            }
+            return ids;
+        }
+
+        ctx.status(400);
+        ctx.json(Map.of("error", "Either ids or filter is required"));
+        return null;
+    }
+
+    private static String filterValue(Map<?, ?> filter, String key) {
+        Object value = filter.get(key);
+        if (value == null) return null;
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
     // NEW: Get punishment hidden status
     private void getPunishmentHiddenStatus(Context ctx) {
         try {
@@ -315,6 +977,10 @@ public class PublicWebPanelManager {
             }
 
             String id = ctx.pathParam("id");
+
+            DataVersion version = plugin.getDatabaseManager().getPunishmentVersion();
+            if (HttpCaching.notModified(ctx, etag(version), lastModified(version), true)) return;
+
             boolean hidden = plugin.getDatabaseManager().isPunishmentHidden(id);
 
             ctx.json(Map.of("hidden", hidden));
@@ -336,6 +1002,10 @@ public class PublicWebPanelManager {
             }
 
             int limit = ctx.queryParamAsClass("limit", Integer.class).getOrDefault(50);
+
+            DataVersion version = plugin.getDatabaseManager().getChatVersion();
+            if (HttpCaching.notModified(ctx, etag(version), lastModified(version), true)) return;
+
             List<Map<String, Object>> messages = plugin.getDatabaseManager().getChatMessages(limit);
             ctx.json(Map.of("messages", messages));
         } catch (Exception e) {
@@ -365,14 +1035,15 @@ public class PublicWebPanelManager {
             }
 
             // Get staff info from session
-            String sessionId = getSessionId(ctx);
-            Map<String, Object> session = sessions.get(sessionId);
-            String staffName = (String) session.get("username");
-            String staffUuid = (String) session.get("uuid");
+            PanelSession session = getSession(ctx);
+            String staffName = session.getUsername();
+            String staffUuid = session.getUuid();
 
             boolean success = plugin.getDatabaseManager().saveChatMessage(staffName, staffUuid, message);
 
             if (success) {
+                publishChatMessage(staffName, staffUuid, message);
+
                 // Broadcast message to in-game chat
                 plugin.getServer().broadcastMessage("§6[Staff Chat] §e" + staffName + ": §f" + message);
 
@@ -401,15 +1072,23 @@ public class PublicWebPanelManager {
                 return;
             }
 
+            String address = RateLimiter.clientAddress(ctx, trustForwardedFor);
+            long lockedMillis = loginThrottle.lockedFor(username, address);
+            if (lockedMillis > 0) {
+                long retryAfterSeconds = Math.max(1, (lockedMillis + 999) / 1000);
+                ctx.status(429);
+                ctx.header("Retry-After", String.valueOf(retryAfterSeconds));
+                ctx.json(Map.of("error", "Too many failed logins, try again in " + retryAfterSeconds + "s"));
+                return;
+            }
+
             Map<String, Object> user = plugin.getDatabaseManager().authenticateStaffUser(username, password);
 
             if (user != null) {
+                loginThrottle.recordSuccess(username);
                 // Create session
-                String sessionId = UUID.randomUUID().toString();
-                sessions.put(sessionId, user);
-
-                // Set cookie
-                ctx.cookie("session_id", sessionId, 3600); // 1 hour
+                String sessionId = sessions.login((String) user.get("username"), (String) user.get("uuid"), (String) user.get("role"));
+                setSessionCookie(ctx, sessionId);
 
                 ctx.json(Map.of(
                         "success", true,
@@ -420,13 +1099,14 @@ public class PublicWebPanelManager {
                         )
                 ));
             } else {
+                loginThrottle.recordFailure(username, address);
                 ctx.status(401);
                 ctx.json(Map.of("error", "Invalid username or password"));
             }
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error during login: " + e.getMessage(), e);
             ctx.status(500);
-            ctx.json(Map.of("error", "Login failed: " + e.getMessage()));
+            ctx.json(Map.of("error", "Login failed"));
         }
     }
 
@@ -435,7 +1115,7 @@ public class PublicWebPanelManager {
         try {
             String sessionId = getSessionId(ctx);
             if (sessionId != null) {
-                sessions.remove(sessionId);
+                sessions.logout(sessionId);
                 ctx.removeCookie("session_id");
             }
             ctx.json(Map.of("success", true, "message", "Logged out successfully"));
@@ -449,14 +1129,13 @@ public class PublicWebPanelManager {
     // NEW: Get session status
     private void getSessionStatus(Context ctx) {
         try {
-            String sessionId = getSessionId(ctx);
-            if (sessionId != null && sessions.containsKey(sessionId)) {
-                Map<String, Object> session = sessions.get(sessionId);
+            PanelSession session = getSession(ctx);
+            if (session != null) {
                 ctx.json(Map.of(
                         "authenticated", true,
                         "user", Map.of(
-                                "username", session.get("username"),
-                                "role", session.get("role")
+                                "username", session.getUsername(),
+                                "role", session.getRole()
                         )
                 ));
             } else {
@@ -544,9 +1223,8 @@ public class PublicWebPanelManager {
             String username = ctx.pathParam("username");
 
             // Prevent deleting yourself
-            String sessionId = getSessionId(ctx);
-            Map<String, Object> session = sessions.get(sessionId);
-            if (session != null && username.equals(session.get("username"))) {
+            PanelSession session = getSession(ctx);
+            if (session != null && username.equals(session.getUsername())) {
                 ctx.status(400);
                 ctx.json(Map.of("error", "You cannot delete your own account"));
                 return;
@@ -555,6 +1233,8 @@ public class PublicWebPanelManager {
             boolean success = plugin.getDatabaseManager().deleteStaffUser(username);
 
             if (success) {
+                // Log the deleted user out of every open panel
+                sessions.logoutUser(username);
                 ctx.json(Map.of("success", true, "message", "Staff user deleted successfully"));
             } else {
                 ctx.status(404);
@@ -567,6 +1247,22 @@ public class PublicWebPanelManager {
         }
     }
 
+    /**
+     * The sort field a request asks for, with unknown fields falling back to the date
+     */
+    private String normalizeSortField(String field) {
+        String normalized = field.toLowerCase();
+        switch (normalized) {
+            case "player":
+            case "rule":
+            case "type":
+            case "staff":
+                return normalized;
+            default:
+                return "date";
+        }
+    }
+
     private String sanitizeSortField(String field) {
         switch (field.toLowerCase()) {
             case "player": return "player_name";
@@ -579,54 +1275,602 @@ public class PublicWebPanelManager {
 
     private void getPunishmentStats(Context ctx) {
         try {
-            String sql = "SELECT type, COUNT(*) AS count FROM punishments WHERE hidden = FALSE GROUP BY type";
-            String recentSql = "SELECT COUNT(*) AS recent FROM punishments WHERE date > ? AND hidden = FALSE";
-            Map<String, Integer> counts = new HashMap<>();
-            int recent = 0;
+            // "recent" is a sliding 24h window, so stats also change once a minute without writes
+            long minute = System.currentTimeMillis() / 60_000L;
+            DataVersion version = plugin.getDatabaseManager().getPunishmentVersion();
+            long modified = Math.max(lastModified(version), minute * 60_000L);
+            String etag = etag(version, minute);
+            if (HttpCaching.notModified(ctx, etag, modified, false)) return;
+
+            byte[] cached = responseCache.get("stats", "", etag);
+            if (cached != null) {
+                sendJson(ctx, cached);
+                return;
+            }
 
-            try (Connection connection = plugin.getDatabaseManager().getConnection();
-                 PreparedStatement stmt = connection.prepareStatement(sql);
-                 ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) counts.put(rs.getString("type").toLowerCase(), rs.getInt("count"));
+            byte[] body = toJsonBytes(ctx, punishmentStats());
+            responseCache.put("stats", "", etag, body);
+            sendJson(ctx, body);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error loading punishment stats: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to load stats"));
+        }
+    }
+
+    private Map<String, Object> punishmentStats() throws SQLException {
+        String sql = "SELECT type, COUNT(*) AS count FROM punishments WHERE hidden = FALSE GROUP BY type";
+        String recentSql = "SELECT COUNT(*) AS recent FROM punishments WHERE date > ? AND hidden = FALSE";
+        Map<String, Integer> counts = new HashMap<>();
+        int recent = 0;
+
+        try (Connection connection = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) counts.put(rs.getString("type").toLowerCase(), rs.getInt("count"));
+        }
+
+        try (Connection connection = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = connection.prepareStatement(recentSql)) {
+            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - 24 * 60 * 60 * 1000));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) recent = rs.getInt("recent");
             }
+        }
 
-            try (Connection connection = plugin.getDatabaseManager().getConnection();
-                 PreparedStatement stmt = connection.prepareStatement(recentSql)) {
-                stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - 24 * 60 * 60 * 1000));
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) recent = rs.getInt("recent");
+        return Map.of(
+                "totalPunishments", counts.values().stream().mapToInt(i -> i).sum(),
+                "totalWarns", counts.getOrDefault("warn", 0),
+                "totalMutes", counts.getOrDefault("mute", 0),
+                "totalBans", counts.getOrDefault("ban", 0),
+                "recentPunishments", recent,
+                "generatedAt", new java.util.Date()
+        );
+    }
+
+    /**
+     * Punishment counts per hour, day or week, optionally grouped by rule, type or staff.
+     * {@code from} and {@code to} are epoch milliseconds or UTC dates (yyyy-MM-dd).
+     */
+    private void getAnalyticsTimeseries(Context ctx) {
+        try {
+            AnalyticsManager analytics = plugin.getAnalyticsManager();
+            AnalyticsManager.Interval interval = AnalyticsManager.Interval.parse(
+                    ctx.queryParamAsClass("interval", String.class).getOrDefault("day"));
+            AnalyticsManager.GroupBy groupBy = AnalyticsManager.GroupBy.parse(
+                    ctx.queryParamAsClass("group", String.class).getOrDefault("none"));
+            if (interval == null || groupBy == null) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "interval must be hour, day or week and group one of none, rule, type or staff"));
+                return;
+            }
+
+            long to;
+            long from;
+            try {
+                to = queryFilter(ctx, "to") != null ? parseTime(queryFilter(ctx, "to")) : System.currentTimeMillis();
+                from = queryFilter(ctx, "from") != null ? parseTime(queryFilter(ctx, "from"))
+                        : to - defaultSpan(interval);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "from and to must be epoch milliseconds or dates like 2024-01-31"));
+                return;
+            }
+            if (from >= to) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "from must be before to"));
+                return;
+            }
+            if (analytics.countBuckets(interval, from, to) > analytics.getMaxPoints()) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "Range too long, at most " + analytics.getMaxPoints() + " " +
+                        interval.name().toLowerCase() + " buckets per request"));
+                return;
+            }
+            String rule = queryFilter(ctx, "rule");
+            String type = queryFilter(ctx, "type");
+            String staff = queryFilter(ctx, "staff");
+
+            // Open ranges end now, so the tag also moves on with every new bucket
+            DataVersion version = analytics.getVersion();
+            String etag = etag(version, interval.align(to));
+            if (HttpCaching.notModified(ctx, etag, lastModified(version), false)) return;
+
+            String cacheKey = interval + "|" + groupBy + "|" + interval.align(from) + "|" + interval.align(to) +
+                    "|" + rule + "|" + type + "|" + staff;
+            byte[] cached = responseCache.get("analytics", cacheKey, etag);
+            if (cached != null) {
+                sendJson(ctx, cached);
+                return;
+            }
+
+            AnalyticsManager.Timeseries timeseries = analytics.getTimeseries(interval, groupBy, from, to, rule, type, staff);
+            if (timeseries == null) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to load analytics"));
+                return;
+            }
+
+            List<Map<String, Object>> series = new ArrayList<>();
+            for (AnalyticsManager.Series entry : timeseries.series()) {
+                series.add(Map.of("key", entry.key(), "total", entry.total(), "counts", entry.counts()));
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("interval", interval.name().toLowerCase());
+            response.put("group", groupBy.name().toLowerCase());
+            response.put("from", timeseries.from());
+            response.put("to", timeseries.to());
+            response.put("hourlySince", timeseries.hourlySince());
+            response.put("buckets", timeseries.buckets());
+            response.put("series", series);
+
+            byte[] body = toJsonBytes(ctx, response);
+            responseCache.put("analytics", cacheKey, etag, body);
+            sendJson(ctx, body);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error loading analytics: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to load analytics"));
+        }
+    }
+
+    /**
+     * Staff members ranked by one counter over the current day, week, month or all time.
+     * {@code at} (epoch milliseconds or a UTC date) selects an earlier period.
+     */
+    private void getStaffLeaderboard(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            AnalyticsManager analytics = plugin.getAnalyticsManager();
+            AnalyticsManager.Period period = AnalyticsManager.Period.parse(
+                    ctx.queryParamAsClass("period", String.class).getOrDefault("week"));
+            AnalyticsManager.Sort sort = AnalyticsManager.Sort.parse(
+                    ctx.queryParamAsClass("sort", String.class).getOrDefault("issued"));
+            if (period == null || sort == null) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "period must be day, week, month or all and sort one of issued, approved, denied or hidden"));
+                return;
+            }
+            int limit = Math.max(1, Math.min(100, ctx.queryParamAsClass("limit", Integer.class).getOrDefault(10)));
+
+            long at;
+            try {
+                at = queryFilter(ctx, "at") != null ? parseTime(queryFilter(ctx, "at")) : System.currentTimeMillis();
+            } catch (NumberFormatException | DateTimeParseException e) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "at must be epoch milliseconds or a date like 2024-01-31"));
+                return;
+            }
+            long periodStart = period.start(at);
+
+            DataVersion version = analytics.getVersion();
+            if (HttpCaching.notModified(ctx, etag(version, period, periodStart, sort, limit),
+                    lastModified(version), true)) return;
+
+            List<AnalyticsManager.StaffActivity> leaderboard = analytics.getLeaderboard(period, at, sort, limit);
+            if (leaderboard == null) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to load staff leaderboard"));
+                return;
+            }
+
+            List<Map<String, Object>> entries = new ArrayList<>();
+            for (AnalyticsManager.StaffActivity activity : leaderboard) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("staff_name", activity.staffName());
+                entry.put("issued", activity.issued());
+                entry.put("approved", activity.approved());
+                entry.put("denied", activity.denied());
+                entry.put("hidden", activity.hidden());
+                entries.add(entry);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("period", period.name().toLowerCase());
+            response.put("periodStart", periodStart);
+            response.put("sort", sort.name().toLowerCase());
+            response.put("staff", entries);
+            ctx.json(response);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error loading staff leaderboard: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to load staff leaderboard: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Survival curves of time to reoffend per rule and tier and per punishment type.
+     * The report is cached; {@code refresh=true} computes it again. If it is not ready within
+     * the request timeout, the previous report is served, or 202 if there is none yet.
+     */
+    private void getRecidivismReport(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            boolean refresh = ctx.queryParamAsClass("refresh", Boolean.class).getOrDefault(false);
+            ReportManager reports = plugin.getReportManager();
+            ReportManager.RecidivismReport report;
+            try {
+                report = reports.getRecidivismReport(refresh).get(approvalWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                report = reports.getCachedRecidivismReport();
+                if (report == null) {
+                    ctx.status(202);
+                    ctx.json(Map.of("status", "computing"));
+                    return;
                 }
             }
+            if (report == null) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to compute recidivism report"));
+                return;
+            }
 
-            ctx.json(Map.of(
-                    "totalPunishments", counts.values().stream().mapToInt(i -> i).sum(),
-                    "totalWarns", counts.getOrDefault("warn", 0),
-                    "totalMutes", counts.getOrDefault("mute", 0),
-                    "totalBans", counts.getOrDefault("ban", 0),
-                    "recentPunishments", recent,
-                    "generatedAt", new java.util.Date()
-            ));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("generatedAt", report.generatedAt());
+            response.put("millis", report.millis());
+            response.put("rows", report.result().rows());
+            response.put("players", report.result().players());
+            response.put("checkpointDays", RecidivismAnalysis.CHECKPOINT_DAYS);
+            response.put("byRuleTier", curves(report.result().byRuleTier()));
+            response.put("byType", curves(report.result().byType()));
+            ctx.json(response);
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error loading punishment stats: " + e.getMessage(), e);
+            logger.log(Level.SEVERE, "Error loading recidivism report: " + e.getMessage(), e);
             ctx.status(500);
-            ctx.json(Map.of("error", "Failed to load stats: " + e.getMessage()));
+            ctx.json(Map.of("error", "Failed to load recidivism report: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Replay the history under the current rules with some rules replaced, e.g. before
+     * {@code /rule edittier}. Body: {@code {"rules": {"spam": [{"type": "mute", "duration": "1h"}]}}};
+     * an empty tier list removes a rule. Nothing is changed. If the simulation is not done within
+     * the request timeout, 202 is returned and repeating the request returns its result.
+     */
+    private void simulateRules(Context ctx) {
+        try {
+            if (!isAuthenticated(ctx)) {
+                ctx.status(401);
+                ctx.json(Map.of("error", "Unauthorized"));
+                return;
+            }
+
+            Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
+            Map<String, PunishmentRule> changes = new HashMap<>();
+            if (!(requestBody.get("rules") instanceof Map<?, ?> rules) || rules.isEmpty()) {
+                ctx.status(400);
+                ctx.json(Map.of("error", "rules must map rule names to lists of tiers"));
+                return;
+            }
+            for (Map.Entry<?, ?> rule : rules.entrySet()) {
+                List<Map<String, String>> tiers = new ArrayList<>();
+                if (!(rule.getValue() instanceof List<?> list)) {
+                    ctx.status(400);
+                    ctx.json(Map.of("error", "Tiers of rule " + rule.getKey() + " must be a list"));
+                    return;
+                }
+                for (Object item : list) {
+                    if (!(item instanceof Map<?, ?> tier) || !(tier.get("type") instanceof String type) ||
+                            !(tier.get("duration") instanceof String duration) || type.isBlank() || duration.isBlank()) {
+                        ctx.status(400);
+                        ctx.json(Map.of("error", "Every tier of rule " + rule.getKey() + " needs a type and a duration"));
+                        return;
+                    }
+                    tiers.add(Map.of("type", type, "duration", duration));
+                }
+                changes.put(String.valueOf(rule.getKey()), new PunishmentRule(String.valueOf(rule.getKey()), tiers));
+            }
+
+            ReportManager.SimulationReport report;
+            try {
+                report = plugin.getReportManager().simulateRules(changes).get(approvalWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                ctx.status(202);
+                ctx.json(Map.of("status", "computing"));
+                return;
+            }
+            if (report == null) {
+                ctx.status(500);
+                ctx.json(Map.of("error", "Failed to simulate rules"));
+                return;
+            }
+
+            List<Map<String, Object>> outcomes = new ArrayList<>();
+            for (RuleSimulation.RuleOutcome outcome : report.result().rules()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("rule", outcome.rule());
+                entry.put("current", tierOutcomes(outcome.current()));
+                entry.put("candidate", tierOutcomes(outcome.candidate()));
+                entry.put("currentApprovals", outcome.currentApprovals());
+                entry.put("candidateApprovals", outcome.candidateApprovals());
+                entry.put("changed", outcome.changed());
+                outcomes.add(entry);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("generatedAt", report.generatedAt());
+            response.put("millis", report.millis());
+            response.put("rows", report.result().rows());
+            response.put("players", report.result().players());
+            response.put("currentApprovals", report.result().currentApprovals());
+            response.put("candidateApprovals", report.result().candidateApprovals());
+            response.put("changed", report.result().changed());
+            response.put("rules", outcomes);
+            ctx.json(response);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error simulating rules: " + e.getMessage(), e);
+            ctx.status(500);
+            ctx.json(Map.of("error", "Failed to simulate rules: " + e.getMessage()));
+        }
+    }
+
+    private static List<Map<String, Object>> tierOutcomes(List<RuleSimulation.TierOutcome> tiers) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (RuleSimulation.TierOutcome tier : tiers) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("tier", tier.tier());
+            entry.put("type", tier.type());
+            entry.put("duration", tier.duration());
+            entry.put("punishments", tier.punishments());
+            entry.put("players", tier.players());
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static List<Map<String, Object>> curves(List<RecidivismAnalysis.Curve> curves) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (RecidivismAnalysis.Curve curve : curves) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            if (curve.rule() != null) {
+                entry.put("rule", curve.rule());
+                entry.put("tier", curve.tier());
+            }
+            entry.put("type", curve.type());
+            if (curve.rule() != null) entry.put("duration", curve.duration());
+            entry.put("punishments", curve.punishments());
+            entry.put("reoffended", curve.reoffended());
+            entry.put("permanent", curve.permanent());
+            entry.put("medianDays", curve.medianDays());
+            entry.put("survival", curve.survival());
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static long parseTime(String value) {
+        if (value.chars().allMatch(Character::isDigit)) return Long.parseLong(value);
+        return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private static long defaultSpan(AnalyticsManager.Interval interval) {
+        return switch (interval) {
+            case HOUR -> 2 * AnalyticsManager.DAY;
+            case DAY -> 30 * AnalyticsManager.DAY;
+            case WEEK -> 26 * AnalyticsManager.WEEK;
+        };
+    }
+
+    // Cache statistics for staff (authenticated)
+    private void getMetrics(Context ctx) {
+        if (!isAuthenticated(ctx)) {
+            ctx.status(401);
+            ctx.json(Map.of("error", "Unauthorized"));
+            return;
+        }
+        ctx.json(Map.of(
+                "responseCache", responseCache.getStats(),
+                "liveFeedClients", liveFeed.getClientCount(),
+                "chatStreamClients", chatHub != null ? chatHub.getClientCount() : 0,
+                "rateLimits", rateLimiter != null ? rateLimiter.getStats() : Map.of(),
+                "loginLockouts", loginThrottle.size(),
+                "requestPools", Map.of(
+                        publicPool.getName(), publicPool.getStats(),
+                        staffPool.getName(), staffPool.getStats(),
+                        loginPool.getName(), loginPool.getStats(),
+                        exportPool.getName(), exportPool.getStats())
+        ));
+    }
+
+    /**
+     * Pre-rendered first pages of every public list and the stats, served from disk under
+     * /snapshots, or null if snapshot mode is off.
+     */
+    private StaticSnapshots createSnapshots() {
+        if (!plugin.getConfig().getBoolean("public-web-panel.snapshots.enabled", false)) return null;
+
+        int pages = Math.max(1, plugin.getConfig().getInt("public-web-panel.snapshots.pages", 5));
+        int pageSize = Math.max(1, plugin.getConfig().getInt("public-web-panel.snapshots.page-size", 20));
+        long debounceMillis = plugin.getConfig().getLong("public-web-panel.snapshots.debounce-seconds", 5) * 1000L;
+        return new StaticSnapshots(new File(plugin.getDataFolder(), "web-snapshots").toPath(),
+                plugin.getDatabaseManager().getPunishmentVersion(), debounceMillis,
+                () -> renderSnapshots(pages, pageSize), liveFeed::snapshotsUpdated, logger);
+    }
+
+    // Same bytes as the list endpoints return without filters, and as /api/punishments/stats
+    private Map<String, byte[]> renderSnapshots(int pages, int pageSize) throws SQLException, IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        Map<String, String> views = new LinkedHashMap<>();
+        views.put("punishments", null);
+        views.put("punishments/warns", "warn");
+        views.put("punishments/mutes", "mute");
+        views.put("punishments/bans", "ban");
+        for (Map.Entry<String, String> view : views.entrySet()) {
+            for (int page = 1; page <= pages; page++) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                writePunishments(buffer, false, view.getValue(), page, pageSize, "date", "desc", null, null);
+                files.put(view.getKey() + "/page-" + page + ".json", buffer.toByteArray());
+            }
         }
+        files.put("punishments/stats.json",
+                jsonMapper.toJsonString(punishmentStats(), Map.class).getBytes(StandardCharsets.UTF_8));
+        return files;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private RateLimiter createRateLimiter() {
+        if (!plugin.getConfig().getBoolean("public-web-panel.rate-limit.enabled", true)) return null;
+
+        RateLimiter limiter = new RateLimiter(
+                plugin.getConfig().getInt("public-web-panel.rate-limit.max-buckets", 10000),
+                trustForwardedFor);
+        addRateLimitBudget(limiter, "read", 60, 300);
+        addRateLimitBudget(limiter, "search", 10, 30);
+        addRateLimitBudget(limiter, "auth", 5, 10);
+        return limiter;
+    }
+
+    private void addRateLimitBudget(RateLimiter limiter, String name, int defaultBurst, int defaultPerMinute) {
+        String path = "public-web-panel.rate-limit." + name + ".";
+        limiter.addBudget(name,
+                plugin.getConfig().getInt(path + "burst", defaultBurst),
+                plugin.getConfig().getInt(path + "rate-limit", defaultPerMinute));
+    }
+
+    // Filtered or re-sorted listings scan the table; plain pages and single rows are cheap
+    private static boolean isSearchQuery(Context ctx) {
+        return !normalizeFilter(ctx.queryParam("player")).isEmpty()
+                || !normalizeFilter(ctx.queryParam("rule")).isEmpty()
+                || !"date".equalsIgnoreCase(ctx.queryParamAsClass("sort", String.class).getOrDefault("date"));
+    }
+
+    // Helper methods for cached JSON responses
+    private static String normalizeFilter(String filter) {
+        return filter == null ? "" : filter.trim();
+    }
+
+    private static byte[] toJsonBytes(Context ctx, Map<String, Object> response) {
+        return ctx.jsonMapper().toJsonString(response, Map.class).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void sendJson(Context ctx, byte[] body) {
+        ctx.contentType("application/json").result(body);
+    }
+
+    // Helper methods for conditional GET
+    private String etag(DataVersion version, Object... qualifiers) {
+        if (sharedDatabaseRevalidateMillis <= 0) return version.etag(qualifiers);
+
+        Object[] withBucket = Arrays.copyOf(qualifiers, qualifiers.length + 1);
+        withBucket[qualifiers.length] = "s" + System.currentTimeMillis() / sharedDatabaseRevalidateMillis;
+        return version.etag(withBucket);
+    }
+
+    private long lastModified(DataVersion version) {
+        if (sharedDatabaseRevalidateMillis <= 0) return version.getLastModified();
+        long now = System.currentTimeMillis();
+        return Math.max(version.getLastModified(), now - now % sharedDatabaseRevalidateMillis);
     }
 
     // Helper methods for authentication
     private boolean isAuthenticated(Context ctx) {
+        return getSession(ctx) != null;
+    }
+
+    /**
+     * Resolve the caller's session, sliding both the server-side expiry and the cookie.
+     * Resolved once per request, so a renewed token is only issued once.
+     */
+    private PanelSession getSession(Context ctx) {
+        Optional<PanelSession> resolved = ctx.attribute(SESSION_ATTRIBUTE);
+        if (resolved != null) return resolved.orElse(null);
+
         String sessionId = getSessionId(ctx);
-        return sessionId != null && sessions.containsKey(sessionId);
+        PanelSession session = sessions.authenticate(sessionId);
+        if (session != null) setSessionCookie(ctx, sessions.refresh(sessionId, session));
+        ctx.attribute(SESSION_ATTRIBUTE, Optional.ofNullable(session));
+        return session;
     }
 
     private String getSessionId(Context ctx) {
         return ctx.cookie("session_id");
     }
 
+    private void setSessionCookie(Context ctx, String sessionId) {
+        ctx.cookie("session_id", sessionId, (int) (sessions.getTtlMillis() / 1000));
+    }
+
+    private PanelAuthenticator createAuthenticator() {
+        long ttlMillis = plugin.getConfig().getLong("public-web-panel.sessions.ttl-minutes", 60) * 60_000L;
+        DatabaseSessionPersistence persistence = new DatabaseSessionPersistence(plugin.getDatabaseManager());
+
+        String mode = plugin.getConfig().getString("public-web-panel.auth.mode", "session");
+        if ("token".equalsIgnoreCase(mode)) {
+            long pollSeconds = plugin.getConfig().getLong("public-web-panel.auth.revocation-poll-seconds", 10);
+            return new PanelTokenService(getTokenSecret(), ttlMillis, pollSeconds, persistence, logger);
+        }
+
+        int maxSessions = plugin.getConfig().getInt("public-web-panel.sessions.max-sessions", 1000);
+        long sweepInterval = plugin.getConfig().getLong("public-web-panel.sessions.sweep-interval-seconds", 60);
+        boolean persist = plugin.getConfig().getBoolean("public-web-panel.sessions.persist", false);
+        return new PanelSessionStore(ttlMillis, maxSessions, sweepInterval, persist ? persistence : null, logger);
+    }
+
+    private byte[] getTokenSecret() {
+        String secret = plugin.getConfig().getString("public-web-panel.auth.token-secret", "");
+        if (secret != null && secret.length() >= 32) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        logger.warning("public-web-panel.auth.token-secret is missing or shorter than 32 characters; " +
+                "using a random secret, so panel logins will not survive a restart or work across servers");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    public LiveFeedBroadcaster getLiveFeed() {
+        return liveFeed;
+    }
+
+    /**
+     * Push a saved staff chat message to every panel with the chat open.
+     */
+    public void publishChatMessage(String staffName, String staffUuid, String message) {
+        if (chatHub != null) chatHub.publish(staffName, staffUuid, message);
+    }
+
+    /**
+     * @return executor for password hashing outside of requests, or null while the panel is not running
+     */
+    public Executor getHashingExecutor() {
+        return loginPool != null ? loginPool::execute : null;
+    }
+
     public void stop() {
+        if (snapshots != null) {
+            snapshots.stop();
+        }
+        if (chatHub != null) {
+            chatHub.shutdown();
+        }
+        liveFeed.shutdown();
         if (app != null) {
             logger.info("Stopping public web panel");
             app.stop();
         }
+        if (rateLimiter != null) {
+            rateLimiter.stop();
+        }
+        if (publicPool != null) {
+            publicPool.shutdown();
+            staffPool.shutdown();
+            loginPool.shutdown();
+            exportPool.shutdown();
+        }
+        if (sessions != null) {
+            sessions.stop();
+        }
     }
 }
\ No newline at end of file
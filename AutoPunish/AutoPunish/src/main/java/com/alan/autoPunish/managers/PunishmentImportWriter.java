@@ -0,0 +1,185 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.PunishmentRecord;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched writer for imported punishments, one per import source.
+ *
+ * Each batch is inserted with one batched statement on a dedicated connection and
+ * committed together with the source's checkpoint, so an interrupted import resumes
+ * right after its last committed batch. Rows whose id already exists are skipped before
+ * inserting, so the inserted rows are known exactly.
+ */
+public class PunishmentImportWriter implements AutoCloseable {
+    private static final String INSERT_SQL = "INSERT INTO punishments (id, player_uuid, player_name, rule, type, " +
+            "duration, staff_name, staff_uuid, date, evidence_link, hidden, approved_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int ID_CHUNK = 500;
+
+    private final DatabaseManager databaseManager;
+    private final Connection connection;
+    private final PreparedStatement insert;
+    private final String sourceKey;
+    private long processed;
+    private long inserted;
+
+    PunishmentImportWriter(DatabaseManager databaseManager, Connection connection, String sourceKey) throws SQLException {
+        this.databaseManager = databaseManager;
+        this.connection = connection;
+        this.sourceKey = sourceKey;
+        connection.setAutoCommit(false);
+        this.insert = connection.prepareStatement(INSERT_SQL);
+    }
+
+    /**
+     * Load this source's checkpoint, or forget it to import from the start again.
+     *
+     * @return position after the last committed row, 0 for a new source
+     */
+    public long start(boolean restart) throws SQLException {
+        if (restart) {
+            try (PreparedStatement st = connection.prepareStatement("DELETE FROM import_checkpoints WHERE source_key = ?")) {
+                st.setString(1, sourceKey);
+                st.executeUpdate();
+            }
+            connection.commit();
+            return 0;
+        }
+
+        long position = 0;
+        try (PreparedStatement st = connection.prepareStatement(
+                "SELECT position, processed, inserted FROM import_checkpoints WHERE source_key = ?")) {
+            st.setString(1, sourceKey);
+            try (ResultSet rs = st.executeQuery()) {
+                if (rs.next()) {
+                    position = rs.getLong("position");
+                    processed = rs.getLong("processed");
+                    inserted = rs.getLong("inserted");
+                }
+            }
+        }
+        connection.commit();
+        return position;
+    }
+
+    /**
+     * Insert a batch and move the checkpoint to {@code newPosition} in one transaction.
+     *
+     * @param read rows read from the source for this batch, including unusable ones
+     * @return rows actually inserted
+     */
+    public int write(List<PunishmentRecord> rows, long newPosition, long read) throws SQLException {
+        int added;
+        // Imports run one at a time and new punishments get random ids, so no row with these
+        // ids can appear between the check and the insert
+        AnalyticsManager analytics = databaseManager.beginPunishmentWrite();
+        try {
+            try {
+                List<PunishmentRecord> fresh = newRows(rows);
+                if (!fresh.isEmpty()) {
+                    for (PunishmentRecord row : fresh) {
+                        insert.setString(1, row.id());
+                        insert.setString(2, row.playerUuid());
+                        insert.setString(3, row.playerName());
+                        insert.setString(4, row.rule());
+                        insert.setString(5, row.type());
+                        insert.setString(6, row.duration());
+                        insert.setString(7, row.staffName());
+                        insert.setString(8, row.staffUuid());
+                        insert.setTimestamp(9, new Timestamp(row.date()));
+                        insert.setString(10, row.evidenceLink());
+                        insert.setBoolean(11, row.hidden());
+                        insert.setString(12, row.approvedBy());
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                added = fresh.size();
+
+                saveCheckpoint(newPosition, processed + read, inserted + added);
+                connection.commit();
+                if (added > 0) databaseManager.punishmentsImported(fresh);
+            } catch (SQLException e) {
+                insert.clearBatch();
+                connection.rollback();
+                throw e;
+            }
+        } finally {
+            databaseManager.endPunishmentWrite(analytics);
+        }
+
+        processed += read;
+        inserted += added;
+        return added;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            insert.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    // The batch without rows already stored or repeated within it
+    private List<PunishmentRecord> newRows(List<PunishmentRecord> rows) throws SQLException {
+        Map<String, PunishmentRecord> byId = new LinkedHashMap<>();
+        for (PunishmentRecord row : rows) byId.putIfAbsent(row.id(), row);
+
+        List<String> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK));
+            String sql = "SELECT id FROM punishments WHERE id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (PreparedStatement st = connection.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) st.setString(i + 1, chunk.get(i));
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) byId.remove(rs.getString("id"));
+                }
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    private void saveCheckpoint(long newPosition, long newProcessed, long newInserted) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE import_checkpoints SET position = ?, processed = ?, inserted = ?, updated_at = ? WHERE source_key = ?")) {
+            update.setLong(1, newPosition);
+            update.setLong(2, newProcessed);
+            update.setLong(3, newInserted);
+            update.setTimestamp(4, now);
+            update.setString(5, sourceKey);
+            if (update.executeUpdate() > 0) return;
+        }
+        try (PreparedStatement create = connection.prepareStatement(
+                "INSERT INTO import_checkpoints (source_key, position, processed, inserted, updated_at) VALUES (?, ?, ?, ?, ?)")) {
+            create.setString(1, sourceKey);
+            create.setLong(2, newPosition);
+            create.setLong(3, newProcessed);
+            create.setLong(4, newInserted);
+            create.setTimestamp(5, now);
+            create.executeUpdate();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.alan.autoPunish.api.events.PrePunishmentEvent;
 import com.alan.autoPunish.api.events.PunishmentAppliedEvent;
 import com.alan.autoPunish.models.Punishment;
 import com.alan.autoPunish.models.PunishmentRule;
+import com.alan.autoPunish.utils.SchedulerUtil;
 import com.alan.autoPunish.utils.TimeUtil;
 import org.bukkit.BanList;
 import org.bukkit.Bukkit;
@@ -13,6 +14,8 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +35,18 @@ public class PunishmentManager {
         this.webhookManager = webhookManager;
     }
 
+    /**
+     * Tier selection without a server, for testing analysis jobs; only the severity and
+     * tier methods may be used.
+     */
+    PunishmentManager(Logger logger) {
+        this.plugin = null;
+        this.logger = logger;
+        this.configManager = null;
+        this.databaseManager = null;
+        this.webhookManager = null;
+    }
+
     /**
      * Main entry: punish a player based on rule
      */
@@ -45,8 +60,8 @@ public class PunishmentManager {
         int totalOffenses = allHistory.size();
         int severityScore = calculateSeverityScore(allHistory);
         int ruleTier = ruleHistory.size() + 1;
-        int severityTier = Math.min(determineGlobalTier(severityScore), rule.getPunishmentTiers().size());
-        int tier = Math.max(ruleTier, severityTier);
+        int severityTier = severityTier(rule, severityScore);
+        int tier = selectTier(rule, ruleHistory.size(), severityScore);
 
         Map<String, String> punishment = rule.getTier(tier);
         if (punishment == null) {
@@ -88,24 +103,49 @@ public class PunishmentManager {
     }
 
     /**
-     * Execute punishment after admin approval
+     * Execute punishment after admin approval. History is loaded and the punishment saved
+     * on async workers; only applying it and firing the event run on the main thread.
+     *
+     * @return completes with true once applied, false if it could not be applied; exceptionally
+     *         only if it was not applied, as failures after applying are logged instead
      */
-    public boolean executeApprovedPunishment(OfflinePlayer target, String rule, String type, String duration,
-                                             String staffName, UUID staffUuid, String adminName) {
-        List<Punishment> ruleHistory = databaseManager.getPunishmentHistoryForRule(target.getUniqueId(), rule);
-        List<Punishment> allHistory = databaseManager.getPunishmentHistory(target.getUniqueId());
-
-        int tier = ruleHistory.size() + 1;
-        int severityScore = calculateSeverityScore(allHistory);
-
-        Punishment record = new Punishment(
-                target.getUniqueId(),
-                target.getName() != null ? target.getName() : "Unknown",
-                rule, type, duration,
-                staffName + " (Approved by " + adminName + ")", staffUuid
-        );
-
-        return applyAndSavePunishment(record, type, duration, rule, tier, ruleHistory, allHistory, severityScore);
+    public CompletableFuture<Boolean> executeApprovedPunishment(UUID targetUuid, String targetName, String rule,
+                                                                String type, String duration, String staffName,
+                                                                UUID staffUuid, String adminName) {
+        Executor mainThread = SchedulerUtil.mainThread(plugin);
+        Executor async = SchedulerUtil.async(plugin);
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<Punishment> ruleHistory = databaseManager.getPunishmentHistoryForRule(targetUuid, rule);
+            List<Punishment> allHistory = databaseManager.getPunishmentHistory(targetUuid);
+            Punishment record = new Punishment(
+                    targetUuid, targetName != null ? targetName : "Unknown",
+                    rule, type, duration, staffName, staffUuid
+            );
+            record.setApprovedBy(adminName);
+            return new ApprovedPunishment(record, ruleHistory.size() + 1, ruleHistory, allHistory,
+                    calculateSeverityScore(allHistory));
+        }, async).thenApplyAsync(approved ->
+                applyPunishment(targetUuid, type, duration, rule) ? approved : null, mainThread
+        ).thenApplyAsync(approved -> {
+            if (approved == null) return null;
+            savePunishment(approved.record());
+            try {
+                publishPunishment(approved.record(), approved.tier(), approved.ruleHistory(),
+                        approved.allHistory(), approved.severityScore());
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to publish approved punishment", e);
+            }
+            return approved;
+        }, async).thenApplyAsync(approved -> {
+            if (approved == null) return false;
+            try {
+                Bukkit.getPluginManager().callEvent(new PunishmentAppliedEvent(approved.record()));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to fire event for approved punishment", e);
+            }
+            return true;
+        }, mainThread);
     }
 
     /**
@@ -116,14 +156,35 @@ public class PunishmentManager {
         long now = System.currentTimeMillis();
 
         for (Punishment p : punishments) {
-            int points = getBasePoints(p.getType(), p.getDuration());
-            long age = (now - p.getDate().getTime()) / (1000 * 60 * 60 * 24);
-            double decay = Math.pow(0.5, age / 30.0);
-            score += Math.max(1, (int) (points * decay));
+            score += severityPoints(p.getType(), p.getDuration(), p.getDate().getTime(), now);
         }
         return score;
     }
 
+    /**
+     * Points one punishment adds to the severity score at {@code now}; they halve every 30 days.
+     */
+    public int severityPoints(String type, String duration, long date, long now) {
+        int points = getBasePoints(type, duration);
+        long age = (now - date) / (1000 * 60 * 60 * 24);
+        double decay = Math.pow(0.5, age / 30.0);
+        return Math.max(1, (int) (points * decay));
+    }
+
+    /**
+     * Offense number {@link #punishPlayer} punishes with: the player's offense number for the
+     * rule, raised to the severity tier. {@link PunishmentRule#getTier} caps it at the last tier.
+     *
+     * @param ruleOffenses earlier visible punishments of the player for this rule
+     */
+    public int selectTier(PunishmentRule rule, int ruleOffenses, int severityScore) {
+        return Math.max(ruleOffenses + 1, severityTier(rule, severityScore));
+    }
+
+    private int severityTier(PunishmentRule rule, int severityScore) {
+        return Math.min(determineGlobalTier(severityScore), rule.getPunishmentTiers().size());
+    }
+
     public int determineGlobalTier(int severityScore) {
         if (severityScore <= 2) return 1;
         if (severityScore <= 5) return 2;
@@ -179,20 +240,36 @@ public class PunishmentManager {
         boolean success = applyPunishment(record.getPlayerUuid(), type, duration, reason);
         if (!success) return false;
 
+        savePunishment(record);
+        Bukkit.getPluginManager().callEvent(new PunishmentAppliedEvent(record));
+        publishPunishment(record, tier, ruleHistory, allHistory, severityScore);
+        return true;
+    }
+
+    private void savePunishment(Punishment record) {
         try {
             databaseManager.savePunishment(record);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Failed to save punishment", e);
         }
+    }
 
-        Bukkit.getPluginManager().callEvent(new PunishmentAppliedEvent(record));
+    /** Live feed and webhook for an applied punishment; safe off the main thread */
+    private void publishPunishment(Punishment record, int tier, List<Punishment> ruleHistory,
+                                   List<Punishment> allHistory, int severityScore) {
+        if (plugin.getPublicWebPanelManager() != null) {
+            plugin.getPublicWebPanelManager().getLiveFeed().punishmentApplied(record);
+        }
 
         try {
             webhookManager.sendPunishmentWebhook(record, tier, ruleHistory, allHistory, severityScore);
         } catch (Exception e) {
             logger.log(Level.WARNING, "Failed to send punishment webhook", e);
         }
-        return true;
+    }
+
+    private record ApprovedPunishment(Punishment record, int tier, List<Punishment> ruleHistory,
+                                      List<Punishment> allHistory, int severityScore) {
     }
 
     private int getBasePoints(String type, String duration) {
@@ -1,8 +1,10 @@
 package com.alan.autoPunish.managers;
 
 import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.models.Punishment;
 import com.alan.autoPunish.models.QueuedPunishment;
 import com.alan.autoPunish.utils.ConfigUtils;
+import com.alan.autoPunish.utils.SchedulerUtil;
 import com.alan.autoPunish.utils.TimeUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
@@ -10,6 +12,8 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,10 +27,31 @@ public class PunishmentQueueManager {
     private final AutoPunish plugin;
     private final Logger logger;
     private final Map<String, QueuedPunishment> queuedPunishments = new HashMap<>();
+    private final ApprovalSteps steps;
+    private final Executor mainThread;
+    private final Executor async;
+
+    /** Outcome of {@link #processApproval} */
+    public enum ApprovalResult { APPROVED, DENIED, NOT_FOUND, FAILED }
 
     public PunishmentQueueManager(AutoPunish plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
+        this.steps = new ServerApprovalSteps();
+        this.mainThread = SchedulerUtil.mainThread(plugin);
+        this.async = SchedulerUtil.async(plugin);
+    }
+
+    /**
+     * Queue without a server, for testing the approval pipeline; only {@link #processApproval}
+     * and the queue accessors may be used.
+     */
+    PunishmentQueueManager(Logger logger, ApprovalSteps steps, Executor mainThread, Executor async) {
+        this.plugin = null;
+        this.logger = logger;
+        this.steps = steps;
+        this.mainThread = mainThread;
+        this.async = async;
     }
 
     /** Load queued punishments from the database on startup */
@@ -51,8 +76,13 @@ public class PunishmentQueueManager {
 
     /** Check if punishment requires approval */
     public boolean needsApproval(String type, String duration, CommandSender sender) {
-        if (!ConfigUtils.isApprovalSystemEnabled()) return false;
         if (canBypassApproval(sender)) return false;
+        return requiresApproval(type, duration);
+    }
+
+    /** Check if punishment requires approval when issued by staff who cannot bypass it */
+    public boolean requiresApproval(String type, String duration) {
+        if (!ConfigUtils.isApprovalSystemEnabled()) return false;
 
         if (type.equalsIgnoreCase("ban")) {
             if (duration.equals("0")) return true; // permanent ban
@@ -74,19 +104,16 @@ public class PunishmentQueueManager {
     }
 
     /** Auto-approve punishment if staff rank allows it */
-    public boolean processAutoApproved(OfflinePlayer target, String rule, String type, String duration,
-                                       CommandSender sender, int severityScore) {
+    public CompletableFuture<Boolean> processAutoApproved(OfflinePlayer target, String rule, String type, String duration,
+                                                          CommandSender sender, int severityScore) {
         String staffName = sender.getName();
         UUID staffUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : new UUID(0, 0);
 
-        final boolean[] result = new boolean[1];
-        runSync(() -> {
-            result[0] = plugin.getPunishmentManager().executeApprovedPunishment(
-                    target, rule, type, duration, staffName, staffUuid,
-                    staffName + " (Auto-approved by rank)"
-            );
-
-            if (result[0]) {
+        return plugin.getPunishmentManager().executeApprovedPunishment(
+                target.getUniqueId(), target.getName(), rule, type, duration, staffName, staffUuid,
+                Punishment.AUTO_APPROVED
+        ).thenApplyAsync(success -> {
+            if (success) {
                 if (sender instanceof Player) {
                     sender.sendMessage("§aYour punishment was auto-approved due to your staff rank.");
                 }
@@ -98,8 +125,11 @@ public class PunishmentQueueManager {
                 logger.info("Auto-approved punishment executed: " + type + " " + duration +
                         " for player " + target.getName() + " by " + staffName);
             }
+            return success;
+        }, SchedulerUtil.mainThread(plugin)).exceptionally(e -> {
+            logger.log(Level.SEVERE, "Failed to execute auto-approved punishment", e);
+            return false;
         });
-        return result[0];
     }
 
     /** Queue punishment for approval */
@@ -119,11 +149,13 @@ public class PunishmentQueueManager {
                 rule, type, duration, staffName, staffUuid
         );
 
-        synchronized(queuedPunishments) {
-            queuedPunishments.put(queuedPunishment.getApprovalId(), queuedPunishment);
-        }
+        enqueue(queuedPunishment);
         plugin.getDatabaseManager().saveQueuedPunishment(queuedPunishment);
 
+        if (plugin.getPublicWebPanelManager() != null) {
+            plugin.getPublicWebPanelManager().getLiveFeed().punishmentQueued(queuedPunishment);
+        }
+
         // Async webhook
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
@@ -149,69 +181,142 @@ public class PunishmentQueueManager {
     }
 
     /** Process approval or denial */
-    public boolean processApproval(String approvalId, boolean approved, CommandSender admin) {
+    public CompletableFuture<ApprovalResult> processApproval(String approvalId, boolean approved, CommandSender admin) {
+        return processApproval(approvalId, approved, admin, admin.getName());
+    }
+
+    /**
+     * Process approval or denial. The entry is claimed immediately, so concurrent requests
+     * for the same ID cannot both execute it. It is put back only if the punishment could not
+     * be applied; once applied, a failure in a later step never makes it approvable again.
+     *
+     * @param adminName name recorded and announced as the approver or denier, e.g. a web panel user
+     * @return completes once the punishment was applied or denied and announced
+     */
+    public CompletableFuture<ApprovalResult> processApproval(String approvalId, boolean approved,
+                                                             CommandSender admin, String adminName) {
         QueuedPunishment queued;
         synchronized(queuedPunishments) {
-            queued = queuedPunishments.get(approvalId);
+            queued = queuedPunishments.remove(approvalId);
         }
 
         if (queued == null) {
             if (admin instanceof Player) {
                 runSync(() -> admin.sendMessage("§cNo pending punishment found with ID: " + approvalId));
             }
-            return false;
+            return CompletableFuture.completedFuture(ApprovalResult.NOT_FOUND);
         }
 
-        if (approved) {
-            final boolean[] success = new boolean[1];
-            runSync(() -> {
-                OfflinePlayer target = Bukkit.getOfflinePlayer(queued.getPlayerUuid());
-                success[0] = plugin.getPunishmentManager().executeApprovedPunishment(
-                        target, queued.getRule(), queued.getType(), queued.getDuration(),
-                        queued.getStaffName(), queued.getStaffUuid(), admin.getName()
-                );
-
-                if (success[0]) {
-                    if (admin instanceof Player) admin.sendMessage("§aPunishment approved and executed.");
-                    notifyAdmins("§6[AutoPunish] §aPunishment for §f" + queued.getPlayerName() +
-                            " §aapproved by §f" + admin.getName());
-                    Bukkit.getPluginManager().callEvent(new PunishmentApprovedEvent(queued, admin));
-                } else {
-                    if (admin instanceof Player) admin.sendMessage("§cFailed to execute punishment.");
-                }
-            });
-            if (!success[0]) return false;
-        } else {
-            runSync(() -> {
-                Player staffMember = Bukkit.getPlayer(queued.getStaffUuid());
-                if (staffMember != null) {
-                    staffMember.sendMessage("§cYour punishment request for " + queued.getPlayerName() +
-                            " was denied by " + admin.getName());
-                }
-                notifyAdmins("§6[AutoPunish] §cPunishment for §f" + queued.getPlayerName() +
-                        " §cdenied by §f" + admin.getName());
-
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                    try {
-                        plugin.getWebhookManager().sendDeniedPunishmentWebhook(queued, admin.getName());
-                    } catch (Exception e) {
-                        logger.log(Level.WARNING, "Failed to send webhook for denied punishment", e);
-                    }
-                });
-
-                Bukkit.getPluginManager().callEvent(new PunishmentDeniedEvent(queued, admin));
-                if (admin instanceof Player) admin.sendMessage("§cPunishment denied.");
-            });
+        // Completes with false rather than exceptionally, so only this stage decides about putting it back
+        CompletableFuture<Boolean> applied = approved
+                ? steps.apply(queued, adminName).exceptionally(e -> {
+                    logger.log(Level.SEVERE, "Failed to apply queued punishment " + approvalId, e);
+                    return false;
+                })
+                : CompletableFuture.completedFuture(true);
+        ApprovalResult decided = approved ? ApprovalResult.APPROVED : ApprovalResult.DENIED;
+
+        return applied.thenApplyAsync(success -> {
+            if (!success) {
+                restore(queued);
+                if (admin instanceof Player) admin.sendMessage("§cFailed to execute punishment.");
+                return ApprovalResult.FAILED;
+            }
+            try {
+                steps.announce(queued, approved, admin, adminName);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to announce queued punishment " + approvalId, e);
+            }
+            return decided;
+        }, mainThread).thenApplyAsync(result -> {
+            if (result != ApprovalResult.FAILED) steps.complete(queued, approved, adminName);
+            return result;
+        }, async).exceptionally(e -> {
+            logger.log(Level.SEVERE, "Failed to process queued punishment " + approvalId, e);
+            if (applied.join()) return decided;
+            restore(queued);
+            return ApprovalResult.FAILED;
+        });
+    }
+
+    /** Add an entry awaiting approval */
+    void enqueue(QueuedPunishment queued) {
+        synchronized(queuedPunishments) {
+            queuedPunishments.put(queued.getApprovalId(), queued);
         }
+    }
 
-        runSync(() -> {
-            synchronized(queuedPunishments) {
-                queuedPunishments.remove(approvalId);
+    /** Put a claimed entry back after it could not be processed */
+    private void restore(QueuedPunishment queued) {
+        synchronized(queuedPunishments) {
+            queuedPunishments.putIfAbsent(queued.getApprovalId(), queued);
+        }
+    }
+
+    /**
+     * Steps of resolving a queued punishment that touch the server, so the pipeline in
+     * {@link #processApproval} can be tested without one.
+     */
+    interface ApprovalSteps {
+        /**
+         * @return completes with whether the punishment was applied; exceptionally only if it was not
+         */
+        CompletableFuture<Boolean> apply(QueuedPunishment queued, String adminName);
+
+        /** Tell staff about the decision; runs on the main thread */
+        void announce(QueuedPunishment queued, boolean approved, CommandSender admin, String adminName);
+
+        /** Remove the queue row and send follow-ups; runs async */
+        void complete(QueuedPunishment queued, boolean approved, String adminName);
+    }
+
+    private class ServerApprovalSteps implements ApprovalSteps {
+        @Override
+        public CompletableFuture<Boolean> apply(QueuedPunishment queued, String adminName) {
+            return plugin.getPunishmentManager().executeApprovedPunishment(
+                    queued.getPlayerUuid(), queued.getPlayerName(), queued.getRule(), queued.getType(),
+                    queued.getDuration(), queued.getStaffName(), queued.getStaffUuid(), adminName);
+        }
+
+        @Override
+        public void announce(QueuedPunishment queued, boolean approved, CommandSender admin, String adminName) {
+            if (approved) {
+                if (admin instanceof Player) admin.sendMessage("§aPunishment approved and executed.");
+                notifyAdmins("§6[AutoPunish] §aPunishment for §f" + queued.getPlayerName() +
+                        " §aapproved by §f" + adminName);
+                Bukkit.getPluginManager().callEvent(new PunishmentApprovedEvent(queued, admin));
+                return;
             }
-            plugin.getDatabaseManager().removeQueuedPunishment(approvalId);
-            logger.info("Removed queued punishment ID: " + approvalId);
-        });
-        return true;
+
+            Player staffMember = Bukkit.getPlayer(queued.getStaffUuid());
+            if (staffMember != null) {
+                staffMember.sendMessage("§cYour punishment request for " + queued.getPlayerName() +
+                        " was denied by " + adminName);
+            }
+            notifyAdmins("§6[AutoPunish] §cPunishment for §f" + queued.getPlayerName() +
+                    " §cdenied by §f" + adminName);
+            Bukkit.getPluginManager().callEvent(new PunishmentDeniedEvent(queued, admin));
+            if (admin instanceof Player) admin.sendMessage("§cPunishment denied.");
+        }
+
+        @Override
+        public void complete(QueuedPunishment queued, boolean approved, String adminName) {
+            plugin.getDatabaseManager().removeQueuedPunishment(queued.getApprovalId());
+            logger.info("Removed queued punishment ID: " + queued.getApprovalId());
+            if (plugin.getPublicWebPanelManager() != null) {
+                plugin.getPublicWebPanelManager().getLiveFeed().approvalResolved(queued, approved, adminName);
+            }
+            if (!approved) {
+                if (plugin.getAnalyticsManager() != null) {
+                    plugin.getAnalyticsManager().recordDenial(adminName, System.currentTimeMillis());
+                }
+                try {
+                    plugin.getWebhookManager().sendDeniedPunishmentWebhook(queued, adminName);
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Failed to send webhook for denied punishment", e);
+                }
+            }
+        }
     }
 
     /** Get all queued punishments */
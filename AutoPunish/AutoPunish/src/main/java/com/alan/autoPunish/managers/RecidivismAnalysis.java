@@ -0,0 +1,208 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.PunishmentRule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Time to reoffend after each punishment, as survival curves per rule and tier and per
+ * punishment type, computed over a {@link HistorySnapshot} with fork-join tasks split by player.
+ *
+ * A punishment's tier is the one {@link PunishmentManager#punishPlayer} would pick under the
+ * current rules, given the player's history at that time. The clock starts when the sentence
+ * ends, and reoffending is the player's next punishment for any rule. Punishments not followed
+ * by another are censored at the report time; permanent bans are left out of the curves then.
+ */
+public final class RecidivismAnalysis {
+    /** Days at which curves report the share of punishments not followed by another */
+    public static final int[] CHECKPOINT_DAYS = {1, 7, 30, 90, 180, 365};
+    private static final int HORIZON_DAYS = 365;
+    // Offense numbers of rules that are no longer configured are grouped from here on
+    private static final int MAX_TIER = 10;
+
+    /**
+     * @param tier 0 for curves per type
+     * @param type configured type of the tier, or the punishment type for curves per type
+     * @param duration configured duration of the tier, null for curves per type
+     * @param permanent permanent bans never followed by another punishment, not in the curve
+     * @param medianDays days until half of the punishments were followed by another, -1 if never
+     * @param survival share not followed by another within each of {@link #CHECKPOINT_DAYS}
+     */
+    public record Curve(String rule, int tier, String type, String duration, long punishments, long reoffended,
+                        long permanent, int medianDays, double[] survival) {}
+
+    public record Result(long rows, int players, List<Curve> byRuleTier, List<Curve> byType) {}
+
+    private final HistorySnapshot history;
+    private final PunishmentManager punishmentManager;
+    private final PunishmentRule[] rules;
+    private final long now;
+    private final int threshold;
+
+    /**
+     * @param rules current rule configuration by name; it is only read
+     */
+    RecidivismAnalysis(HistorySnapshot history, Map<String, PunishmentRule> rules,
+                       PunishmentManager punishmentManager, long now, int parallelism) {
+        this.history = history;
+        this.punishmentManager = punishmentManager;
+        this.now = now;
+        this.rules = new PunishmentRule[history.ruleCount()];
+        for (int rule = 0; rule < this.rules.length; rule++) {
+            PunishmentRule config = rules.get(history.ruleName(rule));
+            if (config != null && !config.getPunishmentTiers().isEmpty()) this.rules[rule] = config;
+        }
+        // A few tasks per thread even out players with long histories
+        this.threshold = Math.max(256, history.players() / Math.max(1, parallelism * 8));
+    }
+
+    Result run(ForkJoinPool pool) {
+        Tally tally = pool.invoke(new Scan(0, history.players()));
+
+        List<Curve> byRuleTier = new ArrayList<>();
+        tally.byRuleTier.forEach((key, counts) -> {
+            int rule = (int) (key >>> 16);
+            int tier = (int) (key & 0xFFFF);
+            Map<String, String> configured = rules[rule] != null ? rules[rule].getTier(tier) : null;
+            byRuleTier.add(curve(history.ruleName(rule), tier, configured != null ? configured.get("type") : null,
+                    configured != null ? configured.get("duration") : null, counts));
+        });
+        byRuleTier.sort(Comparator.comparing(Curve::rule).thenComparingInt(Curve::tier));
+
+        List<Curve> byType = new ArrayList<>();
+        tally.byType.forEach((type, counts) -> byType.add(curve(null, 0, history.typeName(type), null, counts)));
+        byType.sort(Comparator.comparingLong(Curve::punishments).reversed());
+
+        return new Result(history.rows(), history.players(), byRuleTier, byType);
+    }
+
+    // Kaplan-Meier estimate over daily buckets
+    private static Curve curve(String rule, int tier, String type, String duration, Counts counts) {
+        long atRisk = 0;
+        for (int day = 0; day <= HORIZON_DAYS; day++) atRisk += counts.events[day] + counts.censored[day];
+
+        double[] survival = new double[CHECKPOINT_DAYS.length];
+        int checkpoint = 0;
+        int median = -1;
+        double share = 1;
+        for (int day = 0; day < HORIZON_DAYS; day++) {
+            if (atRisk > 0) share *= 1 - (double) counts.events[day] / atRisk;
+            atRisk -= counts.events[day] + counts.censored[day];
+            if (median < 0 && share <= 0.5) median = day + 1;
+            while (checkpoint < CHECKPOINT_DAYS.length && CHECKPOINT_DAYS[checkpoint] == day + 1) {
+                survival[checkpoint++] = share;
+            }
+        }
+        return new Curve(rule, tier, type, duration, counts.punishments, counts.reoffended, counts.permanent,
+                median, survival);
+    }
+
+    private static final class Counts {
+        long punishments;
+        long reoffended;
+        long permanent;
+        // Punishments followed by another, or observed without one, after this many whole days
+        final long[] events = new long[HORIZON_DAYS + 1];
+        final long[] censored = new long[HORIZON_DAYS + 1];
+
+        void add(Counts other) {
+            punishments += other.punishments;
+            reoffended += other.reoffended;
+            permanent += other.permanent;
+            for (int day = 0; day <= HORIZON_DAYS; day++) {
+                events[day] += other.events[day];
+                censored[day] += other.censored[day];
+            }
+        }
+    }
+
+    private static final class Tally {
+        // Keyed by rule id << 16 | tier
+        final Map<Long, Counts> byRuleTier = new HashMap<>();
+        final Map<Integer, Counts> byType = new HashMap<>();
+
+        Tally merge(Tally other) {
+            other.byRuleTier.forEach((key, counts) -> byRuleTier.merge(key, counts, (a, b) -> { a.add(b); return a; }));
+            other.byType.forEach((key, counts) -> byType.merge(key, counts, (a, b) -> { a.add(b); return a; }));
+            return this;
+        }
+    }
+
+    private final class Scan extends RecursiveTask<Tally> {
+        private final int from;
+        private final int to;
+
+        Scan(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                Scan left = new Scan(from, middle);
+                left.fork();
+                Tally right = new Scan(middle, to).compute();
+                return left.join().merge(right);
+            }
+
+            Tally tally = new Tally();
+            int[] offenses = new int[history.ruleCount()];
+            for (int player = from; player < to; player++) {
+                int start = history.start(player);
+                int end = history.end(player);
+                for (int row = start; row < end; row++) {
+                    int rule = history.rule(row);
+                    int tier = tier(start, row, offenses[rule]++);
+                    observe(tally.byRuleTier.computeIfAbsent((long) rule << 16 | tier, key -> new Counts()), row, end);
+                    observe(tally.byType.computeIfAbsent(history.type(row), key -> new Counts()), row, end);
+                }
+                for (int row = start; row < end; row++) offenses[history.rule(row)] = 0;
+            }
+            return tally;
+        }
+
+        // The tier punishPlayer would pick for this row, capped at the rule's last tier
+        private int tier(int start, int row, int ruleOffenses) {
+            PunishmentRule rule = rules[history.rule(row)];
+            if (rule == null) return Math.min(ruleOffenses + 1, MAX_TIER);
+
+            // Newest first; the severity tier cannot rise past the last tier, so stop there
+            int tiers = rule.getPunishmentTiers().size();
+            int score = 0;
+            for (int earlier = row - 1; earlier >= start; earlier--) {
+                if (punishmentManager.determineGlobalTier(score) >= tiers) break;
+                score += punishmentManager.severityPoints(history.typeOf(earlier), history.duration(earlier),
+                        history.date(earlier), history.date(row));
+            }
+            return Math.min(punishmentManager.selectTier(rule, ruleOffenses, score), tiers);
+        }
+
+        private void observe(Counts counts, int row, int end) {
+            counts.punishments++;
+            String type = history.typeOf(row);
+            long sentence = type.equals("mute") || type.equals("ban") ? history.durationMillis(row) : 0;
+            long release = history.date(row) + sentence;
+
+            if (row + 1 < end) {
+                counts.reoffended++;
+                counts.events[days(history.date(row + 1) - release)]++;
+            } else if (type.equals("ban") && sentence == 0) {
+                counts.permanent++;
+            } else if (release <= now) {
+                counts.censored[days(now - release)]++;
+            }
+        }
+    }
+
+    private static int days(long millis) {
+        return (int) Math.min(HORIZON_DAYS, Math.max(0, millis / AnalyticsManager.DAY));
+    }
+}
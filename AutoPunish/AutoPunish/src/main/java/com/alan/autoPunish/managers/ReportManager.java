@@ -0,0 +1,201 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.AutoPunish;
+import com.alan.autoPunish.models.PunishmentRule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Analysis jobs over the whole punishment history: the recidivism report and rule simulations.
+ *
+ * Jobs share one {@link HistorySnapshot} of the visible history, read again only after
+ * punishments changed, and split the work by player across a fork-join pool of their own,
+ * so reports never hold a database connection or block the web request pools while they compute.
+ */
+public class ReportManager {
+    private final AutoPunish plugin;
+    private final Logger logger;
+    private final DatabaseManager databaseManager;
+    private final int parallelism;
+    private final int fetchSize;
+    private final long cacheMillis;
+    private final ForkJoinPool pool;
+
+    // Guarded by this
+    private RecidivismReport recidivism;
+    private CompletableFuture<RecidivismReport> recidivismRun;
+    private CompletableFuture<SimulationReport> simulation;
+    private String simulationKey;
+
+    // Guarded by historyLock
+    private final Object historyLock = new Object();
+    private HistorySnapshot history;
+    private long historyVersion = -1;
+
+    /**
+     * @param generatedAt report time; punishments are followed up to here
+     * @param millis time taken to compute the report
+     */
+    public record RecidivismReport(long generatedAt, long millis, RecidivismAnalysis.Result result) {}
+
+    /**
+     * @param millis time taken to run the simulation
+     */
+    public record SimulationReport(long generatedAt, long millis, RuleSimulation.Result result) {}
+
+    public ReportManager(AutoPunish plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.databaseManager = databaseManager;
+        int configured = plugin.getConfig().getInt("reports.parallelism", 0);
+        this.parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        this.fetchSize = Math.max(100, plugin.getConfig().getInt("reports.fetch-size", 5000));
+        this.cacheMillis = TimeUnit.MINUTES.toMillis(Math.max(1, plugin.getConfig().getLong("reports.cache-minutes", 60)));
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("AutoPunish-reports-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Stop running jobs; their futures complete exceptionally.
+     */
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * The recidivism report, computed again if it is older than the configured cache time or
+     * {@code refresh} is set. Concurrent callers share one computation.
+     *
+     * @return completes with the report, or with null if the history could not be read
+     */
+    public synchronized CompletableFuture<RecidivismReport> getRecidivismReport(boolean refresh) {
+        if (!refresh && recidivism != null && System.currentTimeMillis() - recidivism.generatedAt() < cacheMillis) {
+            return CompletableFuture.completedFuture(recidivism);
+        }
+        if (recidivismRun == null) {
+            recidivismRun = CompletableFuture.supplyAsync(this::computeRecidivism, pool).whenComplete((report, error) -> {
+                synchronized (this) {
+                    recidivismRun = null;
+                    if (report != null) recidivism = report;
+                }
+            });
+        }
+        return recidivismRun;
+    }
+
+    /**
+     * @return the last recidivism report, however old, or null if none was computed yet
+     */
+    public synchronized RecidivismReport getCachedRecidivismReport() {
+        return recidivism;
+    }
+
+    /**
+     * Replay the history under the current rules with some rules replaced, without changing
+     * anything. The last simulation is kept while punishments and rules are unchanged, so
+     * repeating a request that timed out picks up its result instead of starting again.
+     *
+     * @param changes rules to replace by name; a rule without tiers is removed, a new name is added
+     * @return completes with the outcome, or with null if the history could not be read
+     */
+    public synchronized CompletableFuture<SimulationReport> simulateRules(Map<String, PunishmentRule> changes) {
+        String key = databaseManager.getPunishmentVersion().get() + "|" + tiers(copyRules()) + "|" + tiers(changes);
+        if (simulation != null && key.equals(simulationKey)) return simulation;
+
+        CompletableFuture<SimulationReport> run = CompletableFuture.supplyAsync(() -> computeSimulation(changes), pool);
+        simulation = run;
+        simulationKey = key;
+        run.whenComplete((report, error) -> {
+            synchronized (this) {
+                if (report == null && simulation == run) simulation = null;
+            }
+        });
+        return run;
+    }
+
+    private static String tiers(Map<String, PunishmentRule> rules) {
+        Map<String, Object> tiers = new TreeMap<>();
+        rules.forEach((name, rule) -> tiers.put(name, rule.getPunishmentTiers()));
+        return tiers.toString();
+    }
+
+    private SimulationReport computeSimulation(Map<String, PunishmentRule> changes) {
+        long started = System.currentTimeMillis();
+        Map<String, PunishmentRule> current = copyRules();
+        Map<String, PunishmentRule> candidate = new HashMap<>(current);
+        changes.forEach((name, rule) -> {
+            if (rule.getPunishmentTiers().isEmpty()) {
+                candidate.remove(name);
+            } else {
+                candidate.put(name, new PunishmentRule(name, new ArrayList<>(rule.getPunishmentTiers())));
+            }
+        });
+        HistorySnapshot history = history();
+        if (history == null) return null;
+
+        try {
+            RuleSimulation.Result result = new RuleSimulation(history, current, candidate, plugin.getPunishmentManager(),
+                    plugin.getPunishmentQueueManager(), parallelism).run(pool);
+            long millis = System.currentTimeMillis() - started;
+            logger.info("Rule simulation replayed " + history.rows() + " punishments of " +
+                    history.players() + " players in " + millis + " ms");
+            return new SimulationReport(started, millis, result);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to simulate rules: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private RecidivismReport computeRecidivism() {
+        long started = System.currentTimeMillis();
+        Map<String, PunishmentRule> rules = copyRules();
+        HistorySnapshot history = history();
+        if (history == null) return null;
+
+        try {
+            RecidivismAnalysis.Result result = new RecidivismAnalysis(history, rules, plugin.getPunishmentManager(),
+                    started, parallelism).run(pool);
+            long millis = System.currentTimeMillis() - started;
+            logger.info("Recidivism report computed from " + history.rows() + " punishments of " +
+                    history.players() + " players in " + millis + " ms");
+            return new RecidivismReport(started, millis, result);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to compute recidivism report: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // The version is read before loading, so a write during the load only causes another one
+    private HistorySnapshot history() {
+        synchronized (historyLock) {
+            long version = databaseManager.getPunishmentVersion().get();
+            if (history == null || version != historyVersion) {
+                HistorySnapshot loaded = HistorySnapshot.load(databaseManager, fetchSize);
+                if (loaded == null) return null;
+                history = loaded;
+                historyVersion = version;
+            }
+            return history;
+        }
+    }
+
+    // Rules can be edited in game while a job runs, so jobs work on a copy
+    private Map<String, PunishmentRule> copyRules() {
+        Map<String, PunishmentRule> rules = new HashMap<>();
+        plugin.getConfigManager().getRules().forEach((name, rule) ->
+                rules.put(name, new PunishmentRule(name, new ArrayList<>(rule.getPunishmentTiers()))));
+        return rules;
+    }
+}
@@ -0,0 +1,237 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.PunishmentRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * What the punishment history would have looked like under a candidate rule set, next to a
+ * replay under the current rules, computed over a {@link HistorySnapshot} with fork-join tasks
+ * split by player.
+ *
+ * Every recorded punishment counts as one offense. Each player's offenses are decided again in
+ * order with the {@link PunishmentManager#punishPlayer} tier selection, and the replayed
+ * punishments, not the recorded ones, feed the severity score of later offenses. Punishments for
+ * rules a set does not configure keep their recorded type and duration. Approvals are the
+ * punishments that would be queued if issued by staff who cannot bypass approval.
+ */
+public final class RuleSimulation {
+    private static final int CURRENT = 0;
+    private static final int CANDIDATE = 1;
+
+    /**
+     * @param players players punished at this tier at least once
+     */
+    public record TierOutcome(int tier, String type, String duration, long punishments, long players) {}
+
+    /**
+     * @param current tiers under the current rules, empty if the rule is not configured
+     * @param candidate tiers under the candidate rules, empty if the rule is removed
+     * @param changed punishments that would get another type or duration under the candidate rules
+     */
+    public record RuleOutcome(String rule, List<TierOutcome> current, List<TierOutcome> candidate,
+                              long currentApprovals, long candidateApprovals, long changed) {}
+
+    public record Result(long rows, int players, List<RuleOutcome> rules, long currentApprovals,
+                         long candidateApprovals, long changed) {}
+
+    private final HistorySnapshot history;
+    private final PunishmentManager punishmentManager;
+    private final List<Map<String, PunishmentRule>> ruleSets;
+    // By set and rule id; null where the set does not configure the rule
+    private final PunishmentRule[][] rules = new PunishmentRule[2][];
+    // Counters of all tiers of a set are laid out one rule after the other
+    private final int[][] firstSlot = new int[2][];
+    private final int[] slots = new int[2];
+    private final boolean[][] approval = new boolean[2][];
+    private final int threshold;
+
+    /**
+     * @param current current rule configuration by name; it is only read
+     * @param candidate rule configuration to compare with; it is only read
+     */
+    RuleSimulation(HistorySnapshot history, Map<String, PunishmentRule> current, Map<String, PunishmentRule> candidate,
+                   PunishmentManager punishmentManager, PunishmentQueueManager queueManager, int parallelism) {
+        this.history = history;
+        this.punishmentManager = punishmentManager;
+        this.ruleSets = List.of(current, candidate);
+        for (int set = CURRENT; set <= CANDIDATE; set++) {
+            rules[set] = new PunishmentRule[history.ruleCount()];
+            firstSlot[set] = new int[history.ruleCount()];
+            List<Boolean> approvals = new ArrayList<>();
+            for (int rule = 0; rule < history.ruleCount(); rule++) {
+                PunishmentRule config = ruleSets.get(set).get(history.ruleName(rule));
+                if (config == null || config.getPunishmentTiers().isEmpty()) continue;
+                rules[set][rule] = config;
+                firstSlot[set][rule] = slots[set];
+                for (Map<String, String> tier : config.getPunishmentTiers()) {
+                    approvals.add(queueManager.requiresApproval(tier.get("type"), tier.get("duration")));
+                }
+                slots[set] += config.getPunishmentTiers().size();
+            }
+            approval[set] = new boolean[slots[set]];
+            for (int slot = 0; slot < slots[set]; slot++) approval[set][slot] = approvals.get(slot);
+        }
+        // A few tasks per thread even out players with long histories
+        this.threshold = Math.max(256, history.players() / Math.max(1, parallelism * 8));
+    }
+
+    Result run(ForkJoinPool pool) {
+        Tally tally = pool.invoke(new Scan(0, history.players()));
+
+        // Every rule configured in either set, including those nobody was punished for yet
+        TreeSet<String> names = new TreeSet<>();
+        for (Map<String, PunishmentRule> ruleSet : ruleSets) {
+            ruleSet.forEach((name, rule) -> {
+                if (!rule.getPunishmentTiers().isEmpty()) names.add(name);
+            });
+        }
+
+        List<RuleOutcome> outcomes = new ArrayList<>();
+        for (String name : names) {
+            int rule = history.ruleId(name);
+            outcomes.add(new RuleOutcome(name, tiers(CURRENT, name, rule, tally), tiers(CANDIDATE, name, rule, tally),
+                    rule >= 0 ? tally.approvals[CURRENT][rule] : 0,
+                    rule >= 0 ? tally.approvals[CANDIDATE][rule] : 0,
+                    rule >= 0 ? tally.changed[rule] : 0));
+        }
+        return new Result(history.rows(), history.players(), outcomes, sum(tally.approvals[CURRENT]),
+                sum(tally.approvals[CANDIDATE]), sum(tally.changed));
+    }
+
+    private List<TierOutcome> tiers(int set, String name, int rule, Tally tally) {
+        List<TierOutcome> tiers = new ArrayList<>();
+        PunishmentRule config = ruleSets.get(set).get(name);
+        if (config == null) return tiers;
+        for (int tier = 1; tier <= config.getPunishmentTiers().size(); tier++) {
+            Map<String, String> configured = config.getTier(tier);
+            int slot = rule >= 0 && rules[set][rule] != null ? firstSlot[set][rule] + tier - 1 : -1;
+            tiers.add(new TierOutcome(tier, configured.get("type"), configured.get("duration"),
+                    slot >= 0 ? tally.punishments[set][slot] : 0, slot >= 0 ? tally.players[set][slot] : 0));
+        }
+        return tiers;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+        return total;
+    }
+
+    private final class Tally {
+        final long[][] punishments = {new long[slots[CURRENT]], new long[slots[CANDIDATE]]};
+        final long[][] players = {new long[slots[CURRENT]], new long[slots[CANDIDATE]]};
+        final long[][] approvals = {new long[history.ruleCount()], new long[history.ruleCount()]};
+        final long[] changed = new long[history.ruleCount()];
+
+        Tally merge(Tally other) {
+            for (int set = CURRENT; set <= CANDIDATE; set++) {
+                add(punishments[set], other.punishments[set]);
+                add(players[set], other.players[set]);
+                add(approvals[set], other.approvals[set]);
+            }
+            add(changed, other.changed);
+            return this;
+        }
+
+        private void add(long[] counts, long[] other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other[i];
+        }
+    }
+
+    private final class Scan extends RecursiveTask<Tally> {
+        private final int from;
+        private final int to;
+        // Replayed punishments of the current player, by set and row within the player
+        private String[][] types = new String[2][16];
+        private String[][] durations = new String[2][16];
+
+        Scan(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                Scan left = new Scan(from, middle);
+                left.fork();
+                Tally right = new Scan(middle, to).compute();
+                return left.join().merge(right);
+            }
+
+            Tally tally = new Tally();
+            int[][] offenses = new int[2][history.ruleCount()];
+            // Last player counted for each tier, so players are counted once per tier
+            int[][] counted = {new int[slots[CURRENT]], new int[slots[CANDIDATE]]};
+            for (int player = from; player < to; player++) {
+                int start = history.start(player);
+                int end = history.end(player);
+                if (end - start > types[CURRENT].length) {
+                    types = new String[2][end - start];
+                    durations = new String[2][end - start];
+                }
+                for (int row = start; row < end; row++) {
+                    int rule = history.rule(row);
+                    for (int set = CURRENT; set <= CANDIDATE; set++) {
+                        replay(set, start, row, offenses[set][rule]++, tally, counted[set], player + 1);
+                    }
+                    int index = row - start;
+                    if ((rules[CURRENT][rule] != null || rules[CANDIDATE][rule] != null) &&
+                            (!types[CURRENT][index].equalsIgnoreCase(types[CANDIDATE][index]) ||
+                                    !durations[CURRENT][index].equals(durations[CANDIDATE][index]))) {
+                        tally.changed[rule]++;
+                    }
+                }
+                for (int row = start; row < end; row++) {
+                    offenses[CURRENT][history.rule(row)] = 0;
+                    offenses[CANDIDATE][history.rule(row)] = 0;
+                }
+            }
+            return tally;
+        }
+
+        private void replay(int set, int start, int row, int ruleOffenses, Tally tally, int[] counted, int stamp) {
+            int rule = history.rule(row);
+            int index = row - start;
+            PunishmentRule config = rules[set][rule];
+            if (config == null) {
+                types[set][index] = history.typeOf(row);
+                durations[set][index] = history.duration(row);
+                return;
+            }
+
+            int tier = tier(set, config, start, row, ruleOffenses);
+            Map<String, String> punishment = config.getTier(tier);
+            types[set][index] = punishment.get("type");
+            durations[set][index] = punishment.get("duration");
+
+            int slot = firstSlot[set][rule] + tier - 1;
+            tally.punishments[set][slot]++;
+            if (counted[slot] != stamp) {
+                counted[slot] = stamp;
+                tally.players[set][slot]++;
+            }
+            if (approval[set][slot]) tally.approvals[set][rule]++;
+        }
+
+        // The tier punishPlayer would pick given the replayed earlier punishments, capped at the last tier
+        private int tier(int set, PunishmentRule rule, int start, int row, int ruleOffenses) {
+            // Newest first; the severity tier cannot rise past the last tier, so stop there
+            int tiers = rule.getPunishmentTiers().size();
+            int score = 0;
+            for (int earlier = row - 1; earlier >= start; earlier--) {
+                if (punishmentManager.determineGlobalTier(score) >= tiers) break;
+                score += punishmentManager.severityPoints(types[set][earlier - start], durations[set][earlier - start],
+                        history.date(earlier), history.date(row));
+            }
+            return Math.min(punishmentManager.selectTier(rule, ruleOffenses, score), tiers);
+        }
+    }
+}
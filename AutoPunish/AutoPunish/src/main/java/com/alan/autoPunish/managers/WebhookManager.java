@@ -4,15 +4,14 @@ import com.alan.autoPunish.AutoPunish;
 import com.alan.autoPunish.models.Punishment;
 import com.alan.autoPunish.models.QueuedPunishment;
 import com.alan.autoPunish.utils.TimeUtil;
+import com.alan.autoPunish.webhook.WebhookEventType;
+import com.alan.autoPunish.webhook.WebhookMessage;
+import com.alan.autoPunish.webhook.WebhookRouter;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.logging.Level;
+import java.util.Map;
 import java.util.logging.Logger;
 
 public class WebhookManager {
@@ -20,12 +19,41 @@ public class WebhookManager {
     private final Logger logger;
     private final ConfigManager configManager;
     private final SimpleDateFormat dateFormat;
+    private volatile WebhookRouter router;
 
     public WebhookManager(AutoPunish plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.configManager = configManager;
         this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        this.router = createRouter();
+    }
+
+    private WebhookRouter createRouter() {
+        return new WebhookRouter(configManager.getWebhookSinks().values(), configManager.getWebhookRoutes(),
+                configManager.getWebhookDigest(), logger);
+    }
+
+    /**
+     * Rebuild sinks and routes after a config reload. Old sinks keep draining in the background.
+     */
+    public void reload() {
+        WebhookRouter previous = router;
+        router = createRouter();
+        Thread drain = new Thread(() -> previous.shutdown(10000), "AutoPunish-webhook-drain");
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    /**
+     * Flush pending webhooks on plugin disable
+     */
+    public void shutdown() {
+        router.shutdown(5000);
+    }
+
+    public Map<String, Map<String, Object>> getSinkStats() {
+        return router.getStats();
     }
 
     // Overload the method to maintain backward compatibility
@@ -41,36 +69,53 @@ public class WebhookManager {
     // Main method with all punishment information
     public void sendPunishmentWebhook(Punishment punishment, int tier, List<Punishment> rulePunishments,
                                       List<Punishment> allPunishments, int severityScore) {
-        String webhookUrl = configManager.getDiscordWebhook();
-        if (webhookUrl == null || webhookUrl.isEmpty()) {
+        if (!router.hasSinks()) {
             logger.warning("Discord webhook URL is not configured.");
             return;
         }
 
         String jsonPayload = formatPunishmentForDiscord(punishment, tier, rulePunishments, allPunishments, severityScore);
-        sendWebhookRequest(webhookUrl, jsonPayload);
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", punishment.getId().toString());
+        fields.put("player", punishment.getPlayerName());
+        fields.put("player_uuid", punishment.getPlayerUuid().toString());
+        fields.put("rule", punishment.getRule());
+        fields.put("type", punishment.getType());
+        fields.put("duration", punishment.getDuration());
+        fields.put("staff", punishment.getStaffName());
+        fields.put("approved_by", punishment.getApprovedBy());
+        fields.put("date", punishment.getDate().getTime());
+        fields.put("tier", tier);
+        fields.put("severity", severityScore);
+
+        router.dispatch(new WebhookMessage(WebhookEventType.PUNISHMENT, punishment.getRule(), punishment.getType(),
+                punishment.getDuration(), jsonPayload, fields));
     }
 
     /**
      * Send a webhook notification for a queued punishment that needs approval
      */
     public void sendQueuedPunishmentWebhook(QueuedPunishment punishment, int severityScore) {
-        String webhookUrl = configManager.getDiscordWebhook();
-        if (webhookUrl == null || webhookUrl.isEmpty()) {
+        if (!router.hasSinks()) {
             logger.warning("Discord webhook URL is not configured.");
             return;
         }
 
         String jsonPayload = formatQueuedPunishmentForDiscord(punishment, severityScore);
-        sendWebhookRequest(webhookUrl, jsonPayload);
+
+        Map<String, Object> fields = queuedFields(punishment);
+        fields.put("severity", severityScore);
+
+        router.dispatch(new WebhookMessage(WebhookEventType.QUEUED, punishment.getRule(), punishment.getType(),
+                punishment.getDuration(), jsonPayload, fields));
     }
 
     /**
      * Send a webhook notification for a denied punishment
      */
     public void sendDeniedPunishmentWebhook(QueuedPunishment punishment, String deniedBy) {
-        String webhookUrl = configManager.getDiscordWebhook();
-        if (webhookUrl == null || webhookUrl.isEmpty()) {
+        if (!router.hasSinks()) {
             logger.warning("Discord webhook URL is not configured.");
             return;
         }
@@ -96,7 +141,24 @@ public class WebhookManager {
         // Format as JSON for Discord webhook
         String jsonPayload = "{\"content\":\"" + content + "\"}";
 
-        sendWebhookRequest(webhookUrl, jsonPayload);
+        Map<String, Object> fields = queuedFields(punishment);
+        fields.put("denied_by", deniedBy);
+
+        router.dispatch(new WebhookMessage(WebhookEventType.DENIED, punishment.getRule(), punishment.getType(),
+                punishment.getDuration(), jsonPayload, fields));
+    }
+
+    private Map<String, Object> queuedFields(QueuedPunishment punishment) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("approval_id", punishment.getApprovalId());
+        fields.put("player", punishment.getPlayerName());
+        fields.put("player_uuid", punishment.getPlayerUuid().toString());
+        fields.put("rule", punishment.getRule());
+        fields.put("type", punishment.getType());
+        fields.put("duration", punishment.getDuration());
+        fields.put("staff", punishment.getStaffName());
+        fields.put("date", punishment.getQueuedDate().getTime());
+        return fields;
     }
 
     /**
@@ -197,7 +259,7 @@ public class WebhookManager {
                 "Offense #: " + tier + "\\n" +
                 "Punishment: " + escapeJson(punishment.getType().substring(0, 1).toUpperCase() + punishment.getType().substring(1)) +
                 (formattedDuration.equals("Permanent") ? " (Permanent)" : " (" + escapeJson(punishment.getDuration()) + ")") + "\\n" +
-                "Staff: " + escapeJson(punishment.getStaffName()) + "\\n" +
+                "Staff: " + escapeJson(punishment.getStaffDisplayName()) + "\\n" +
                 "Date: " + dateFormat.format(punishment.getDate());
 
         // Add severity score if available
@@ -223,38 +285,6 @@ public class WebhookManager {
         return "{\"content\":\"" + content + "\"}";
     }
 
-    /**
-     * Helper method to send the webhook request
-     */
-    private void sendWebhookRequest(String webhookUrl, String jsonPayload) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                URL url = new URL(webhookUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setRequestProperty("User-Agent", "AutoPunish/1.0");
-                connection.setDoOutput(true);
-
-                try (OutputStream os = connection.getOutputStream()) {
-                    byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-
-                int responseCode = connection.getResponseCode();
-                if (responseCode >= 200 && responseCode < 300) {
-                    logger.info("Webhook sent successfully");
-                } else {
-                    logger.warning("Failed to send webhook. Response code: " + responseCode);
-                }
-
-                connection.disconnect();
-            } catch (IOException e) {
-                logger.log(Level.SEVERE, "Error sending webhook: " + e.getMessage(), e);
-            }
-        });
-    }
-
     /**
      * Escape JSON special characters
      */
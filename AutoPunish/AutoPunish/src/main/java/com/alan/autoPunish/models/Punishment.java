@@ -4,6 +4,9 @@ import java.util.Date;
 import java.util.UUID;
 
 public class Punishment {
+    /** Approver recorded for punishments auto-approved because of the issuer's rank */
+    public static final String AUTO_APPROVED = "(auto)";
+
     private UUID id;
     private UUID playerUuid;
     private String playerName;
@@ -13,6 +16,7 @@ public class Punishment {
     private String staffName;
     private UUID staffUuid;
     private Date date;
+    private String approvedBy;
 
     public Punishment(UUID playerUuid, String playerName, String rule, String type, String duration,
                       String staffName, UUID staffUuid) {
@@ -77,4 +81,24 @@ public class Punishment {
     public Date getDate() {
         return date;
     }
+
+    /** Admin who approved a queued punishment, {@link #AUTO_APPROVED}, or null if issued directly */
+    public String getApprovedBy() {
+        return approvedBy;
+    }
+
+    public void setApprovedBy(String approvedBy) {
+        this.approvedBy = approvedBy;
+    }
+
+    /** Issuer with the approver, as shown in chat and webhooks */
+    public String getStaffDisplayName() {
+        return displayName(staffName, approvedBy);
+    }
+
+    public static String displayName(String staffName, String approvedBy) {
+        if (approvedBy == null) return staffName;
+        if (AUTO_APPROVED.equals(approvedBy)) return staffName + " (Auto-approved by rank)";
+        return staffName + " (Approved by " + approvedBy + ")";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.alan.autoPunish.models;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * One row of the {@code punishments} table, including the panel-only columns.
+ *
+ * This is the single place that knows how a row maps to fields; the database manager and
+ * the web panel both read rows through {@link #fromResultSet(ResultSet)}.
+ */
+public record PunishmentRecord(
+        String id,
+        String playerUuid,
+        String playerName,
+        String rule,
+        String type,
+        String duration,
+        String staffName,
+        String staffUuid,
+        long date,
+        String evidenceLink,
+        boolean hidden,
+        String approvedBy
+) {
+    /**
+     * Map the current row of a {@code SELECT * FROM punishments} query.
+     */
+    public static PunishmentRecord fromResultSet(ResultSet rs) throws SQLException {
+        Timestamp date = rs.getTimestamp("date");
+        return new PunishmentRecord(
+                rs.getString("id"),
+                rs.getString("player_uuid"),
+                rs.getString("player_name"),
+                rs.getString("rule"),
+                rs.getString("type"),
+                rs.getString("duration"),
+                rs.getString("staff_name"),
+                rs.getString("staff_uuid"),
+                date != null ? date.getTime() : 0L,
+                rs.getString("evidence_link"),
+                rs.getBoolean("hidden"),
+                rs.getString("approved_by")
+        );
+    }
+
+    public Punishment toPunishment() {
+        Punishment punishment = new Punishment(
+                UUID.fromString(id),
+                UUID.fromString(playerUuid),
+                playerName,
+                rule,
+                type,
+                duration,
+                staffName,
+                UUID.fromString(staffUuid),
+                new Date(date)
+        );
+        punishment.setApprovedBy(approvedBy);
+        return punishment;
+    }
+
+    /** This row with another visibility */
+    public PunishmentRecord withHidden(boolean hidden) {
+        return new PunishmentRecord(id, playerUuid, playerName, rule, type, duration, staffName, staffUuid,
+                date, evidenceLink, hidden, approvedBy);
+    }
+}
@@ -0,0 +1,78 @@
+package com.alan.autoPunish.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming CSV reader (RFC 4180): comma separated, fields optionally quoted,
+ * quotes doubled inside quoted fields, which may span lines.
+ */
+public class CsvReader {
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+
+    /**
+     * @param reader should be buffered; it is read one character at a time
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the input
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        // Skip blank lines between records
+        while (c == '\n' || c == '\r') c = read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field");
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') pending = next;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,105 @@
+package com.alan.autoPunish.utils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Staff panel password hashing with PBKDF2-HMAC-SHA256.
+ *
+ * Hashes are stored as {@code pbkdf2-sha256$iterations$salt$hash}. Hashes in the old
+ * format (base64 of a 16 byte salt followed by one SHA-256 round) still verify, and
+ * {@link #needsRehash(String)} tells the caller to replace them after a successful login.
+ */
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int LEGACY_SALT_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+    // Verified for unknown usernames so they take as long as wrong passwords; made on first use
+    private volatile String dummyHash;
+
+    public PasswordHasher(int iterations) {
+        this.iterations = Math.max(10_000, iterations);
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * @param storedHash hash in either format; null is treated as an unknown user
+     */
+    public boolean verify(String password, String storedHash) {
+        if (storedHash == null) {
+            if (dummyHash == null) dummyHash = hash("not-a-real-password");
+            verify(password, dummyHash);
+            return false;
+        }
+
+        try {
+            if (!storedHash.startsWith(PREFIX + "$")) return verifyLegacy(password, storedHash);
+
+            String[] parts = storedHash.split("\\$");
+            if (parts.length != 4) return false;
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            // Corrupt hash
+            return false;
+        }
+    }
+
+    /**
+     * True for legacy hashes and hashes made with fewer iterations than configured.
+     */
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX + "$")) return true;
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static boolean verifyLegacy(String password, String storedHash) {
+        byte[] saltedHash = Base64.getDecoder().decode(storedHash);
+        if (saltedHash.length <= LEGACY_SALT_BYTES) return false;
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(saltedHash, 0, LEGACY_SALT_BYTES);
+            byte[] hashed = md.digest(password.getBytes());
+
+            byte[] expected = new byte[saltedHash.length - LEGACY_SALT_BYTES];
+            System.arraycopy(saltedHash, LEGACY_SALT_BYTES, expected, 0, expected.length);
+            return MessageDigest.isEqual(expected, hashed);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.alan.autoPunish.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Bukkit scheduler as {@link Executor}s, for chaining CompletableFuture stages
+ * between the main thread and async workers.
+ */
+public class SchedulerUtil {
+
+    /**
+     * @return executor running tasks on the main thread, inline if already on it
+     */
+    public static Executor mainThread(Plugin plugin) {
+        return runnable -> {
+            if (Bukkit.isPrimaryThread()) {
+                runnable.run();
+            } else {
+                Bukkit.getScheduler().runTask(plugin, runnable);
+            }
+        };
+    }
+
+    /**
+     * @return executor running tasks on the scheduler's async worker pool
+     */
+    public static Executor async(Plugin plugin) {
+        return runnable -> Bukkit.getScheduler().runTaskAsynchronously(plugin, runnable);
+    }
+}
@@ -40,6 +40,22 @@ public class TimeUtil {
         }
     }
 
+    /**
+     * Convert milliseconds to a duration string {@link #parseDuration} understands, in the
+     * largest unit that divides it exactly; minutes are rounded up.
+     *
+     * @return e.g. "2w", "3d", "90m", or "0" for permanent (zero or negative) durations
+     */
+    public static String toDurationString(long millis) {
+        if (millis <= 0) return "0";
+
+        long minutes = (millis + TimeUnit.MINUTES.toMillis(1) - 1) / TimeUnit.MINUTES.toMillis(1);
+        if (minutes % (7 * 24 * 60) == 0) return minutes / (7 * 24 * 60) + "w";
+        if (minutes % (24 * 60) == 0) return minutes / (24 * 60) + "d";
+        if (minutes % 60 == 0) return minutes / 60 + "h";
+        return minutes + "m";
+    }
+
     /**
      * Format milliseconds to a human-readable duration string.
      *
@@ -0,0 +1,61 @@
+package com.alan.autoPunish.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Stores only the "theoretical arrival time" of the next request (GCRA), so a
+ * bucket is a single AtomicLong and acquiring a token is one CAS.
+ */
+public class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity         Maximum number of tokens that can be spent at once
+     * @param permitsPerSecond Sustained refill rate
+     */
+    public TokenBucket(int capacity, double permitsPerSecond) {
+        if (capacity < 1) capacity = 1;
+        if (permitsPerSecond <= 0) permitsPerSecond = 1;
+        this.emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take one token if available.
+     *
+     * @return true if the token was taken
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long start = tat - now > 0 ? tat : now;
+            long next = start + emissionIntervalNanos;
+            if (next - now > burstNanos) return false;
+            if (theoreticalArrival.compareAndSet(tat, next)) return true;
+        }
+    }
+
+    /**
+     * Nanoseconds until the next token becomes available (0 if one is available now).
+     */
+    public long nanosUntilAvailable() {
+        long now = System.nanoTime();
+        long tat = theoreticalArrival.get();
+        long start = tat - now > 0 ? tat : now;
+        return Math.max(0L, start + emissionIntervalNanos - now - burstNanos);
+    }
+
+    /**
+     * A bucket is idle once it has refilled completely; dropping it changes nothing.
+     */
+    public boolean isIdle() {
+        return theoreticalArrival.get() - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,166 @@
+package com.alan.autoPunish.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.Context;
+import io.javalin.http.sse.SseClient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes staff chat messages to connected panels over Server-Sent Events.
+ *
+ * Recent messages are kept in a ring buffer so a reconnecting client that sends
+ * Last-Event-ID receives exactly what it missed. All publishing, replaying and sending
+ * happens on one thread, which keeps events in order and never blocks the caller
+ * (chat events arrive on Bukkit's async chat thread).
+ */
+public class ChatBroadcastHub {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long PING_INTERVAL_SECONDS = 25;
+
+    private final Logger logger;
+    private final int historySize;
+    private final Predicate<Context> authorizer;
+    private final Deque<Event> history = new ArrayDeque<>();
+    private final Set<SseClient> clients = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor;
+    // Ids continue across restarts, so a stale Last-Event-ID is recognisable instead of matching new events
+    private long nextId = System.currentTimeMillis();
+
+    /**
+     * @param authorizer re-checked on every ping so logged-out clients are disconnected
+     */
+    public ChatBroadcastHub(int historySize, Predicate<Context> authorizer, Logger logger) {
+        this.logger = logger;
+        this.historySize = Math.max(1, historySize);
+        this.authorizer = authorizer;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-chat-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::ping, PING_INTERVAL_SECONDS, PING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a chat message for every connected client. Never blocks.
+     */
+    public void publish(String staffName, String staffUuid, String message) {
+        long timestamp = System.currentTimeMillis();
+        submit(() -> {
+            long id = nextId++;
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", id);
+            data.put("staff_name", staffName);
+            data.put("staff_uuid", staffUuid);
+            data.put("message", message);
+            data.put("timestamp", timestamp);
+
+            Event event = new Event(id, JSON.writeValueAsString(data));
+            history.addLast(event);
+            if (history.size() > historySize) history.removeFirst();
+
+            for (SseClient client : clients) send(client, event);
+        });
+    }
+
+    /**
+     * Handle a new SSE connection, replaying anything it missed since {@code lastEventId}.
+     */
+    public void subscribe(SseClient client, String lastEventId) {
+        client.keepAlive();
+        client.onClose(() -> clients.remove(client));
+
+        submit(() -> {
+            Long lastId = parseId(lastEventId);
+            if (lastId != null) {
+                long oldest = history.isEmpty() ? nextId : history.peekFirst().id();
+                if (lastId < oldest - 1 || lastId >= nextId) {
+                    // Too far behind (or from another run): the client must reload the full list
+                    client.sendEvent("reset", "{}", String.valueOf(nextId - 1));
+                } else {
+                    for (Event event : history) {
+                        if (event.id() > lastId) send(client, event);
+                    }
+                }
+            }
+            if (!client.terminated()) clients.add(client);
+        });
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        for (SseClient client : clients) {
+            try {
+                client.close();
+            } catch (Exception ignored) {
+                // Connection already gone
+            }
+        }
+        clients.clear();
+    }
+
+    private void ping() {
+        for (SseClient client : clients) {
+            if (client.terminated() || !authorizer.test(client.ctx())) {
+                clients.remove(client);
+                client.close();
+            } else {
+                client.sendComment("ping");
+            }
+        }
+    }
+
+    private void send(SseClient client, Event event) {
+        if (client.terminated()) {
+            clients.remove(client);
+            return;
+        }
+        client.sendEvent("chat", event.json(), String.valueOf(event.id()));
+    }
+
+    private void submit(Task task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Failed to stream staff chat: " + e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            // Executor already shut down
+        }
+    }
+
+    private static Long parseId(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private record Event(long id, String json) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.alan.autoPunish.web;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counter for one kind of data, bumped after every write.
+ * Read endpoints derive their ETag and Last-Modified from it, so an unchanged
+ * resource can be answered with 304 before any query runs.
+ */
+public class DataVersion {
+    // Distinguishes this process so ETags from before a restart never match
+    private static final String BOOT_ID = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    private final String name;
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+
+    public DataVersion(String name) {
+        this.name = name;
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    public long get() {
+        return version.get();
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Strong entity tag for the current version. Read it before querying, so a write
+     * racing with the query can only make the tag older than the data, never newer.
+     *
+     * @param qualifiers extra values the response depends on, e.g. a time bucket
+     */
+    public String etag(Object... qualifiers) {
+        StringBuilder tag = new StringBuilder("\"").append(name).append('-')
+                .append(BOOT_ID).append('-').append(version.get());
+        for (Object qualifier : qualifiers) tag.append('-').append(qualifier);
+        return tag.append('"').toString();
+    }
+}
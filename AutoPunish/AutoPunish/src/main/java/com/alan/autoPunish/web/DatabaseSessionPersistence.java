@@ -0,0 +1,62 @@
+package com.alan.autoPunish.web;
+
+import com.alan.autoPunish.managers.DatabaseManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores panel sessions and token revocations in the plugin database
+ */
+public class DatabaseSessionPersistence implements SessionPersistence, RevocationPersistence {
+    private final DatabaseManager databaseManager;
+
+    public DatabaseSessionPersistence(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    @Override
+    public List<PanelSession> loadSessions(long now) {
+        return databaseManager.loadPanelSessions(now);
+    }
+
+    @Override
+    public void saveSession(PanelSession session) {
+        databaseManager.savePanelSession(session);
+    }
+
+    @Override
+    public void updateExpiry(Collection<PanelSession> sessions) {
+        databaseManager.updatePanelSessionExpiry(sessions);
+    }
+
+    @Override
+    public void deleteSession(String key) {
+        databaseManager.deletePanelSession(key);
+    }
+
+    @Override
+    public void deleteSessionsForUser(String username) {
+        databaseManager.deletePanelSessionsForUser(username);
+    }
+
+    @Override
+    public void deleteExpiredSessions(long now) {
+        databaseManager.deleteExpiredPanelSessions(now);
+    }
+
+    @Override
+    public void saveRevocation(TokenRevocation revocation) {
+        databaseManager.saveTokenRevocation(revocation);
+    }
+
+    @Override
+    public List<TokenRevocation> loadRevocations(long revokedSince) {
+        return databaseManager.loadTokenRevocations(revokedSince);
+    }
+
+    @Override
+    public void deleteExpiredRevocations(long now) {
+        databaseManager.deleteExpiredTokenRevocations(now);
+    }
+}
@@ -0,0 +1,62 @@
+package com.alan.autoPunish.web;
+
+import io.javalin.http.Context;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conditional GET helpers for the web panel API
+ */
+public final class HttpCaching {
+    private HttpCaching() {
+    }
+
+    /**
+     * Set validators on the response and answer 304 if the client's copy is current.
+     * Responses always have to be revalidated, so clients never show stale data.
+     *
+     * @return true if a 304 was sent and the handler should stop
+     */
+    public static boolean notModified(Context ctx, String etag, long lastModified, boolean isPrivate) {
+        ctx.header("ETag", etag);
+        ctx.header("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(lastModified), ZoneOffset.UTC)));
+        ctx.header("Cache-Control", isPrivate ? "private, no-cache" : "no-cache");
+
+        String ifNoneMatch = ctx.header("If-None-Match");
+        boolean current;
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since
+            current = matches(ifNoneMatch, etag);
+        } else {
+            current = notModifiedSince(ctx.header("If-Modified-Since"), lastModified);
+        }
+
+        if (current) ctx.status(304);
+        return current;
+    }
+
+    static boolean matches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    static boolean notModifiedSince(String header, long lastModified) {
+        if (header == null) return false;
+        try {
+            long since = ZonedDateTime.parse(header, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            // HTTP dates have second precision
+            return lastModified / 1000 <= since / 1000;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.alan.autoPunish.web;
+
+import com.alan.autoPunish.models.Punishment;
+import com.alan.autoPunish.models.QueuedPunishment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.websocket.WsCloseStatus;
+import io.javalin.websocket.WsContext;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes small punishment change events to dashboards over WebSocket.
+ *
+ * Each event is serialized once and handed to every client's bounded queue; writes are
+ * asynchronous, so publishing never blocks the caller. A client whose queue fills up
+ * is too slow to keep up and is disconnected; the dashboard then reloads and reconnects.
+ */
+public class LiveFeedBroadcaster {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long PING_INTERVAL_SECONDS = 30;
+
+    private final Logger logger;
+    private final int maxQueuedPerClient;
+    private final Predicate<WsContext> staffCheck;
+    private final Map<WsContext, Client> clients = new ConcurrentHashMap<>();
+
+    /**
+     * @param staffCheck decides whether a client may see approval queue events
+     */
+    public LiveFeedBroadcaster(int maxQueuedPerClient, Predicate<WsContext> staffCheck, Logger logger) {
+        this.logger = logger;
+        this.maxQueuedPerClient = Math.max(1, maxQueuedPerClient);
+        this.staffCheck = staffCheck;
+    }
+
+    public void connect(WsContext ctx) {
+        ctx.enableAutomaticPings(PING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        clients.put(ctx, new Client(ctx));
+    }
+
+    public void disconnect(WsContext ctx) {
+        clients.remove(ctx);
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public void punishmentApplied(Punishment punishment) {
+        Map<String, Object> event = event("punishment");
+        event.put("id", punishment.getId().toString());
+        event.put("player", punishment.getPlayerName());
+        event.put("rule", punishment.getRule());
+        event.put("type", punishment.getType());
+        event.put("duration", punishment.getDuration());
+        event.put("staff", punishment.getStaffName());
+        event.put("approved_by", punishment.getApprovedBy());
+        event.put("date", punishment.getDate().getTime());
+        publish(event, false);
+    }
+
+    public void visibilityChanged(String punishmentId, boolean hidden) {
+        Map<String, Object> event = event(hidden ? "hidden" : "unhidden");
+        event.put("id", punishmentId);
+        publish(event, false);
+    }
+
+    public void evidenceUpdated(String punishmentId, String evidenceLink) {
+        Map<String, Object> event = event("evidence");
+        event.put("id", punishmentId);
+        event.put("evidence_link", evidenceLink);
+        publish(event, false);
+    }
+
+    /**
+     * One summary event for a bulk change instead of one event per punishment.
+     */
+    public void bulkChanged(String action, int count) {
+        Map<String, Object> event = event("bulk");
+        event.put("action", action);
+        event.put("count", count);
+        publish(event, false);
+    }
+
+    /**
+     * The static snapshots were rewritten after a change; visitors reading them reload now
+     * rather than on the change itself, which the snapshots did not show yet.
+     */
+    public void snapshotsUpdated() {
+        publish(event("snapshots"), false);
+    }
+
+    public void punishmentQueued(QueuedPunishment queued) {
+        Map<String, Object> event = event("queued");
+        event.put("approval_id", queued.getApprovalId());
+        event.put("player", queued.getPlayerName());
+        event.put("rule", queued.getRule());
+        event.put("type", queued.getType());
+        event.put("duration", queued.getDuration());
+        event.put("staff", queued.getStaffName());
+        publish(event, true);
+    }
+
+    public void approvalResolved(QueuedPunishment queued, boolean approved, String resolvedBy) {
+        Map<String, Object> event = event(approved ? "approved" : "denied");
+        event.put("approval_id", queued.getApprovalId());
+        event.put("player", queued.getPlayerName());
+        event.put("by", resolvedBy);
+        publish(event, true);
+    }
+
+    public void shutdown() {
+        for (WsContext ctx : clients.keySet()) {
+            try {
+                ctx.closeSession(WsCloseStatus.GOING_AWAY, "Server stopping");
+            } catch (Exception ignored) {
+                // Connection already gone
+            }
+        }
+        clients.clear();
+    }
+
+    private static Map<String, Object> event(String kind) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("t", kind);
+        return event;
+    }
+
+    private void publish(Map<String, Object> event, boolean staffOnly) {
+        if (clients.isEmpty()) return;
+
+        String json;
+        try {
+            json = JSON.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.log(Level.WARNING, "Failed to serialize live feed event", e);
+            return;
+        }
+
+        for (Client client : clients.values()) {
+            if (staffOnly && !staffCheck.test(client.ctx)) continue;
+            client.enqueue(json);
+        }
+    }
+
+    private class Client implements WriteCallback {
+        private final WsContext ctx;
+        private final Deque<String> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        Client(WsContext ctx) {
+            this.ctx = ctx;
+        }
+
+        synchronized void enqueue(String message) {
+            if (closed) return;
+            if (pending.size() >= maxQueuedPerClient) {
+                close(WsCloseStatus.TRY_AGAIN_LATER, "Too slow");
+                return;
+            }
+            pending.addLast(message);
+            if (!sending) sendNext();
+        }
+
+        // Caller holds the lock
+        private void sendNext() {
+            String next = pending.pollFirst();
+            sending = next != null;
+            if (next == null) return;
+            try {
+                ctx.session.getRemote().sendString(next, this);
+            } catch (Exception e) {
+                close(WsCloseStatus.SERVER_ERROR, "Send failed");
+            }
+        }
+
+        @Override
+        public synchronized void writeSuccess() {
+            if (!closed) sendNext();
+        }
+
+        @Override
+        public synchronized void writeFailed(Throwable error) {
+            close(WsCloseStatus.SERVER_ERROR, "Send failed");
+        }
+
+        private void close(WsCloseStatus status, String reason) {
+            closed = true;
+            sending = false;
+            pending.clear();
+            clients.remove(ctx);
+            try {
+                ctx.closeSession(status, reason);
+            } catch (Exception ignored) {
+                // Connection already gone
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.alan.autoPunish.web;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locks out usernames and client addresses after repeated failed panel logins.
+ *
+ * Each lockout is twice as long as the previous one, up to {@code MAX_LOCKOUT_MS}; the
+ * failure count resets after a quiet period. A successful login resets the username's
+ * count only, so logging in to one account between guesses cannot clear the address's.
+ * Locked-out attempts are rejected before any password hashing happens.
+ */
+public class LoginThrottle {
+    private static final long FAILURE_WINDOW_MS = 15 * 60_000L;
+    private static final long MAX_LOCKOUT_MS = 15 * 60_000L;
+
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerAddress;
+    private final long lockoutMillis;
+    private final int maxEntries;
+    private final Map<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    public LoginThrottle(int maxFailuresPerUser, int maxFailuresPerAddress, long lockoutMillis, int maxEntries) {
+        this.maxFailuresPerUser = Math.max(1, maxFailuresPerUser);
+        this.maxFailuresPerAddress = Math.max(1, maxFailuresPerAddress);
+        this.lockoutMillis = Math.max(1000L, lockoutMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * @return milliseconds until this username/address may try again, 0 if allowed now
+     */
+    public long lockedFor(String username, String address) {
+        return lockedFor(username, address, System.currentTimeMillis());
+    }
+
+    long lockedFor(String username, String address, long now) {
+        return Math.max(lockedFor(userKey(username), now), lockedFor(addressKey(address), now));
+    }
+
+    public void recordFailure(String username, String address) {
+        recordFailure(username, address, System.currentTimeMillis());
+    }
+
+    void recordFailure(String username, String address, long now) {
+        recordFailure(userKey(username), maxFailuresPerUser, now);
+        recordFailure(addressKey(address), maxFailuresPerAddress, now);
+    }
+
+    public void recordSuccess(String username) {
+        attempts.remove(userKey(username));
+    }
+
+    public int size() {
+        return attempts.size();
+    }
+
+    private long lockedFor(String key, long now) {
+        Attempts entry = attempts.get(key);
+        return entry == null ? 0 : entry.lockedFor(now);
+    }
+
+    private void recordFailure(String key, int maxFailures, long now) {
+        Attempts entry = attempts.get(key);
+        if (entry == null) {
+            if (attempts.size() >= maxEntries) {
+                attempts.values().removeIf(existing -> existing.isStale(now));
+                // Still full of active entries: do not grow further, the rate limiter still applies
+                if (attempts.size() >= maxEntries) return;
+            }
+            entry = attempts.computeIfAbsent(key, k -> new Attempts());
+        }
+        entry.fail(maxFailures, lockoutMillis, now);
+    }
+
+    private static String userKey(String username) {
+        return "user:" + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String addressKey(String address) {
+        return "addr:" + address;
+    }
+
+    private static class Attempts {
+        private int failures;
+        private int lockouts;
+        private long lastFailure;
+        private long lockedUntil;
+
+        synchronized void fail(int maxFailures, long baseLockoutMillis, long now) {
+            if (now - lastFailure > FAILURE_WINDOW_MS) {
+                failures = 0;
+                lockouts = 0;
+            }
+            lastFailure = now;
+            if (++failures < maxFailures) return;
+
+            failures = 0;
+            long lockout = Math.min(MAX_LOCKOUT_MS, baseLockoutMillis << Math.min(lockouts, 16));
+            lockouts++;
+            lockedUntil = now + lockout;
+        }
+
+        synchronized long lockedFor(long now) {
+            return Math.max(0, lockedUntil - now);
+        }
+
+        synchronized boolean isStale(long now) {
+            return lockedUntil <= now && now - lastFailure > FAILURE_WINDOW_MS;
+        }
+    }
+}
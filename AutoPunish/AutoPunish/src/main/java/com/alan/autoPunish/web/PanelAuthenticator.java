@@ -0,0 +1,34 @@
+package com.alan.autoPunish.web;
+
+/**
+ * Issues and checks the credential stored in the panel's session cookie
+ */
+public interface PanelAuthenticator {
+    void start();
+
+    void stop();
+
+    /**
+     * @return the opaque token to hand to the client
+     */
+    String login(String username, String uuid, String role);
+
+    /**
+     * @return the session for this token, or null if it is unknown, expired or revoked
+     */
+    PanelSession authenticate(String token);
+
+    /**
+     * Token the client should hold after a successful request; may be a renewed one.
+     */
+    String refresh(String token, PanelSession session);
+
+    void logout(String token);
+
+    /**
+     * Invalidate every login of a user, e.g. after the account was deleted.
+     */
+    void logoutUser(String username);
+
+    long getTtlMillis();
+}
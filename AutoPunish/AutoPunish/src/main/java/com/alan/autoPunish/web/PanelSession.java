@@ -0,0 +1,53 @@
+package com.alan.autoPunish.web;
+
+/**
+ * An authenticated web panel login
+ */
+public class PanelSession {
+    private final String key;
+    private final String username;
+    private final String uuid;
+    private final String role;
+    private final long createdAt;
+    private volatile long lastAccess;
+    private volatile long expiresAt;
+    private volatile long persistedExpiresAt;
+
+    public PanelSession(String key, String username, String uuid, String role,
+                        long createdAt, long lastAccess, long expiresAt) {
+        this.key = key;
+        this.username = username;
+        this.uuid = uuid;
+        this.role = role;
+        this.createdAt = createdAt;
+        this.lastAccess = lastAccess;
+        this.expiresAt = expiresAt;
+        this.persistedExpiresAt = expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * Slide the expiry forward on use
+     */
+    void touch(long now, long ttlMillis) {
+        lastAccess = now;
+        expiresAt = now + ttlMillis;
+    }
+
+    /**
+     * Storage key (a hash of the cookie value, never the cookie itself)
+     */
+    public String getKey() { return key; }
+    public String getUsername() { return username; }
+    public String getUuid() { return uuid; }
+    public String getRole() { return role; }
+    public long getCreatedAt() { return createdAt; }
+    public long getLastAccess() { return lastAccess; }
+    public long getExpiresAt() { return expiresAt; }
+
+    long getPersistedExpiresAt() { return persistedExpiresAt; }
+    void setPersistedExpiresAt(long persistedExpiresAt) { this.persistedExpiresAt = persistedExpiresAt; }
+}
@@ -0,0 +1,238 @@
+package com.alan.autoPunish.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread-safe store for web panel logins.
+ *
+ * Sessions are spread over a fixed number of shards so Jetty worker threads rarely contend.
+ * Each lookup slides the expiry forward; a background sweeper drops expired sessions and
+ * writes refreshed expiry times to the optional persistence backend in one batch.
+ */
+public class PanelSessionStore implements PanelAuthenticator {
+    private static final int SHARDS = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Logger logger;
+    private final long ttlMillis;
+    private final int maxPerShard;
+    private final long sweepIntervalSeconds;
+    private final SessionPersistence persistence;
+    private final Shard[] shards = new Shard[SHARDS];
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * @param persistence optional backend, null keeps sessions in memory only
+     */
+    public PanelSessionStore(long ttlMillis, int maxSessions, long sweepIntervalSeconds,
+                             SessionPersistence persistence, Logger logger) {
+        this.logger = logger;
+        this.ttlMillis = Math.max(60_000L, ttlMillis);
+        this.maxPerShard = Math.max(1, (maxSessions + SHARDS - 1) / SHARDS);
+        this.sweepIntervalSeconds = Math.max(5, sweepIntervalSeconds);
+        this.persistence = persistence;
+        for (int i = 0; i < SHARDS; i++) shards[i] = new Shard();
+    }
+
+    /**
+     * Restore persisted sessions and start the sweeper.
+     */
+    @Override
+    public void start() {
+        if (persistence != null) {
+            long now = System.currentTimeMillis();
+            int restored = 0;
+            try {
+                for (PanelSession session : persistence.loadSessions(now)) {
+                    if (session.isExpired(now)) continue;
+                    shardFor(session.getKey()).sessions.put(session.getKey(), session);
+                    restored++;
+                }
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to restore web panel sessions: " + e.getMessage(), e);
+            }
+            if (restored > 0) logger.info("Restored " + restored + " web panel session(s)");
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-panel-sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweepSafely, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the sweeper, persisting any refreshed expiry times first.
+     */
+    @Override
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+        sweepSafely();
+    }
+
+    /**
+     * Create a session for an authenticated user. Only a hash of the returned token is stored.
+     */
+    @Override
+    public String login(String username, String uuid, String role) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String key = keyOf(token);
+
+        long now = System.currentTimeMillis();
+        PanelSession session = new PanelSession(key, username, uuid, role, now, now, now + ttlMillis);
+
+        Shard shard = shardFor(key);
+        PanelSession evicted = null;
+        synchronized (shard) {
+            if (shard.sessions.size() >= maxPerShard) evicted = shard.evictOldest();
+            shard.sessions.put(key, session);
+        }
+
+        if (persistence != null) {
+            if (evicted != null) persistence.deleteSession(evicted.getKey());
+            persistence.saveSession(session);
+        }
+        return token;
+    }
+
+    /**
+     * Look up a session by its client token and slide its expiry.
+     */
+    @Override
+    public PanelSession authenticate(String token) {
+        if (token == null || token.isEmpty()) return null;
+
+        String key = keyOf(token);
+        Shard shard = shardFor(key);
+        PanelSession session = shard.sessions.get(key);
+        if (session == null) return null;
+
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now)) {
+            shard.sessions.remove(key, session);
+            return null;
+        }
+        session.touch(now, ttlMillis);
+        return session;
+    }
+
+    @Override
+    public String refresh(String token, PanelSession session) {
+        return token;
+    }
+
+    @Override
+    public void logout(String token) {
+        if (token == null || token.isEmpty()) return;
+        String key = keyOf(token);
+        if (shardFor(key).sessions.remove(key) != null && persistence != null) {
+            persistence.deleteSession(key);
+        }
+    }
+
+    @Override
+    public void logoutUser(String username) {
+        for (Shard shard : shards) {
+            shard.sessions.values().removeIf(session -> session.getUsername().equalsIgnoreCase(username));
+        }
+        if (persistence != null) persistence.deleteSessionsForUser(username);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) size += shard.sessions.size();
+        return size;
+    }
+
+    @Override
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Drop expired sessions and persist expiry times that moved since the last write.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        // Only rewrite an expiry once it has moved noticeably, so idle sweeps cost nothing
+        long persistThreshold = Math.min(ttlMillis / 4, TimeUnit.MINUTES.toMillis(5));
+        List<PanelSession> refreshed = new ArrayList<>();
+        int expired = 0;
+
+        for (Shard shard : shards) {
+            for (Map.Entry<String, PanelSession> entry : shard.sessions.entrySet()) {
+                PanelSession session = entry.getValue();
+                if (session.isExpired(now)) {
+                    if (shard.sessions.remove(entry.getKey(), session)) expired++;
+                } else if (session.getExpiresAt() - session.getPersistedExpiresAt() >= persistThreshold) {
+                    refreshed.add(session);
+                }
+            }
+        }
+
+        if (expired > 0) logger.fine("Expired " + expired + " web panel session(s)");
+        if (persistence == null) return;
+
+        if (!refreshed.isEmpty()) {
+            persistence.updateExpiry(refreshed);
+            for (PanelSession session : refreshed) session.setPersistedExpiresAt(session.getExpiresAt());
+        }
+        persistence.deleteExpiredSessions(now);
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to sweep web panel sessions: " + e.getMessage(), e);
+        }
+    }
+
+    private Shard shardFor(String key) {
+        return shards[(key.hashCode() & 0x7fffffff) % SHARDS];
+    }
+
+    private static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class Shard {
+        private final Map<String, PanelSession> sessions = new ConcurrentHashMap<>();
+
+        /**
+         * Remove the least recently used session. Caller holds the shard lock.
+         */
+        PanelSession evictOldest() {
+            PanelSession oldest = null;
+            for (PanelSession session : sessions.values()) {
+                if (oldest == null || session.getLastAccess() < oldest.getLastAccess()) oldest = session;
+            }
+            if (oldest != null) sessions.remove(oldest.getKey());
+            return oldest;
+        }
+    }
+}
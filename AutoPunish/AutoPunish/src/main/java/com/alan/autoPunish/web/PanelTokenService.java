@@ -0,0 +1,187 @@
+package com.alan.autoPunish.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stateless panel authentication with HMAC-SHA256 signed tokens.
+ *
+ * A token is {@code base64url(json payload) "." base64url(signature)} and carries the
+ * username, uuid, role, issue and expiry time plus a random id. Any node that knows the
+ * secret can verify it without a session lookup; only revocations are shared.
+ */
+public class PanelTokenService implements PanelAuthenticator {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // Requests already in flight with a renewed token may still use it for this long
+    private static final long SUPERSEDED_GRACE_MS = 10_000L;
+
+    private final Logger logger;
+    private final long ttlMillis;
+    private final long revocationPollSeconds;
+    private final TokenRevocationList revocations;
+    private final ThreadLocal<Mac> mac;
+    private ScheduledExecutorService poller;
+
+    public PanelTokenService(byte[] secret, long ttlMillis, long revocationPollSeconds,
+                             RevocationPersistence persistence, Logger logger) {
+        this.logger = logger;
+        this.ttlMillis = Math.max(60_000L, ttlMillis);
+        this.revocationPollSeconds = Math.max(1, revocationPollSeconds);
+        this.revocations = new TokenRevocationList(persistence, logger);
+
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 not available", e);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        revocations.sync();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-panel-revocations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(revocations::sync, revocationPollSeconds, revocationPollSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        revocations.flush();
+    }
+
+    @Override
+    public String login(String username, String uuid, String role) {
+        return issue(username, uuid, role, null);
+    }
+
+    /**
+     * @param previousId id of the token this one renews, revoked along with it on logout
+     */
+    private String issue(String username, String uuid, String role, String previousId) {
+        long now = System.currentTimeMillis();
+        byte[] id = new byte[12];
+        RANDOM.nextBytes(id);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", username);
+        claims.put("uid", uuid);
+        claims.put("role", role);
+        claims.put("iat", now);
+        claims.put("exp", now + ttlMillis);
+        claims.put("jti", ENCODER.encodeToString(id));
+        if (previousId != null) claims.put("prv", previousId);
+
+        try {
+            String payload = ENCODER.encodeToString(JSON.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(sign(payload));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Failed to issue panel token: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @Override
+    public PanelSession authenticate(String token) {
+        JsonNode claims = verify(token);
+        if (claims == null) return null;
+
+        long now = System.currentTimeMillis();
+        long issuedAt = claims.path("iat").asLong();
+        long expiresAt = claims.path("exp").asLong();
+        String tokenId = claims.path("jti").asText();
+        String username = claims.path("sub").asText();
+        if (expiresAt <= now || username.isEmpty() || revocations.isRevoked(tokenId, username, issuedAt)) return null;
+
+        return new PanelSession(tokenId, username, claims.path("uid").asText(null),
+                claims.path("role").asText("staff"), issuedAt, now, expiresAt);
+    }
+
+    /**
+     * @return the claims of a token with a valid signature, or null
+     */
+    private JsonNode verify(String token) {
+        if (token == null) return null;
+        int dot = token.lastIndexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) return null;
+
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            // Constant-time comparison so the signature cannot be guessed byte by byte
+            if (!MessageDigest.isEqual(sign(payload), signature)) return null;
+            return JSON.readTree(DECODER.decode(payload));
+        } catch (Exception e) {
+            // Malformed token
+            return null;
+        }
+    }
+
+    /**
+     * Reissue the token once it is past half its lifetime, which gives sliding expiry
+     * without any server-side state. The old token is revoked after a short grace period
+     * for requests already in flight, and at once if the renewed one is logged out.
+     */
+    @Override
+    public String refresh(String token, PanelSession session) {
+        if (session.getExpiresAt() - System.currentTimeMillis() > ttlMillis / 2) return token;
+        String renewed = issue(session.getUsername(), session.getUuid(), session.getRole(), session.getKey());
+        if (renewed == null) return token;
+        revocations.supersedeToken(session.getKey(), session.getExpiresAt(), SUPERSEDED_GRACE_MS);
+        return renewed;
+    }
+
+    @Override
+    public void logout(String token) {
+        PanelSession session = authenticate(token);
+        if (session == null) return;
+        revocations.revokeToken(session.getKey(), session.getExpiresAt());
+        // Earlier tokens are revoked after their grace period at the latest, so only the last one can still be valid
+        String previousId = verify(token).path("prv").asText("");
+        if (!previousId.isEmpty()) revocations.revokeToken(previousId, session.getExpiresAt());
+    }
+
+    @Override
+    public void logoutUser(String username) {
+        revocations.revokeUser(username, ttlMillis);
+    }
+
+    @Override
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private byte[] sign(String payload) {
+        return mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,58 @@
+package com.alan.autoPunish.web;
+
+import com.alan.autoPunish.models.PunishmentRecord;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * LRU cache of each player's full punishment history for the profile endpoint.
+ *
+ * Like {@link ResponseCache}, entries remember the data generation they were loaded for
+ * and are reloaded lazily once it changes, so a profile costs one query after a write
+ * and none otherwise. Scores and active sanctions are derived from the cached rows per
+ * request, because they change with time alone.
+ */
+public class PlayerHistoryCache {
+    private final int maxPlayers;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public PlayerHistoryCache(int maxPlayers) {
+        this.maxPlayers = Math.max(1, maxPlayers);
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PlayerHistoryCache.this.maxPlayers;
+            }
+        };
+    }
+
+    /**
+     * @param loader runs outside the lock when the player is missing or stale
+     * @return the player's rows, newest first, or null if the loader failed
+     */
+    public List<PunishmentRecord> get(String playerUuid, String generation, Function<String, List<PunishmentRecord>> loader) {
+        synchronized (this) {
+            Entry entry = entries.get(playerUuid);
+            if (entry != null && entry.generation.equals(generation)) return entry.history;
+        }
+
+        List<PunishmentRecord> loaded = loader.apply(playerUuid);
+        if (loaded == null) return null;
+
+        List<PunishmentRecord> history = List.copyOf(loaded);
+        synchronized (this) {
+            entries.put(playerUuid, new Entry(generation, history));
+        }
+        return history;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(String generation, List<PunishmentRecord> history) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.alan.autoPunish.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index of known player names for typeahead search.
+ *
+ * Names are stored case-insensitively in a radix tree, so names sharing a prefix share
+ * its nodes. Every node remembers the most recent punishment anywhere below it, which
+ * lets a search return the most recently punished matches without visiting the whole
+ * subtree of a short prefix.
+ */
+public class PlayerNameIndex {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    // Lower-case names per player, so a player can be removed without scanning the tree
+    private final Map<String, Set<String>> namesByUuid = new HashMap<>();
+
+    public record Match(String name, String uuid, long lastSeen) {
+    }
+
+    /**
+     * Record that a player was seen under this name; keeps the latest time per name and player.
+     */
+    public void add(String name, String uuid, long lastSeen) {
+        if (name == null || name.isEmpty() || uuid == null) return;
+        String key = name.toLowerCase(Locale.ROOT);
+
+        lock.writeLock().lock();
+        try {
+            Node node = insert(key, lastSeen);
+            node.put(new Entry(name, uuid, lastSeen));
+            namesByUuid.computeIfAbsent(uuid, u -> new HashSet<>()).add(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forget a player under all names, e.g. after their history was reset.
+     */
+    public void remove(String uuid) {
+        lock.writeLock().lock();
+        try {
+            Set<String> names = namesByUuid.remove(uuid);
+            if (names == null) return;
+            for (String key : names) {
+                Node node = find(key, true);
+                if (node != null) node.removeUuid(uuid);
+            }
+            // Subtree maxima may now overestimate; that only makes searches visit a little more
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} players whose name starts with {@code prefix}, most recent first
+     */
+    public List<Match> search(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) return List.of();
+        String key = prefix.toLowerCase(Locale.ROOT);
+
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, Comparator.comparingLong(Entry::lastSeen));
+        lock.readLock().lock();
+        try {
+            Node start = find(key, false);
+            if (start != null) collect(start, best, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(best.size());
+        for (Entry entry : best) matches.add(new Match(entry.name, entry.uuid, entry.lastSeen));
+        matches.sort(Comparator.comparingLong(Match::lastSeen).reversed());
+        return matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return namesByUuid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private Node insert(String key, long lastSeen) {
+        Node node = root;
+        int i = 0;
+        while (true) {
+            node.maxLastSeen = Math.max(node.maxLastSeen, lastSeen);
+            if (i == key.length()) return node;
+
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                leaf.maxLastSeen = lastSeen;
+                node.addChild(leaf);
+                return leaf;
+            }
+
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the new key diverges
+                Node middle = new Node(child.label.substring(0, common));
+                middle.maxLastSeen = child.maxLastSeen;
+                node.replaceChild(child, middle);
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+    }
+
+    /**
+     * @param exact true to find the node for exactly this key, false for the subtree of all keys with this prefix
+     */
+    private Node find(String key, boolean exact) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) return null;
+            int common = commonPrefix(child.label, key, i);
+            if (i + common == key.length()) {
+                // The key ends inside or at the end of this edge
+                return common == child.label.length() || !exact ? child : null;
+            }
+            if (common < child.label.length()) return null;
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private static void collect(Node node, PriorityQueue<Entry> best, int limit) {
+        if (best.size() >= limit && node.maxLastSeen <= best.peek().lastSeen) return;
+
+        for (Entry entry : node.entries) {
+            best.add(entry);
+            if (best.size() > limit) best.poll();
+        }
+
+        // Most recent subtrees first, so later ones are usually pruned
+        Node[] children = node.children.clone();
+        Arrays.sort(children, Comparator.comparingLong((Node child) -> child.maxLastSeen).reversed());
+        for (Node child : children) collect(child, best, limit);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) i++;
+        return i;
+    }
+
+    private record Entry(String name, String uuid, long lastSeen) {
+    }
+
+    private static class Node {
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] entries = NO_ENTRIES;
+        private long maxLastSeen;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            for (Node child : children) {
+                if (child.label.charAt(0) == first) return child;
+            }
+            return null;
+        }
+
+        void addChild(Node child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        void replaceChild(Node existing, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == existing) {
+                    children[i] = replacement;
+                    return;
+                }
+            }
+        }
+
+        void put(Entry entry) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].uuid.equals(entry.uuid)) {
+                    if (entry.lastSeen >= entries[i].lastSeen) entries[i] = entry;
+                    return;
+                }
+            }
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+
+        void removeUuid(String uuid) {
+            entries = Arrays.stream(entries).filter(entry -> !entry.uuid.equals(uuid)).toArray(Entry[]::new);
+        }
+    }
+}
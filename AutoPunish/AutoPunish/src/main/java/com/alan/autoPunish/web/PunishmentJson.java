@@ -0,0 +1,79 @@
+package com.alan.autoPunish.web;
+
+import com.alan.autoPunish.models.PunishmentRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * JSON form of punishment rows for the web panel.
+ *
+ * Rows are written field by field by a hand-written serializer instead of Jackson's
+ * reflective bean serializer. It backs both the streaming listing and, once registered,
+ * any {@link PunishmentRecord} handed to {@code ctx.json}.
+ */
+public final class PunishmentJson {
+    private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private PunishmentJson() {
+    }
+
+    /**
+     * Register the punishment serializer with a mapper.
+     */
+    public static void register(ObjectMapper mapper) {
+        mapper.registerModule(new SimpleModule("AutoPunish-punishments")
+                .addSerializer(PunishmentRecord.class, new Serializer()));
+    }
+
+    /**
+     * Generator that leaves the target stream open when closed.
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return FACTORY.createGenerator(out);
+    }
+
+    /**
+     * Write the current row of a {@code punishments} query as one JSON object.
+     */
+    public static void writeRow(JsonGenerator json, ResultSet rs) throws IOException, SQLException {
+        write(json, PunishmentRecord.fromResultSet(rs));
+    }
+
+    public static void write(JsonGenerator json, PunishmentRecord punishment) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", punishment.id());
+        json.writeStringField("player_uuid", punishment.playerUuid());
+        json.writeStringField("player_name", punishment.playerName());
+        json.writeStringField("rule", punishment.rule());
+        json.writeStringField("type", punishment.type());
+        json.writeStringField("duration", punishment.duration());
+        json.writeStringField("staff_name", punishment.staffName());
+        json.writeStringField("staff_uuid", punishment.staffUuid());
+        json.writeNumberField("date", punishment.date());
+        json.writeStringField("evidence_link", punishment.evidenceLink());
+        json.writeBooleanField("hidden", punishment.hidden());
+        json.writeStringField("approved_by", punishment.approvedBy());
+        json.writeEndObject();
+    }
+
+    private static class Serializer extends StdSerializer<PunishmentRecord> {
+        Serializer() {
+            super(PunishmentRecord.class);
+        }
+
+        @Override
+        public void serialize(PunishmentRecord value, JsonGenerator json, SerializerProvider provider) throws IOException {
+            write(json, value);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.alan.autoPunish.web;
+
+import com.alan.autoPunish.utils.TokenBucket;
+import io.javalin.http.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client request budgets for the panel API.
+ *
+ * Every client address gets one lock-free {@link TokenBucket} per budget. Buckets that
+ * have refilled completely carry no state and are swept away, and the number of buckets
+ * is capped; once the cap is reached, new addresses share one overflow bucket per budget,
+ * so memory stays bounded even when requests come from many addresses.
+ */
+public class RateLimiter {
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private final int maxBuckets;
+    private final boolean trustForwardedFor;
+    private final Map<String, Budget> budgets = new LinkedHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * @param trustForwardedFor take the client address from X-Forwarded-For (only behind a trusted proxy)
+     */
+    public RateLimiter(int maxBuckets, boolean trustForwardedFor) {
+        this.maxBuckets = Math.max(1, maxBuckets);
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    /**
+     * Define a budget. Must be called before {@link #start()}.
+     */
+    public void addBudget(String name, int burst, int perMinute) {
+        budgets.put(name, new Budget(name, Math.max(1, burst), Math.max(1, perMinute) / 60.0));
+    }
+
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-rate-limit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+        buckets.clear();
+    }
+
+    /**
+     * Spend one token of the given budget for this request's client. When none is left
+     * the request is answered with 429 and Retry-After and its remaining handlers are skipped.
+     *
+     * @return true if the request may proceed
+     */
+    public boolean check(Context ctx, String budgetName) {
+        long waitNanos = acquire(budgetName, clientAddress(ctx, trustForwardedFor));
+        if (waitNanos < 0) return true;
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        ctx.status(429);
+        ctx.header("Retry-After", String.valueOf(retryAfterSeconds));
+        ctx.json(Map.of("error", "Too many requests, try again in " + retryAfterSeconds + "s"));
+        ctx.skipRemainingHandlers();
+        return false;
+    }
+
+    /**
+     * Spend one token of the given budget for a client address.
+     *
+     * @return -1 if the token was spent, otherwise nanoseconds until one is available
+     */
+    long acquire(String budgetName, String address) {
+        Budget budget = budgets.get(budgetName);
+        if (budget == null) return -1;
+
+        TokenBucket bucket = bucketFor(budget, address);
+        if (bucket.tryAcquire()) {
+            budget.allowed.increment();
+            return -1;
+        }
+        budget.throttled.increment();
+        return bucket.nanosUntilAvailable();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> perBudget = new LinkedHashMap<>();
+        for (Budget budget : budgets.values()) {
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("allowed", budget.allowed.sum());
+            counts.put("throttled", budget.throttled.sum());
+            counts.put("overflow", budget.overflowed.sum());
+            perBudget.put(budget.name, counts);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedBuckets", buckets.size());
+        stats.put("maxBuckets", maxBuckets);
+        stats.put("budgets", perBudget);
+        return stats;
+    }
+
+    private TokenBucket bucketFor(Budget budget, String address) {
+        String key = budget.name + '|' + address;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) return bucket;
+
+        if (buckets.size() >= maxBuckets) {
+            budget.overflowed.increment();
+            return budget.overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> budget.newBucket());
+    }
+
+    /**
+     * Address a request is attributed to for rate limiting and lockouts.
+     */
+    public static String clientAddress(Context ctx, boolean trustForwardedFor) {
+        if (trustForwardedFor) {
+            String forwarded = ctx.header("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma >= 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return ctx.ip();
+    }
+
+    void sweep() {
+        buckets.values().removeIf(TokenBucket::isIdle);
+    }
+
+    private static class Budget {
+        private final String name;
+        private final int burst;
+        private final double perSecond;
+        private final TokenBucket overflow;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder overflowed = new LongAdder();
+
+        Budget(String name, int burst, double perSecond) {
+            this.name = name;
+            this.burst = burst;
+            this.perSecond = perSecond;
+            this.overflow = newBucket();
+        }
+
+        TokenBucket newBucket() {
+            return new TokenBucket(burst, perSecond);
+        }
+    }
+}
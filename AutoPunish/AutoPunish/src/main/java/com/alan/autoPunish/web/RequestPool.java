@@ -0,0 +1,201 @@
+package com.alan.autoPunish.web;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded execution for one class of panel requests.
+ *
+ * At most {@code concurrency} handlers run at once and at most {@code maxQueued} more
+ * wait for a slot; anything beyond that, or anything not finished within the request
+ * timeout, is answered with 503 and Retry-After instead of piling up behind the database.
+ * Handlers run off Jetty's threads, so a saturated pool never blocks other routes.
+ *
+ * A request that times out while queued never runs. One that times out while running gives
+ * its slot back, but cannot be interrupted: interrupting a thread inside H2 closes the
+ * database file. Long handlers check {@link #isCancelled}, or write through
+ * {@link #outputStream}, and stop instead.
+ */
+public class RequestPool {
+    // Timeout flags of requests whose handlers have not ended; request attributes are gone
+    // once the timeout completed the response
+    private static final Map<Context, AtomicBoolean> CANCELLED = new ConcurrentHashMap<>();
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+
+    private final String name;
+    private final int capacity;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final Semaphore running;
+    private final ExecutorService executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * @param virtualThreads run each request on its own virtual thread instead of a fixed pool
+     */
+    public RequestPool(String name, int concurrency, int maxQueued, long timeoutMillis, boolean virtualThreads) {
+        this.name = name;
+        int slots = Math.max(1, concurrency);
+        this.capacity = slots + Math.max(0, maxQueued);
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+        this.retryAfterSeconds = Math.max(1, (this.timeoutMillis + 999) / 1000);
+        this.running = new Semaphore(slots);
+
+        String threadName = "AutoPunish-web-" + name + "-";
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadName, 0).factory());
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            // A thread per admitted request, like the virtual mode; the semaphore limits how
+            // many run, so a timed-out handler still running does not take a slot's thread
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(capacity, capacity, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, threadName + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+    }
+
+    /**
+     * Wrap a handler so it runs in this pool.
+     */
+    public Handler wrap(Handler handler) {
+        return ctx -> {
+            if (inFlight.incrementAndGet() > capacity) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                shed(ctx, "Server busy, try again shortly");
+                return;
+            }
+
+            // Whoever moves the request to DONE gives its slot back
+            AtomicInteger state = new AtomicInteger(QUEUED);
+            AtomicBoolean cancelled = new AtomicBoolean();
+            CANCELLED.put(ctx, cancelled);
+            ctx.async(config -> {
+                config.executor = executor;
+                config.timeout = timeoutMillis;
+                config.onTimeout(timedOutCtx -> {
+                    cancelled.set(true);
+                    if (state.getAndSet(DONE) == RUNNING) running.release();
+                    timedOut.increment();
+                    shed(timedOutCtx, "Request timed out, try again shortly");
+                });
+            }, () -> {
+                try {
+                    if (state.get() != QUEUED) return;
+                    running.acquire();
+                    if (!state.compareAndSet(QUEUED, RUNNING)) {
+                        running.release();
+                        return;
+                    }
+                    try {
+                        handler.handle(ctx);
+                    } finally {
+                        if (state.compareAndSet(RUNNING, DONE)) running.release();
+                    }
+                } finally {
+                    CANCELLED.remove(ctx);
+                    // Still counted against the capacity until the handler really ends
+                    inFlight.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        };
+    }
+
+    /**
+     * Whether the pool already answered this request with a timeout, so the handler should
+     * stop and write nothing more.
+     */
+    public static boolean isCancelled(Context ctx) {
+        AtomicBoolean cancelled = CANCELLED.get(ctx);
+        return cancelled != null && cancelled.get();
+    }
+
+    /**
+     * The response body for handlers that stream it; writing fails once the request timed
+     * out, which ends the handler's read loop instead of writing to a finished response.
+     */
+    public static OutputStream outputStream(Context ctx) {
+        return new FilterOutputStream(ctx.outputStream()) {
+            @Override
+            public void write(int b) throws IOException {
+                checkCancelled();
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                checkCancelled();
+                out.write(b, off, len);
+            }
+
+            private void checkCancelled() throws IOException {
+                if (isCancelled(ctx)) throw new IOException("Request timed out");
+            }
+        };
+    }
+
+    /**
+     * Run background work in this pool, sharing its concurrency limit with requests.
+     */
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            running.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                running.release();
+            }
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.get());
+        stats.put("capacity", capacity);
+        stats.put("completed", completed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        return stats;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void shed(Context ctx, String message) {
+        ctx.status(503);
+        ctx.header("Retry-After", String.valueOf(retryAfterSeconds));
+        ctx.json(Map.of("error", message));
+    }
+}
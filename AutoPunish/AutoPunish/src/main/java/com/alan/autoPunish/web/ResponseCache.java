@@ -0,0 +1,115 @@
+package com.alan.autoPunish.web;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache of serialized JSON responses.
+ *
+ * Every entry remembers the generation (the response's ETag) it was built for; a lookup
+ * with a different generation is a miss, so a write invalidates all affected entries at
+ * once without touching the cache.
+ */
+public class ResponseCache {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, RouteStats> routeStats = new ConcurrentHashMap<>();
+    private long currentBytes;
+
+    public ResponseCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        // One response must never flush most of the cache
+        this.maxEntryBytes = this.maxBytes / 8;
+    }
+
+    /**
+     * @return the cached body, or null if absent or built for another generation
+     */
+    public byte[] get(String route, String key, String generation) {
+        RouteStats stats = stats(route);
+        byte[] body = null;
+        synchronized (this) {
+            Entry entry = entries.get(route + '\n' + key);
+            if (entry != null) {
+                if (entry.generation.equals(generation)) {
+                    body = entry.body;
+                } else {
+                    remove(route + '\n' + key);
+                }
+            }
+        }
+
+        if (body != null) stats.hits.increment();
+        else stats.misses.increment();
+        return body;
+    }
+
+    public void put(String route, String key, String generation, byte[] body) {
+        if (body.length > maxEntryBytes) return;
+
+        synchronized (this) {
+            String cacheKey = route + '\n' + key;
+            remove(cacheKey);
+            entries.put(cacheKey, new Entry(route, generation, body));
+            currentBytes += body.length;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                currentBytes -= evicted.body.length;
+                eldest.remove();
+                stats(evicted.route).evictions.increment();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (Map.Entry<String, RouteStats> entry : routeStats.entrySet()) {
+            long hits = entry.getValue().hits.sum();
+            long misses = entry.getValue().misses.sum();
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("hits", hits);
+            route.put("misses", misses);
+            route.put("evictions", entry.getValue().evictions.sum());
+            route.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            routes.put(entry.getKey(), route);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("routes", routes);
+        return stats;
+    }
+
+    private void remove(String cacheKey) {
+        Entry previous = entries.remove(cacheKey);
+        if (previous != null) currentBytes -= previous.body.length;
+    }
+
+    private RouteStats stats(String route) {
+        return routeStats.computeIfAbsent(route, r -> new RouteStats());
+    }
+
+    private record Entry(String route, String generation, byte[] body) {
+    }
+
+    private static class RouteStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+    }
+}
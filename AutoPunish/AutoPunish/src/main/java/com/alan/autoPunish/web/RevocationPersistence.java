@@ -0,0 +1,14 @@
+package com.alan.autoPunish.web;
+
+import java.util.List;
+
+/**
+ * Shared store for token revocations so every panel node sees a logout
+ */
+public interface RevocationPersistence {
+    void saveRevocation(TokenRevocation revocation);
+
+    List<TokenRevocation> loadRevocations(long revokedSince);
+
+    void deleteExpiredRevocations(long now);
+}
@@ -0,0 +1,21 @@
+package com.alan.autoPunish.web;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Backing store that lets panel sessions survive a restart
+ */
+public interface SessionPersistence {
+    List<PanelSession> loadSessions(long now);
+
+    void saveSession(PanelSession session);
+
+    void updateExpiry(Collection<PanelSession> sessions);
+
+    void deleteSession(String key);
+
+    void deleteSessionsForUser(String username);
+
+    void deleteExpiredSessions(long now);
+}
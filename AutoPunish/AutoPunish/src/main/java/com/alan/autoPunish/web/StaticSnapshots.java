@@ -0,0 +1,161 @@
+package com.alan.autoPunish.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-rendered responses kept on disk, plain and gzipped, for the static file handler to serve,
+ * so reads of the hottest views never reach the database.
+ *
+ * Files are rendered again once the data version has been quiet for the debounce time (at the
+ * latest after four times that under constant writes), and once a minute for views that change
+ * with time alone. Only files whose content changed are replaced, atomically, so readers never
+ * see a partial file and unchanged files keep their ETag and Last-Modified.
+ */
+public class StaticSnapshots {
+    private static final long REFRESH_MILLIS = 60_000L;
+
+    /** Renders every file, keyed by its path relative to the snapshot directory */
+    public interface Renderer {
+        Map<String, byte[]> render() throws Exception;
+    }
+
+    private final Logger logger;
+    private final Path plainDirectory;
+    private final Path gzipDirectory;
+    private final DataVersion version;
+    private final long debounceMillis;
+    private final Renderer renderer;
+    private final Runnable onChange;
+    private ScheduledExecutorService executor;
+
+    // Only touched by the executor thread
+    private final Map<String, byte[]> written = new HashMap<>();
+    private long renderedVersion = -1;
+    private long renderedAt;
+    private long seenVersion = -1;
+    private long seenAt;
+    private long pendingSince = -1;
+
+    /**
+     * @param onChange called after files were replaced because the data changed
+     */
+    public StaticSnapshots(Path directory, DataVersion version, long debounceMillis, Renderer renderer,
+                           Runnable onChange, Logger logger) {
+        this.plainDirectory = directory.resolve("plain");
+        this.gzipDirectory = directory.resolve("gzip");
+        this.version = version;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.renderer = renderer;
+        this.onChange = onChange;
+        this.logger = logger;
+    }
+
+    public Path getPlainDirectory() {
+        return plainDirectory;
+    }
+
+    public Path getGzipDirectory() {
+        return gzipDirectory;
+    }
+
+    /**
+     * Create the directories, which the static file handler needs at startup, and render
+     * the files in the background.
+     */
+    public void start() throws IOException {
+        Files.createDirectories(plainDirectory);
+        Files.createDirectories(gzipDirectory);
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> render(false));
+        long tick = Math.max(250L, Math.min(1000L, debounceMillis));
+        executor.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        long current = version.get();
+        if (current != seenVersion) {
+            seenVersion = current;
+            seenAt = now;
+        }
+
+        if (current == renderedVersion) {
+            if (now - renderedAt >= REFRESH_MILLIS) render(false);
+            return;
+        }
+        if (pendingSince < 0) pendingSince = now;
+        if (now - seenAt >= debounceMillis || now - pendingSince >= debounceMillis * 4) render(true);
+    }
+
+    private void render(boolean dataChanged) {
+        // Read before rendering, so a write racing with it causes another render
+        long current = version.get();
+        renderedAt = System.currentTimeMillis();
+        // On failure, try again with the next change or refresh rather than on every tick
+        renderedVersion = current;
+        pendingSince = -1;
+
+        Map<String, byte[]> files;
+        try {
+            files = renderer.render();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to render static snapshots: " + e.getMessage(), e);
+            return;
+        }
+
+        int replaced = 0;
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            if (Arrays.equals(written.get(file.getKey()), file.getValue())) continue;
+            try {
+                replace(gzipDirectory.resolve(file.getKey()), gzip(file.getValue()));
+                replace(plainDirectory.resolve(file.getKey()), file.getValue());
+                written.put(file.getKey(), file.getValue());
+                replaced++;
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write static snapshot " + file.getKey() + ": " + e.getMessage(), e);
+            }
+        }
+        if (dataChanged && replaced > 0 && onChange != null) onChange.run();
+    }
+
+    private static void replace(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), ".snapshot", ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(content);
+        }
+        return buffer.toByteArray();
+    }
+}
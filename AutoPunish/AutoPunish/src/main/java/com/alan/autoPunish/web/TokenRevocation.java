@@ -0,0 +1,10 @@
+package com.alan.autoPunish.web;
+
+/**
+ * A token id no longer accepted from {@code revokedAt} on ({@code kind = "token"}) or a user
+ * whose tokens issued up to {@code revokedAt} are no longer accepted ({@code kind = "user"})
+ */
+public record TokenRevocation(String kind, String subject, long revokedAt, long expiresAt) {
+    public static final String TOKEN = "token";
+    public static final String USER = "user";
+}
@@ -0,0 +1,130 @@
+package com.alan.autoPunish.web;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small in-memory deny list for signed panel tokens.
+ *
+ * Entries only live until the tokens they cover would have expired anyway, so the list
+ * stays tiny. When a backend is configured it is mirrored there and polled, so a logout
+ * on one panel node is honoured by all of them. Renewals are the common case, so tokens
+ * they supersede are written with the next poll instead of on the request thread.
+ */
+public class TokenRevocationList {
+    // Tolerates clock skew between nodes writing to the shared table
+    private static final long POLL_OVERLAP_MS = 5000;
+
+    private final RevocationPersistence persistence;
+    private final Logger logger;
+    // Token revocations by id; a revocation only applies from its revokedAt time on
+    private final Map<String, TokenRevocation> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> userRevokedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> userRevocationExpiry = new ConcurrentHashMap<>();
+    private final Queue<TokenRevocation> unsaved = new ConcurrentLinkedQueue<>();
+    private volatile long lastPoll;
+
+    /**
+     * @param persistence optional shared backend, null keeps revocations node-local
+     */
+    public TokenRevocationList(RevocationPersistence persistence, Logger logger) {
+        this.persistence = persistence;
+        this.logger = logger;
+    }
+
+    public void revokeToken(String tokenId, long tokenExpiresAt) {
+        record(new TokenRevocation(TokenRevocation.TOKEN, tokenId, System.currentTimeMillis(), tokenExpiresAt));
+    }
+
+    /**
+     * Revoke a token that was replaced by a renewed one, after a grace period for requests
+     * the client already sent with it. Other nodes see it after the next {@link #sync}.
+     */
+    public void supersedeToken(String tokenId, long tokenExpiresAt, long graceMillis) {
+        TokenRevocation revocation = new TokenRevocation(TokenRevocation.TOKEN, tokenId,
+                System.currentTimeMillis() + graceMillis, tokenExpiresAt);
+        apply(revocation);
+        if (persistence != null) unsaved.add(revocation);
+    }
+
+    /**
+     * Reject every token of this user issued up to now.
+     */
+    public void revokeUser(String username, long maxTokenTtlMillis) {
+        long now = System.currentTimeMillis();
+        record(new TokenRevocation(TokenRevocation.USER, username.toLowerCase(Locale.ROOT), now, now + maxTokenTtlMillis));
+    }
+
+    public boolean isRevoked(String tokenId, String username, long issuedAt) {
+        TokenRevocation revoked = revokedTokens.get(tokenId);
+        if (revoked != null && revoked.revokedAt() <= System.currentTimeMillis()) return true;
+        Long revokedAt = userRevokedAt.get(username.toLowerCase(Locale.ROOT));
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    /**
+     * Pull revocations written by other nodes and forget entries that can no longer matter.
+     */
+    public void sync() {
+        long now = System.currentTimeMillis();
+        if (persistence != null) {
+            try {
+                flush();
+                for (TokenRevocation revocation : persistence.loadRevocations(lastPoll - POLL_OVERLAP_MS)) {
+                    apply(revocation);
+                }
+                persistence.deleteExpiredRevocations(now);
+                lastPoll = now;
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to sync panel token revocations: " + e.getMessage(), e);
+            }
+        }
+
+        revokedTokens.values().removeIf(revocation -> revocation.expiresAt() <= now);
+        userRevocationExpiry.entrySet().removeIf(entry -> {
+            if (entry.getValue() > now) return false;
+            userRevokedAt.remove(entry.getKey());
+            return true;
+        });
+    }
+
+    /**
+     * Write superseded tokens not yet in the backend.
+     */
+    public void flush() {
+        if (persistence == null) return;
+        long now = System.currentTimeMillis();
+        TokenRevocation revocation;
+        while ((revocation = unsaved.poll()) != null) {
+            // Other nodes only load revocations from their last poll on, so a late write
+            // takes effect there from now
+            persistence.saveRevocation(new TokenRevocation(revocation.kind(), revocation.subject(),
+                    Math.max(now, revocation.revokedAt()), revocation.expiresAt()));
+        }
+    }
+
+    public int size() {
+        return revokedTokens.size() + userRevokedAt.size();
+    }
+
+    private void record(TokenRevocation revocation) {
+        apply(revocation);
+        if (persistence != null) persistence.saveRevocation(revocation);
+    }
+
+    private void apply(TokenRevocation revocation) {
+        if (TokenRevocation.USER.equals(revocation.kind())) {
+            userRevokedAt.merge(revocation.subject(), revocation.revokedAt(), Math::max);
+            userRevocationExpiry.merge(revocation.subject(), revocation.expiresAt(), Math::max);
+        } else {
+            // A logout during the grace period of a renewal takes effect at once
+            revokedTokens.merge(revocation.subject(), revocation, (a, b) -> new TokenRevocation(TokenRevocation.TOKEN,
+                    a.subject(), Math.min(a.revokedAt(), b.revokedAt()), Math.max(a.expiresAt(), b.expiresAt())));
+        }
+    }
+}
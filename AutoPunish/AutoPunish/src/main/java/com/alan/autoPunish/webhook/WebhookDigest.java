@@ -0,0 +1,210 @@
+package com.alan.autoPunish.webhook;
+
+import com.alan.autoPunish.utils.TimeUtil;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Buffers low-priority webhook events per sink and emits one summary per interval
+ * with counts by rule and type, top offenders and top staff.
+ */
+public class WebhookDigest {
+    private final WebhookDigestConfig config;
+    private final Logger logger;
+    private final Map<WebhookSink, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public WebhookDigest(WebhookDigestConfig config, Logger logger) {
+        this.config = config;
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoPunish-webhook-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(10, config.intervalSeconds());
+        scheduler.scheduleAtFixedRate(this::flushSafely, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Whether this message may wait for the next digest. Queued approvals and
+     * permanent punishments are urgent and always bypass the digest.
+     */
+    public boolean accepts(WebhookMessage message) {
+        if (message.getEventType() == WebhookEventType.QUEUED) return false;
+        if (!contains(config.events(), message.getEventType().getKey())) return false;
+        if (!contains(config.types(), message.getType())) return false;
+
+        // Warns and kicks carry no sentence, so only their event and type decide
+        String type = message.getType();
+        if ("warn".equalsIgnoreCase(type) || "kick".equalsIgnoreCase(type)) return true;
+
+        String duration = message.getDuration();
+        if (duration == null || duration.equals("0")) return false;
+        if (config.maxDurationMillis() > 0) {
+            return TimeUtil.parseDuration(duration) <= config.maxDurationMillis();
+        }
+        return true;
+    }
+
+    public void add(WebhookSink sink, WebhookMessage message) {
+        buckets.computeIfAbsent(sink, s -> new Bucket()).add(message);
+    }
+
+    /**
+     * Send a summary for every sink that has buffered events.
+     */
+    public void flush() {
+        for (Map.Entry<WebhookSink, Bucket> entry : buckets.entrySet()) {
+            WebhookMessage summary = entry.getValue().drain(config.top());
+            if (summary != null) entry.getKey().offer(summary);
+        }
+    }
+
+    /**
+     * Stop the timer and send whatever is still buffered.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to send webhook digest: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean contains(Set<String> allowed, String value) {
+        if (allowed.isEmpty() || allowed.contains("*")) return true;
+        return value != null && allowed.contains(value.toLowerCase());
+    }
+
+    /**
+     * Aggregated events for one sink since the last flush
+     */
+    private static class Bucket {
+        private final Map<List<String>, Integer> byRuleAndType = new HashMap<>();
+        private final Map<String, Integer> byPlayer = new HashMap<>();
+        private final Map<String, Integer> byStaff = new HashMap<>();
+        private int total;
+        private long periodStart;
+
+        synchronized void add(WebhookMessage message) {
+            if (total == 0) periodStart = System.currentTimeMillis();
+            total++;
+            byRuleAndType.merge(Arrays.asList(message.getRule(), message.getType()), 1, Integer::sum);
+            Object player = message.getFields().get("player");
+            if (player != null) byPlayer.merge(player.toString(), 1, Integer::sum);
+            Object staff = message.getFields().get("staff");
+            if (staff != null) byStaff.merge(staff.toString(), 1, Integer::sum);
+        }
+
+        synchronized WebhookMessage drain(int top) {
+            if (total == 0) return null;
+
+            long periodEnd = System.currentTimeMillis();
+            List<Map.Entry<List<String>, Integer>> counts = sorted(byRuleAndType, Integer.MAX_VALUE);
+            List<Map.Entry<String, Integer>> offenders = sorted(byPlayer, top);
+            List<Map.Entry<String, Integer>> staff = sorted(byStaff, top);
+            WebhookMessage message = render(total, periodStart, periodEnd, counts, offenders, staff);
+
+            byRuleAndType.clear();
+            byPlayer.clear();
+            byStaff.clear();
+            total = 0;
+            return message;
+        }
+
+        private static <K> List<Map.Entry<K, Integer>> sorted(Map<K, Integer> counts, int limit) {
+            List<Map.Entry<K, Integer>> entries = new ArrayList<>(counts.entrySet());
+            entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            return new ArrayList<>(entries.subList(0, Math.min(limit, entries.size())));
+        }
+
+        private static WebhookMessage render(int total, long periodStart, long periodEnd,
+                                             List<Map.Entry<List<String>, Integer>> counts,
+                                             List<Map.Entry<String, Integer>> offenders,
+                                             List<Map.Entry<String, Integer>> staff) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            StringBuilder content = new StringBuilder("**Punishment Digest**\\n")
+                    .append("Period: ").append(dateFormat.format(new Date(periodStart)))
+                    .append(" - ").append(dateFormat.format(new Date(periodEnd))).append("\\n")
+                    .append("Total: ").append(total);
+
+            content.append("\\n\\n**By Rule / Type:**");
+            List<Map<String, Object>> countList = new ArrayList<>();
+            for (Map.Entry<List<String>, Integer> entry : counts) {
+                String rule = entry.getKey().get(0);
+                String type = entry.getKey().get(1);
+                content.append("\\n- ").append(escapeJson(rule)).append(" / ").append(escapeJson(type))
+                        .append(": ").append(entry.getValue());
+
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("rule", rule);
+                item.put("type", type);
+                item.put("count", entry.getValue());
+                countList.add(item);
+            }
+            appendRanking(content, "Top Offenders", offenders);
+            appendRanking(content, "Top Staff", staff);
+
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("period_start", periodStart);
+            fields.put("period_end", periodEnd);
+            fields.put("total", total);
+            fields.put("counts", countList);
+            fields.put("top_offenders", toList(offenders, "player"));
+            fields.put("top_staff", toList(staff, "staff"));
+
+            return new WebhookMessage(WebhookEventType.DIGEST, null, null, null,
+                    "{\"content\":\"" + content + "\"}", fields);
+        }
+
+        private static void appendRanking(StringBuilder content, String title, List<Map.Entry<String, Integer>> entries) {
+            if (entries.isEmpty()) return;
+            content.append("\\n\\n**").append(title).append(":**");
+            int rank = 1;
+            for (Map.Entry<String, Integer> entry : entries) {
+                content.append("\\n").append(rank++).append(". ")
+                        .append(escapeJson(entry.getKey())).append(" (").append(entry.getValue()).append(")");
+            }
+        }
+
+        private static List<Map<String, Object>> toList(List<Map.Entry<String, Integer>> entries, String keyName) {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : entries) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put(keyName, entry.getKey());
+                item.put("count", entry.getValue());
+                list.add(item);
+            }
+            return list;
+        }
+
+        private static String escapeJson(String input) {
+            if (input == null) return "";
+            return input.replace("\\", "\\\\")
+                    .replace("\"", "\\\"")
+                    .replace("\n", "\\n")
+                    .replace("\r", "\\r")
+                    .replace("\t", "\\t");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.alan.autoPunish.webhook;
+
+import java.util.Set;
+
+/**
+ * Settings for batching low-priority webhook events into periodic summaries
+ *
+ * @param enabled             Whether digest mode is active
+ * @param intervalSeconds     How often each sink receives its summary
+ * @param events              Event kinds that may be digested (only "punishment" makes sense today)
+ * @param types               Punishment types that may be digested, e.g. warn and mute
+ * @param maxDurationMillis   Timed punishments longer than this are sent immediately (0 = no limit)
+ * @param top                 Number of offenders / staff listed in each summary
+ */
+public record WebhookDigestConfig(
+        boolean enabled,
+        long intervalSeconds,
+        Set<String> events,
+        Set<String> types,
+        long maxDurationMillis,
+        int top
+) {
+    public static WebhookDigestConfig disabled() {
+        return new WebhookDigestConfig(false, 900, Set.of(), Set.of(), 0, 5);
+    }
+}
@@ -0,0 +1,30 @@
+package com.alan.autoPunish.webhook;
+
+/**
+ * Kinds of events that can be routed to webhook sinks
+ */
+public enum WebhookEventType {
+    PUNISHMENT("punishment"),
+    QUEUED("queued"),
+    DENIED("denied"),
+    DIGEST("digest");
+
+    private final String key;
+
+    WebhookEventType(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static WebhookEventType fromKey(String key) {
+        for (WebhookEventType type : values()) {
+            if (type.key.equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown webhook event: " + key);
+    }
+}
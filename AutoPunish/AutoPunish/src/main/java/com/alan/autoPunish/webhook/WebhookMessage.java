@@ -0,0 +1,56 @@
+package com.alan.autoPunish.webhook;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single webhook notification, rendered once and handed to every matching sink.
+ * Discord sinks post {@link #getDiscordPayload()}, JSON sinks serialize {@link #getFields()}.
+ */
+public class WebhookMessage {
+    private final WebhookEventType eventType;
+    private final String rule;
+    private final String type;
+    private final String duration;
+    private final String discordPayload;
+    private final Map<String, Object> fields;
+
+    public WebhookMessage(WebhookEventType eventType, String rule, String type, String duration,
+                          String discordPayload, Map<String, Object> fields) {
+        this.eventType = eventType;
+        this.rule = rule;
+        this.type = type;
+        this.duration = duration;
+        this.discordPayload = discordPayload;
+
+        Map<String, Object> copy = new LinkedHashMap<>();
+        copy.put("event", eventType.getKey());
+        if (fields != null) copy.putAll(fields);
+        this.fields = Collections.unmodifiableMap(copy);
+    }
+
+    public WebhookEventType getEventType() {
+        return eventType;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public String getDiscordPayload() {
+        return discordPayload;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+}
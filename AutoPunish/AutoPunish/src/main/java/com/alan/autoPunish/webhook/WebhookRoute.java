@@ -0,0 +1,26 @@
+package com.alan.autoPunish.webhook;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps event kinds, rules and punishment types to a set of sinks.
+ * An empty set (or "*") matches everything.
+ */
+public record WebhookRoute(
+        Set<String> events,
+        Set<String> rules,
+        Set<String> types,
+        List<String> sinks
+) {
+    public boolean matches(WebhookMessage message) {
+        return matchesAny(events, message.getEventType().getKey())
+                && matchesAny(rules, message.getRule())
+                && matchesAny(types, message.getType());
+    }
+
+    private static boolean matchesAny(Set<String> allowed, String value) {
+        if (allowed == null || allowed.isEmpty() || allowed.contains("*")) return true;
+        return value != null && allowed.contains(value.toLowerCase());
+    }
+}
@@ -0,0 +1,130 @@
+package com.alan.autoPunish.webhook;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Resolves which sinks receive a message and hands it to each of them.
+ * Dispatching only enqueues, so it is safe to call from any thread, including the main thread.
+ */
+public class WebhookRouter {
+    private final Logger logger;
+    private final Map<String, WebhookSink> sinks = new LinkedHashMap<>();
+    private final List<WebhookRoute> routes;
+    private final WebhookDigest digest;
+
+    public WebhookRouter(Collection<WebhookSinkConfig> sinkConfigs, List<WebhookRoute> routes, Logger logger) {
+        this(sinkConfigs, routes, WebhookDigestConfig.disabled(), logger);
+    }
+
+    public WebhookRouter(Collection<WebhookSinkConfig> sinkConfigs, List<WebhookRoute> routes,
+                         WebhookDigestConfig digestConfig, Logger logger) {
+        this.logger = logger;
+        this.routes = List.copyOf(routes);
+        this.digest = digestConfig.enabled() ? new WebhookDigest(digestConfig, logger) : null;
+
+        for (WebhookSinkConfig sinkConfig : sinkConfigs) {
+            if (sinkConfig.url() == null || sinkConfig.url().isEmpty()) {
+                logger.warning("Webhook sink '" + sinkConfig.name() + "' has no URL and will be ignored");
+                continue;
+            }
+            sinks.put(sinkConfig.name(), new WebhookSink(sinkConfig, logger));
+        }
+
+        for (WebhookRoute route : this.routes) {
+            for (String sinkName : route.sinks()) {
+                if (!sinks.containsKey(sinkName)) {
+                    logger.warning("Webhook route references unknown sink '" + sinkName + "'");
+                }
+            }
+        }
+    }
+
+    public boolean hasSinks() {
+        return !sinks.isEmpty();
+    }
+
+    /**
+     * Sinks that should receive the given message, in configuration order and without duplicates.
+     */
+    public List<WebhookSink> resolve(WebhookMessage message) {
+        Set<String> names = new LinkedHashSet<>();
+        for (WebhookRoute route : routes) {
+            if (route.matches(message)) names.addAll(route.sinks());
+        }
+
+        List<WebhookSink> resolved = new ArrayList<>(names.size());
+        for (String name : names) {
+            WebhookSink sink = sinks.get(name);
+            if (sink != null) resolved.add(sink);
+        }
+        return resolved;
+    }
+
+    /**
+     * Queue the message on every matching sink, or buffer it for the next digest
+     * when digest mode covers it.
+     *
+     * @return number of sinks that accepted the message
+     */
+    public int dispatch(WebhookMessage message) {
+        List<WebhookSink> targets = resolve(message);
+        if (targets.isEmpty()) {
+            logger.fine("No webhook route matched " + message.getEventType().getKey() + " event");
+            return 0;
+        }
+
+        if (digest != null && digest.accepts(message)) {
+            for (WebhookSink sink : targets) digest.add(sink, message);
+            return targets.size();
+        }
+
+        int accepted = 0;
+        for (WebhookSink sink : targets) {
+            if (sink.offer(message)) accepted++;
+        }
+        return accepted;
+    }
+
+    public Collection<WebhookSink> getSinks() {
+        return Collections.unmodifiableCollection(sinks.values());
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (WebhookSink sink : sinks.values()) {
+            stats.put(sink.getName(), sink.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Drain all sinks in parallel, waiting at most {@code timeoutMillis} in total.
+     */
+    public void shutdown(long timeoutMillis) {
+        if (digest != null) digest.shutdown();
+
+        List<Thread> stoppers = new ArrayList<>();
+        for (WebhookSink sink : sinks.values()) {
+            Thread stopper = new Thread(() -> sink.shutdown(timeoutMillis), "AutoPunish-webhook-stop-" + sink.getName());
+            stopper.setDaemon(true);
+            stopper.start();
+            stoppers.add(stopper);
+        }
+        for (Thread stopper : stoppers) {
+            try {
+                stopper.join(timeoutMillis + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.alan.autoPunish.webhook;
+
+import com.alan.autoPunish.utils.TokenBucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One webhook destination with its own bounded queue, worker thread and rate limiter,
+ * so a slow or failing endpoint never delays any other sink.
+ */
+public class WebhookSink {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 10000;
+    private static final long MAX_BACKOFF_MS = 30000;
+    private static final int MAX_RATE_LIMIT_RETRIES = 10;
+
+    private final WebhookSinkConfig config;
+    private final Logger logger;
+    private final BlockingQueue<WebhookMessage> queue;
+    private final TokenBucket rateLimiter;
+    private final Thread worker;
+
+    private volatile boolean accepting = true;
+    // Discord tells us when the current bucket resets; honour it before the next send
+    private volatile long blockedUntilNanos = System.nanoTime();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    public WebhookSink(WebhookSinkConfig config, Logger logger) {
+        this.config = config;
+        this.logger = logger;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.queueSize()));
+        this.rateLimiter = new TokenBucket(Math.max(1, config.burst()), Math.max(1, config.ratePerMinute()) / 60.0);
+        this.worker = new Thread(this::run, "AutoPunish-webhook-" + config.name());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a message for delivery without blocking the caller.
+     *
+     * @return false if the sink is full or shutting down and the message was dropped
+     */
+    public boolean offer(WebhookMessage message) {
+        if (!accepting || !queue.offer(message)) {
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 100 == 0) {
+                logger.warning("Webhook sink '" + config.name() + "' is full, dropped " + count + " message(s) so far");
+            }
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stop accepting messages and give the worker up to {@code timeoutMillis} to drain its queue.
+     */
+    public void shutdown(long timeoutMillis) {
+        accepting = false;
+        try {
+            worker.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+            int remaining = queue.size();
+            if (remaining > 0) {
+                dropped.addAndGet(remaining);
+                logger.warning("Webhook sink '" + config.name() + "' discarded " + remaining + " pending message(s) on shutdown");
+            }
+        }
+    }
+
+    public String getName() {
+        return config.name();
+    }
+
+    public WebhookSinkConfig getConfig() {
+        return config;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("delivered", delivered.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        stats.put("rateLimited", rateLimited.get());
+        return stats;
+    }
+
+    private void run() {
+        while (accepting || !queue.isEmpty()) {
+            try {
+                WebhookMessage message = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (message == null) continue;
+                awaitPermit();
+                deliver(message);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // Never let one bad message kill the worker
+                failed.incrementAndGet();
+                logger.log(Level.WARNING, "Unexpected error in webhook sink '" + config.name() + "': " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void awaitPermit() throws InterruptedException {
+        long blocked = blockedUntilNanos - System.nanoTime();
+        if (blocked > 0) TimeUnit.NANOSECONDS.sleep(blocked);
+        while (!rateLimiter.tryAcquire()) {
+            TimeUnit.NANOSECONDS.sleep(Math.max(rateLimiter.nanosUntilAvailable(), TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+
+    private void deliver(WebhookMessage message) throws InterruptedException {
+        byte[] body = render(message);
+        long backoff = Math.max(1L, config.retryBackoffMs());
+        int rateLimitRetries = 0;
+
+        for (int attempt = 0; attempt <= config.maxRetries(); attempt++) {
+            try {
+                int status = post(body);
+                if (status >= 200 && status < 300) {
+                    delivered.incrementAndGet();
+                    return;
+                }
+                if (status == 429 && rateLimitRetries++ < MAX_RATE_LIMIT_RETRIES) {
+                    // Rate-limit retries do not count against maxRetries
+                    rateLimited.incrementAndGet();
+                    attempt--;
+                    awaitPermit();
+                    continue;
+                }
+                if (status < 500) {
+                    failed.incrementAndGet();
+                    logger.warning("Webhook sink '" + config.name() + "' rejected message. Response code: " + status);
+                    return;
+                }
+                logger.warning("Webhook sink '" + config.name() + "' failed with response code " + status +
+                        " (attempt " + (attempt + 1) + ")");
+            } catch (IOException e) {
+                logger.warning("Error sending webhook to sink '" + config.name() + "': " + e.getMessage() +
+                        " (attempt " + (attempt + 1) + ")");
+            }
+
+            if (attempt < config.maxRetries()) {
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+        failed.incrementAndGet();
+    }
+
+    private int post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(config.url()).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("User-Agent", "AutoPunish/1.0");
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setDoOutput(true);
+
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(body);
+            }
+
+            int status = connection.getResponseCode();
+            readRateLimitHeaders(connection, status);
+            return status;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void readRateLimitHeaders(HttpURLConnection connection, int status) {
+        String remaining = connection.getHeaderField("X-RateLimit-Remaining");
+        String resetAfter = connection.getHeaderField("X-RateLimit-Reset-After");
+        if (resetAfter == null && status == 429) resetAfter = connection.getHeaderField("Retry-After");
+
+        boolean exhausted = status == 429 || "0".equals(remaining);
+        if (!exhausted || resetAfter == null) return;
+
+        try {
+            long waitNanos = (long) (Double.parseDouble(resetAfter) * TimeUnit.SECONDS.toNanos(1));
+            blockedUntilNanos = System.nanoTime() + Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(MAX_BACKOFF_MS));
+        } catch (NumberFormatException ignored) {
+            // Malformed header, fall back to our own limiter
+        }
+    }
+
+    private byte[] render(WebhookMessage message) {
+        if (config.isJson()) {
+            try {
+                return JSON.writeValueAsBytes(message.getFields());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to serialize webhook message for sink '" + config.name() + "'", e);
+            }
+        }
+        return message.getDiscordPayload().getBytes(StandardCharsets.UTF_8);
+    }
+}
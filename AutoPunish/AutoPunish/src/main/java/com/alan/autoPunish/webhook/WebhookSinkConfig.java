@@ -0,0 +1,28 @@
+package com.alan.autoPunish.webhook;
+
+/**
+ * Settings for one webhook destination as read from config.yml
+ *
+ * @param name           Sink name referenced by routes
+ * @param url            Target URL
+ * @param format         "discord" or "json"
+ * @param queueSize      Maximum number of pending messages before new ones are dropped
+ * @param ratePerMinute  Sustained requests per minute
+ * @param burst          Requests that may be sent back-to-back before throttling
+ * @param maxRetries     Retries for 5xx / network failures
+ * @param retryBackoffMs Delay before the first retry, doubled on every further attempt
+ */
+public record WebhookSinkConfig(
+        String name,
+        String url,
+        String format,
+        int queueSize,
+        int ratePerMinute,
+        int burst,
+        int maxRetries,
+        long retryBackoffMs
+) {
+    public boolean isJson() {
+        return "json".equalsIgnoreCase(format);
+    }
+}
@@ -5,6 +5,14 @@ document.addEventListener('DOMContentLoaded', () => {
   let refreshInterval;
   let currentUser = null;
   let chatRefreshInterval = null;
+  let chatEventSource = null;
+  let chatLoading = false;
+  let chatReloadPending = false;
+  let liveConnected = false;
+  let liveEverConnected = false;
+  let liveRetryDelay = 2000;
+  let liveRefreshTimer = null;
+  let snapshotsAvailable = true;
 
   function safeFeatherReplace() {
     try {
@@ -176,6 +184,7 @@ document.addEventListener('DOMContentLoaded', () => {
       clearInterval(chatRefreshInterval);
       chatRefreshInterval = null;
     }
+    stopChatStream();
 
     const hash = window.location.hash || '#/';
     const page = hash.substring(2) || 'home';
@@ -187,9 +196,132 @@ document.addEventListener('DOMContentLoaded', () => {
     loadPageContent(page);
 
     if (['warns', 'mutes', 'bans'].includes(page)) {
-      refreshInterval = setInterval(() => loadPageContent(page), 60000);
+      // Only needed while the live feed is down
+      refreshInterval = setInterval(() => {
+        if (!liveConnected) loadPageContent(page);
+      }, 60000);
     } else if (page === 'staff-chat') {
+      startChatStream();
+    }
+  }
+
+  // Live punishment feed over WebSocket
+  function connectLiveFeed() {
+    if (!window.WebSocket) return;
+
+    const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+    const socket = new WebSocket(`${protocol}//${window.location.host}/api/live`);
+    socket.onopen = () => {
+      liveConnected = true;
+      liveRetryDelay = 2000;
+      // Events may have been missed while disconnected
+      if (liveEverConnected) scheduleLiveRefresh();
+      liveEverConnected = true;
+    };
+    socket.onmessage = (e) => handleLiveEvent(JSON.parse(e.data));
+    socket.onclose = () => {
+      liveConnected = false;
+      setTimeout(connectLiveFeed, liveRetryDelay);
+      liveRetryDelay = Math.min(liveRetryDelay * 2, 60000);
+    };
+  }
+
+  // Anonymous visitors read the pre-rendered snapshots while the server writes them
+  function usingSnapshots() {
+    return !currentUser && snapshotsAvailable;
+  }
+
+  async function fetchPublic(snapshotPath, apiUrl) {
+    if (usingSnapshots()) {
+      const response = await fetch(`/snapshots/${snapshotPath}`);
+      if (response.ok) return response;
+      if (response.status === 404) snapshotsAvailable = false;
+    }
+    return fetch(apiUrl);
+  }
+
+  function currentPage() {
+    return (window.location.hash || '#/').substring(2) || 'home';
+  }
+
+  function handleLiveEvent(event) {
+    const page = currentPage();
+    switch (event.t) {
+      case 'punishment':
+        // Snapshot readers wait until the snapshots show the change
+        if (usingSnapshots()) break;
+        if (page === 'home' || page === `${event.type}s`) scheduleLiveRefresh();
+        break;
+      case 'hidden': {
+        const row = document.querySelector(`#punishments-tbody tr[data-id="${event.id}"]`);
+        if (row) row.remove();
+        if (page === 'home' && !usingSnapshots()) scheduleLiveRefresh();
+        break;
+      }
+      case 'unhidden':
+      case 'evidence':
+      case 'bulk':
+        if (!usingSnapshots()) scheduleLiveRefresh();
+        break;
+      case 'snapshots':
+        if (usingSnapshots()) scheduleLiveRefresh();
+        break;
+      case 'queued':
+        if (currentUser) showMessage(`Punishment queued for approval: ${event.player} (${event.type} ${event.duration})`, 'success');
+        break;
+      case 'approved':
+        if (currentUser) showMessage(`Punishment for ${event.player} approved by ${event.by}`, 'success');
+        break;
+      case 'denied':
+        if (currentUser) showMessage(`Punishment for ${event.player} denied by ${event.by}`, 'error');
+        break;
+    }
+  }
+
+  // Coalesce bursts of events into one refresh of the current view
+  function scheduleLiveRefresh() {
+    if (liveRefreshTimer) return;
+    liveRefreshTimer = setTimeout(() => {
+      liveRefreshTimer = null;
+      const page = currentPage();
+      if (['warns', 'mutes', 'bans'].includes(page)) {
+        performSearch(page, true);
+      } else if (page === 'home') {
+        loadQuickStats();
+      }
+    }, 500);
+  }
+
+  // Live staff chat over Server-Sent Events, falling back to polling
+  function startChatStream() {
+    if (!window.EventSource) {
       chatRefreshInterval = setInterval(() => loadStaffChat(), 10000);
+      return;
+    }
+
+    let opened = false;
+    chatEventSource = new EventSource('/api/staff/chat/stream');
+    chatEventSource.onopen = () => {
+      // Pick up anything sent between the first load and the stream connecting.
+      // Later reconnects resume via Last-Event-ID instead.
+      if (!opened) loadStaffChat();
+      opened = true;
+    };
+    chatEventSource.addEventListener('chat', (e) => appendChatMessage(JSON.parse(e.data)));
+    chatEventSource.addEventListener('reset', () => loadStaffChat());
+    chatEventSource.onerror = () => {
+      // The browser reconnects by itself; only fall back once it has given up
+      if (chatEventSource && chatEventSource.readyState === EventSource.CLOSED) {
+        stopChatStream();
+        chatRefreshInterval = setInterval(() => loadStaffChat(), 10000);
+      }
+    };
+  }
+
+  function stopChatStream() {
+    if (chatEventSource) {
+      chatEventSource.close();
+      chatEventSource = null;
     }
   }
 
@@ -283,7 +415,7 @@ document.addEventListener('DOMContentLoaded', () => {
 
   async function loadQuickStats() {
     try {
-      const response = await fetch('/api/punishments/stats');
+      const response = await fetchPublic('punishments/stats.json', '/api/punishments/stats');
       if (response.ok) {
         const data = await response.json();
         const statsContainer = document.getElementById('quick-stats');
@@ -443,7 +575,8 @@ document.addEventListener('DOMContentLoaded', () => {
 
           if (response.ok) {
             messageInput.value = '';
-            loadStaffChat();
+            // With a live stream the message arrives as an event
+            if (!chatEventSource) loadStaffChat();
           } else {
             const data = await response.json();
             showMessage(data.error || 'Failed to send message', 'error');
@@ -455,8 +588,40 @@ document.addEventListener('DOMContentLoaded', () => {
     });
   }
 
+  function renderChatMessage(msg) {
+    return `
+      <div class="chat-message">
+        <div class="message-header">
+          <span class="message-user font-semibold text-gray-900">${escapeHtml(msg.staff_name)}</span>
+          <span class="message-time text-gray-500">${new Date(msg.timestamp).toLocaleString()}</span>
+        </div>
+        <div class="message-content bg-gray-100 p-4 rounded-lg border-l-4 border-black">${escapeHtml(msg.message)}</div>
+      </div>
+    `;
+  }
+
+  function appendChatMessage(msg) {
+    if (chatLoading) {
+      // The list being loaded may predate this message; load again afterwards
+      chatReloadPending = true;
+      return;
+    }
+    const messagesContainer = document.getElementById('chat-messages');
+    if (!messagesContainer) return;
+
+    const placeholder = messagesContainer.querySelector('.no-messages, .loading, .error');
+    if (placeholder) placeholder.remove();
+    messagesContainer.insertAdjacentHTML('beforeend', renderChatMessage(msg));
+    messagesContainer.scrollTop = messagesContainer.scrollHeight;
+  }
+
   async function loadStaffChat() {
     if (!currentUser) return;
+    if (chatLoading) {
+      chatReloadPending = true;
+      return;
+    }
+    chatLoading = true;
 
     try {
       const response = await fetch('/api/staff/chat?limit=50');
@@ -465,15 +630,7 @@ document.addEventListener('DOMContentLoaded', () => {
         const messagesContainer = document.getElementById('chat-messages');
         if (messagesContainer) {
           if (data.messages && data.messages.length > 0) {
-            messagesContainer.innerHTML = data.messages.map(msg => `
-              <div class="chat-message">
-                <div class="message-header">
-                  <span class="message-user font-semibold text-gray-900">${escapeHtml(msg.staff_name)}</span>
-                  <span class="message-time text-gray-500">${new Date(msg.timestamp).toLocaleString()}</span>
-                </div>
-                <div class="message-content bg-gray-100 p-4 rounded-lg border-l-4 border-black">${escapeHtml(msg.message)}</div>
-              </div>
-            `).join('');
+            messagesContainer.innerHTML = data.messages.map(renderChatMessage).join('');
             messagesContainer.scrollTop = messagesContainer.scrollHeight;
           } else {
             messagesContainer.innerHTML = '<p class="no-messages flex items-center justify-center"><i data-feather="message-circle" class="mr-2"></i> No messages yet. Be the first to send one!</p>';
@@ -485,8 +642,15 @@ document.addEventListener('DOMContentLoaded', () => {
       console.error('Error loading chat:', error);
       document.getElementById('chat-messages').innerHTML = '<p class="error flex items-center justify-center"><i data-feather="alert-triangle" class="mr-2"></i> Failed to load chat messages.</p>';
       safeFeatherReplace();
+    } finally {
+      chatLoading = false;
     }
     safeFeatherReplace();
+
+    if (chatReloadPending) {
+      chatReloadPending = false;
+      loadStaffChat();
+    }
   }
 
   function loadTeamManagementPage() {
@@ -639,7 +803,7 @@ document.addEventListener('DOMContentLoaded', () => {
       let url = `${API_URL}/${type}`;
       renderPunishmentsPage(type, [], true);
 
-      const response = await fetch(url);
+      const response = await fetchPublic(`punishments/${type}/page-1.json`, url);
       if (!response.ok) {
         throw new Error(`HTTP ${response.status}`);
       }
@@ -748,7 +912,7 @@ document.addEventListener('DOMContentLoaded', () => {
     });
   }
 
-  async function performSearch(type) {
+  async function performSearch(type, silent = false) {
     const playerFilter = document.getElementById('search-player').value.trim();
     const ruleFilter = document.getElementById('search-rule').value.trim();
 
@@ -761,13 +925,15 @@ document.addEventListener('DOMContentLoaded', () => {
 
       url += params.join('&');
 
-      const tbody = document.getElementById('punishments-tbody');
-      tbody.innerHTML = `<tr><td colspan="${currentUser ? 7 : 6}" class="px-6 py-4 text-center">
-        <p class="loading flex items-center justify-center text-gray-500"><i data-feather="loader" class="mr-2 animate-spin"></i> Searching...</p>
-      </td></tr>`;
-      safeFeatherReplace();
+      if (!silent) {
+        const tbody = document.getElementById('punishments-tbody');
+        tbody.innerHTML = `<tr><td colspan="${currentUser ? 7 : 6}" class="px-6 py-4 text-center">
+          <p class="loading flex items-center justify-center text-gray-500"><i data-feather="loader" class="mr-2 animate-spin"></i> Searching...</p>
+        </td></tr>`;
+        safeFeatherReplace();
+      }
 
-      const response = await fetch(url);
+      const response = params.length ? await fetch(url) : await fetchPublic(`punishments/${type}/page-1.json`, url);
       if (!response.ok) {
         throw new Error(`HTTP ${response.status}`);
       }
@@ -827,7 +993,9 @@ document.addEventListener('DOMContentLoaded', () => {
     tbody.innerHTML = filteredPunishments.map(p => {
       const playerName = p.player_name || 'Unknown';
       const rule = p.rule || 'Unknown';
-      const staffName = p.staff_name || 'Unknown';
+      let staffName = p.staff_name || 'Unknown';
+      if (p.approved_by === '(auto)') staffName += ' (Auto-approved by rank)';
+      else if (p.approved_by) staffName += ` (Approved by ${p.approved_by})`;
       const date = p.date ? new Date(p.date).toLocaleString() : 'Unknown';
       const duration = p.duration === "0" ? "Permanent" : (p.duration || 'Unknown');
       const evidenceLink = p.evidence_link || null;
@@ -1067,4 +1235,5 @@ document.addEventListener('DOMContentLoaded', () => {
   window.addEventListener('hashchange', navigate);
   safeFeatherReplace();
   navigate();
+  connectLiveFeed();
 });
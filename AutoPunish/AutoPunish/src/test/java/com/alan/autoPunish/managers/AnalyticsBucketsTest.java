@@ -0,0 +1,86 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.Punishment;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsBucketsTest {
+    private static final long HOUR = AnalyticsManager.HOUR;
+    private static final long DAY = AnalyticsManager.DAY;
+    private static final long WEEK = AnalyticsManager.WEEK;
+
+    private static long at(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    @Test
+    void intervalsAlignToHoursDaysAndMondays() {
+        // Wednesday
+        long time = at("2024-05-15T13:45:10Z");
+        assertEquals(at("2024-05-15T13:00:00Z"), AnalyticsManager.Interval.HOUR.align(time));
+        assertEquals(at("2024-05-15T00:00:00Z"), AnalyticsManager.Interval.DAY.align(time));
+        assertEquals(at("2024-05-13T00:00:00Z"), AnalyticsManager.Interval.WEEK.align(time));
+        assertEquals(at("2024-05-13T00:00:00Z"), AnalyticsManager.Interval.WEEK.align(at("2024-05-13T00:00:00Z")));
+        assertEquals(at("2024-05-13T00:00:00Z"), AnalyticsManager.Interval.WEEK.align(at("2024-05-19T23:59:59Z")));
+
+        // Before the epoch buckets still start at or before the time
+        assertEquals(-HOUR, AnalyticsManager.Interval.HOUR.align(-1));
+        assertEquals(at("1969-12-29T00:00:00Z"), AnalyticsManager.Interval.WEEK.align(-1));
+    }
+
+    @Test
+    void periodsStartOnTheirFirstDay() {
+        long time = at("2024-02-29T22:10:00Z");
+        assertEquals(at("2024-02-29T00:00:00Z"), AnalyticsManager.Period.DAY.start(time));
+        assertEquals(at("2024-02-26T00:00:00Z"), AnalyticsManager.Period.WEEK.start(time));
+        assertEquals(at("2024-02-01T00:00:00Z"), AnalyticsManager.Period.MONTH.start(time));
+        assertEquals(0L, AnalyticsManager.Period.ALL.start(time));
+
+        assertEquals(AnalyticsManager.Period.MONTH, AnalyticsManager.Period.parse("month"));
+        assertEquals(AnalyticsManager.Interval.WEEK, AnalyticsManager.Interval.parse("Week"));
+        assertEquals(AnalyticsManager.GroupBy.STAFF, AnalyticsManager.GroupBy.parse("STAFF"));
+        assertNull(AnalyticsManager.Sort.parse("banned"));
+    }
+
+    @Test
+    void rangesWidenToWholeBuckets() {
+        long day = at("2024-05-15T00:00:00Z");
+        long hourlySince = day - 2 * DAY;
+
+        long[] range = AnalyticsManager.alignRange(AnalyticsManager.Interval.HOUR, day + 90 * 60_000L,
+                day + 3 * HOUR, hourlySince);
+        assertArrayEquals(new long[]{day + HOUR, day + 3 * HOUR}, range, "an exact end is not widened");
+
+        // Hourly ranges reaching back past the hourly data start at the day its counts were folded into
+        range = AnalyticsManager.alignRange(AnalyticsManager.Interval.HOUR, hourlySince - DAY + 5 * HOUR,
+                hourlySince, hourlySince);
+        assertArrayEquals(new long[]{hourlySince - DAY, hourlySince}, range);
+
+        // An empty range is still one bucket
+        range = AnalyticsManager.alignRange(AnalyticsManager.Interval.WEEK, day, day, hourlySince);
+        assertArrayEquals(new long[]{day - 2 * DAY, day - 2 * DAY + WEEK}, range);
+    }
+
+    @Test
+    void staffCountsCreditIssuerAndApprover() {
+        Map<AnalyticsManager.StaffKey, int[]> counts = new HashMap<>();
+        AnalyticsManager.countStaff(counts, "Mod", "Admin", 0, false, 1);
+        AnalyticsManager.countStaff(counts, "Mod", null, 0, true, 1);
+        AnalyticsManager.countStaff(counts, "Mod", Punishment.AUTO_APPROVED, 0, false, 1);
+        AnalyticsManager.countStaff(counts, "Mod", "Admin", DAY, false, 1);
+        // A removed row takes its counts back
+        AnalyticsManager.countStaff(counts, "Mod", "Admin", DAY, false, -1);
+
+        int[] mod = counts.get(new AnalyticsManager.StaffKey(0, "Mod"));
+        assertEquals(3, mod[AnalyticsManager.ISSUED]);
+        assertEquals(1, mod[AnalyticsManager.HIDDEN]);
+        assertEquals(0, mod[AnalyticsManager.APPROVED], "auto-approvals are not staff approvals");
+        assertEquals(1, counts.get(new AnalyticsManager.StaffKey(0, "Admin"))[AnalyticsManager.APPROVED]);
+        assertArrayEquals(new int[4], counts.get(new AnalyticsManager.StaffKey(DAY, "Admin")));
+    }
+}
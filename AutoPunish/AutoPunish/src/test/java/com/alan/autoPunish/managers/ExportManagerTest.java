@@ -0,0 +1,43 @@
+package com.alan.autoPunish.managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportManagerTest {
+
+    private static String field(String value) throws IOException {
+        StringWriter csv = new StringWriter();
+        ExportManager.csvField(csv, value);
+        return csv.toString();
+    }
+
+    @Test
+    void plainValuesAreWrittenAsIs() throws IOException {
+        assertEquals("Steve", field("Steve"));
+        assertEquals("30d", field("30d"));
+        assertEquals("", field(""));
+        assertEquals("", field(null));
+    }
+
+    @Test
+    void separatorsAndQuotesAreQuoted() throws IOException {
+        assertEquals("\"spam, repeated\"", field("spam, repeated"));
+        assertEquals("\"said \"\"hi\"\"\"", field("said \"hi\""));
+        assertEquals("\"two\nlines\"", field("two\nlines"));
+        assertEquals("\"carriage\rreturn\"", field("carriage\rreturn"));
+    }
+
+    @Test
+    void formulasAreEscaped() throws IOException {
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\"", field("=HYPERLINK(\"http://x\")"));
+        assertEquals("\"'+1\"", field("+1"));
+        assertEquals("\"'-1\"", field("-1"));
+        assertEquals("\"'@SUM(A1)\"", field("@SUM(A1)"));
+        // Only a leading formula character matters
+        assertEquals("a=b", field("a=b"));
+    }
+}
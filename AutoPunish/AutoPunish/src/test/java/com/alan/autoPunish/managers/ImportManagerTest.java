@@ -0,0 +1,107 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.PunishmentRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportManagerTest {
+    private static final String PLAYER = "069a79f4-44e9-4726-a5be-fca90e38aaf5";
+
+    private static PunishmentRecord map(String sourceId, Map<String, String> fields) {
+        return ImportManager.fromExportFields(sourceId, fields::get);
+    }
+
+    private static Map<String, String> fields(String... pairs) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) fields.put(pairs[i], pairs[i + 1]);
+        return fields;
+    }
+
+    @Test
+    void exportedRowsKeepTheirIdAndPanelColumns() {
+        String id = UUID.randomUUID().toString();
+        PunishmentRecord row = map("file:a.csv:1", fields("id", id, "player_uuid", PLAYER.toUpperCase(),
+                "player_name", "Notch", "rule", "spam", "type", "MUTE", "duration", "1h",
+                "staff_name", "Mod", "date", "2024-01-02T03:04:05Z", "evidence_link", "https://example.com",
+                "hidden", "true", "approved_by", "Admin"));
+
+        assertEquals(new PunishmentRecord(id, PLAYER, "Notch", "spam", "mute", "1h", "Mod",
+                new UUID(0, 0).toString(), 1704164645000L, "https://example.com", true, "Admin"), row);
+    }
+
+    @Test
+    void foreignRowsGetStableIdsAndDefaults() {
+        PunishmentRecord first = map("file:a.csv:7", fields("player_uuid", PLAYER.replace("-", ""),
+                "type", "ban", "duration", "forever", "date", "1000"));
+        PunishmentRecord again = map("file:a.csv:7", fields("player_uuid", PLAYER.replace("-", ""),
+                "type", "ban", "duration", "forever", "date", "1000"));
+
+        assertEquals(first.id(), again.id(), "re-importing the same row maps to the same id");
+        assertEquals(PLAYER, first.playerUuid(), "32-digit UUIDs are dashed");
+        assertEquals("Unknown", first.playerName());
+        assertEquals("imported", first.rule());
+        assertEquals("0", first.duration(), "unparseable durations become permanent");
+        assertEquals("Console", first.staffName());
+        assertEquals(1000L, first.date());
+
+        // Ids from other tools are stable across files
+        assertEquals(map("file:a.csv:1", fields("id", "42", "player_uuid", PLAYER, "type", "warn", "date", "1")).id(),
+                map("file:b.csv:9", fields("id", "42", "player_uuid", PLAYER, "type", "warn", "date", "1")).id());
+    }
+
+    @Test
+    void offlinePlayersGetTheirNameBasedUuid() {
+        PunishmentRecord row = map("s", fields("player_name", "Steve", "type", "kick", "date", "1"));
+        assertEquals(UUID.nameUUIDFromBytes("OfflinePlayer:Steve".getBytes(StandardCharsets.UTF_8)).toString(),
+                row.playerUuid());
+    }
+
+    @Test
+    void unusableRowsAreSkipped() {
+        assertNull(map("s", fields("player_uuid", PLAYER, "type", "warn")), "no date");
+        assertNull(map("s", fields("player_uuid", PLAYER, "type", "jail", "date", "1")), "unknown type");
+        assertNull(map("s", fields("player_uuid", "not-a-uuid", "type", "warn", "date", "1")), "no player");
+    }
+
+    @Test
+    void csvRowsUndoTheExportersFormulaGuard(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("export.csv");
+        try (Writer csv = Files.newBufferedWriter(file)) {
+            csv.write("ID,Player_UUID,type,date,rule,staff_name\n");
+            csv.write("," + PLAYER + ",warn,1,");
+            ExportManager.csvField(csv, "=cmd|' /C calc'!A0").write(',');
+            ExportManager.csvField(csv, "Mod, \"senior\"");
+            csv.write('\n');
+            csv.write("," + PLAYER + ",warn\n");
+        }
+
+        try (ImportManager.CsvRows rows = new ImportManager.CsvRows(file.toFile())) {
+            assertTrue(rows.next());
+            PunishmentRecord row = rows.current();
+            assertEquals("=cmd|' /C calc'!A0", row.rule());
+            assertEquals("Mod, \"senior\"", row.staffName());
+            assertEquals(1, rows.position());
+
+            assertTrue(rows.next());
+            assertNull(rows.current(), "short records miss their date");
+            assertFalse(rows.next());
+        }
+    }
+
+    @Test
+    void emptyCsvFilesAreRejected(@TempDir Path dir) throws IOException {
+        Path file = Files.createFile(dir.resolve("empty.csv"));
+        assertThrows(IOException.class, () -> new ImportManager.CsvRows(file.toFile()));
+    }
+}
@@ -0,0 +1,148 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.QueuedPunishment;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PunishmentQueueManagerTest {
+    private static final Logger LOGGER = Logger.getLogger("PunishmentQueueManagerTest");
+
+    /** Records calls; each step can be made to fail */
+    private static class Steps implements PunishmentQueueManager.ApprovalSteps {
+        final AtomicInteger applied = new AtomicInteger();
+        final AtomicInteger announced = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        CompletableFuture<Boolean> applyResult = CompletableFuture.completedFuture(true);
+        boolean failAnnounce;
+        boolean failComplete;
+
+        @Override
+        public CompletableFuture<Boolean> apply(QueuedPunishment queued, String adminName) {
+            applied.incrementAndGet();
+            return applyResult;
+        }
+
+        @Override
+        public void announce(QueuedPunishment queued, boolean approved, CommandSender admin, String adminName) {
+            announced.incrementAndGet();
+            if (failAnnounce) throw new IllegalStateException("announce failed");
+        }
+
+        @Override
+        public void complete(QueuedPunishment queued, boolean approved, String adminName) {
+            completed.incrementAndGet();
+            if (failComplete) throw new IllegalStateException("complete failed");
+        }
+    }
+
+    private static QueuedPunishment queued() {
+        return new QueuedPunishment(UUID.randomUUID(), "Steve", "cheating", "ban", "30d", "Alex", UUID.randomUUID());
+    }
+
+    private static PunishmentQueueManager manager(Steps steps) {
+        return new PunishmentQueueManager(LOGGER, steps, Runnable::run, Runnable::run);
+    }
+
+    private static PunishmentQueueManager.ApprovalResult approve(PunishmentQueueManager manager, String id) {
+        return manager.processApproval(id, true, null, "Admin").join();
+    }
+
+    @Test
+    void approvalAppliesOnceAndRemovesEntry() {
+        Steps steps = new Steps();
+        PunishmentQueueManager manager = manager(steps);
+        QueuedPunishment queued = queued();
+        manager.enqueue(queued);
+
+        assertEquals(PunishmentQueueManager.ApprovalResult.APPROVED, approve(manager, queued.getApprovalId()));
+        assertEquals(PunishmentQueueManager.ApprovalResult.NOT_FOUND, approve(manager, queued.getApprovalId()));
+        assertEquals(1, steps.applied.get());
+        assertEquals(1, steps.completed.get());
+        assertNull(manager.getQueuedPunishment(queued.getApprovalId()));
+    }
+
+    @Test
+    void denialNeverApplies() {
+        Steps steps = new Steps();
+        PunishmentQueueManager manager = manager(steps);
+        QueuedPunishment queued = queued();
+        manager.enqueue(queued);
+
+        assertEquals(PunishmentQueueManager.ApprovalResult.DENIED,
+                manager.processApproval(queued.getApprovalId(), false, null, "Admin").join());
+        assertEquals(0, steps.applied.get());
+        assertEquals(1, steps.completed.get());
+    }
+
+    @Test
+    void failedApplyPutsEntryBack() {
+        Steps steps = new Steps();
+        PunishmentQueueManager manager = manager(steps);
+        QueuedPunishment queued = queued();
+        manager.enqueue(queued);
+
+        steps.applyResult = CompletableFuture.completedFuture(false);
+        assertEquals(PunishmentQueueManager.ApprovalResult.FAILED, approve(manager, queued.getApprovalId()));
+        assertNotNull(manager.getQueuedPunishment(queued.getApprovalId()));
+
+        steps.applyResult = CompletableFuture.failedFuture(new IllegalStateException("player lookup failed"));
+        assertEquals(PunishmentQueueManager.ApprovalResult.FAILED, approve(manager, queued.getApprovalId()));
+        assertNotNull(manager.getQueuedPunishment(queued.getApprovalId()));
+        assertEquals(0, steps.completed.get(), "the queue row stays until it is resolved");
+
+        steps.applyResult = CompletableFuture.completedFuture(true);
+        assertEquals(PunishmentQueueManager.ApprovalResult.APPROVED, approve(manager, queued.getApprovalId()));
+    }
+
+    @Test
+    void failuresAfterApplyingDoNotPutEntryBack() {
+        Steps steps = new Steps();
+        steps.failAnnounce = true;
+        steps.failComplete = true;
+        PunishmentQueueManager manager = manager(steps);
+        QueuedPunishment queued = queued();
+        manager.enqueue(queued);
+
+        assertEquals(PunishmentQueueManager.ApprovalResult.APPROVED, approve(manager, queued.getApprovalId()));
+        assertEquals(1, steps.completed.get(), "announcing failed, but the queue row is still removed");
+        assertNull(manager.getQueuedPunishment(queued.getApprovalId()));
+        assertEquals(PunishmentQueueManager.ApprovalResult.NOT_FOUND, approve(manager, queued.getApprovalId()));
+        assertEquals(1, steps.applied.get());
+    }
+
+    @Test
+    void concurrentApprovalsApplyOnce() throws Exception {
+        Steps steps = new Steps();
+        CompletableFuture<Boolean> slowApply = new CompletableFuture<>();
+        steps.applyResult = slowApply;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PunishmentQueueManager manager = new PunishmentQueueManager(LOGGER, steps, executor, executor);
+            QueuedPunishment queued = queued();
+            manager.enqueue(queued);
+
+            CompletableFuture<PunishmentQueueManager.ApprovalResult> first =
+                    manager.processApproval(queued.getApprovalId(), true, null, "Admin");
+            CompletableFuture<PunishmentQueueManager.ApprovalResult> second =
+                    manager.processApproval(queued.getApprovalId(), true, null, "Other");
+            assertEquals(PunishmentQueueManager.ApprovalResult.NOT_FOUND, second.get(5, TimeUnit.SECONDS));
+            assertFalse(first.isDone(), "completes only once the punishment was applied");
+
+            slowApply.complete(true);
+            assertEquals(PunishmentQueueManager.ApprovalResult.APPROVED, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, steps.applied.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
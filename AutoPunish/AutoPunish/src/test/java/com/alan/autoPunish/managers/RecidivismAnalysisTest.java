@@ -0,0 +1,99 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.PunishmentRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecidivismAnalysisTest {
+    private static final Logger LOGGER = Logger.getLogger("RecidivismAnalysisTest");
+    private static final long DAY = AnalyticsManager.DAY;
+    private static final long NOW = 1000 * DAY;
+
+    private static PunishmentRule rule(String name, String... tiers) {
+        List<Map<String, String>> list = new ArrayList<>();
+        for (int i = 0; i < tiers.length; i += 2) list.add(Map.of("type", tiers[i], "duration", tiers[i + 1]));
+        return new PunishmentRule(name, list);
+    }
+
+    private static RecidivismAnalysis.Result run(HistorySnapshot history, Map<String, PunishmentRule> rules) {
+        RecidivismAnalysis analysis = new RecidivismAnalysis(history.finish(), rules, new PunishmentManager(LOGGER), NOW, 2);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            return analysis.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static RecidivismAnalysis.Curve curve(List<RecidivismAnalysis.Curve> curves, String rule, int tier) {
+        return curves.stream().filter(c -> c.rule().equals(rule) && c.tier() == tier).findFirst().orElseThrow();
+    }
+
+    @Test
+    void curvesFollowReoffendingAfterRelease() {
+        HistorySnapshot history = new HistorySnapshot();
+        // Reoffends 10 days after a warning, then is not seen again after a one day mute
+        history.add("p1", "spam", "warn", "0", 0);
+        history.add("p1", "spam", "mute", "1d", 10 * DAY);
+        history.add("p2", "spam", "warn", "0", 0);
+        history.add("p3", "cheating", "ban", "0", 5 * DAY);
+
+        RecidivismAnalysis.Result result = run(history, Map.of("spam", rule("spam", "warn", "0", "mute", "1d")));
+        assertEquals(4, result.rows());
+        assertEquals(3, result.players());
+        assertEquals(3, result.byRuleTier().size());
+
+        RecidivismAnalysis.Curve first = curve(result.byRuleTier(), "spam", 1);
+        assertEquals("warn", first.type());
+        assertEquals("0", first.duration());
+        assertEquals(2, first.punishments());
+        assertEquals(1, first.reoffended());
+        assertEquals(11, first.medianDays());
+        assertArrayEquals(new double[]{1, 1, 0.5, 0.5, 0.5, 0.5}, first.survival(), 1e-9);
+
+        RecidivismAnalysis.Curve second = curve(result.byRuleTier(), "spam", 2);
+        assertEquals("mute", second.type());
+        assertEquals(1, second.punishments());
+        assertEquals(0, second.reoffended());
+        assertEquals(-1, second.medianDays());
+        assertArrayEquals(new double[]{1, 1, 1, 1, 1, 1}, second.survival(), 1e-9);
+
+        RecidivismAnalysis.Curve unconfigured = curve(result.byRuleTier(), "cheating", 1);
+        assertNull(unconfigured.type());
+        assertEquals(1, unconfigured.permanent());
+        assertArrayEquals(new double[]{1, 1, 1, 1, 1, 1}, unconfigured.survival(), 1e-9);
+    }
+
+    @Test
+    void curvesPerTypeAreSortedByPunishments() {
+        HistorySnapshot history = new HistorySnapshot();
+        history.add("p1", "spam", "warn", "0", 0);
+        history.add("p1", "spam", "mute", "1d", 10 * DAY);
+        history.add("p2", "spam", "WARN", "0", 0);
+
+        List<RecidivismAnalysis.Curve> byType = run(history, Map.of()).byType();
+        assertEquals(List.of("warn", "mute"), byType.stream().map(RecidivismAnalysis.Curve::type).toList());
+        assertEquals(2, byType.get(0).punishments());
+        assertEquals(1, byType.get(0).reoffended());
+    }
+
+    @Test
+    void severityRaisesTier() {
+        HistorySnapshot history = new HistorySnapshot();
+        // A permanent ban is worth 5 points, enough for the second tier of any rule a day later
+        history.add("p1", "cheating", "ban", "0", 0);
+        history.add("p1", "spam", "warn", "0", DAY);
+
+        RecidivismAnalysis.Result result = run(history, Map.of("spam", rule("spam", "warn", "0", "mute", "1h", "ban", "1d")));
+        RecidivismAnalysis.Curve spam = curve(result.byRuleTier(), "spam", 2);
+        assertEquals("mute", spam.type());
+        assertEquals(1, spam.punishments());
+    }
+}
@@ -0,0 +1,111 @@
+package com.alan.autoPunish.managers;
+
+import com.alan.autoPunish.models.PunishmentRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSimulationTest {
+    private static final Logger LOGGER = Logger.getLogger("RuleSimulationTest");
+    private static final long DAY = AnalyticsManager.DAY;
+
+    /** Bans need approval; the real check reads the plugin configuration */
+    private static final PunishmentQueueManager QUEUE =
+            new PunishmentQueueManager(LOGGER, null, Runnable::run, Runnable::run) {
+                @Override
+                public boolean requiresApproval(String type, String duration) {
+                    return type.equalsIgnoreCase("ban");
+                }
+            };
+
+    private static PunishmentRule rule(String name, String... tiers) {
+        List<Map<String, String>> list = new ArrayList<>();
+        for (int i = 0; i < tiers.length; i += 2) list.add(Map.of("type", tiers[i], "duration", tiers[i + 1]));
+        return new PunishmentRule(name, list);
+    }
+
+    private static RuleSimulation.Result run(HistorySnapshot history, Map<String, PunishmentRule> current,
+                                             Map<String, PunishmentRule> candidate) {
+        RuleSimulation simulation = new RuleSimulation(history.finish(), current, candidate,
+                new PunishmentManager(LOGGER), QUEUE, 2);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            return simulation.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static RuleSimulation.RuleOutcome outcome(RuleSimulation.Result result, String rule) {
+        return result.rules().stream().filter(o -> o.rule().equals(rule)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void replaysHistoryUnderBothRuleSets() {
+        HistorySnapshot history = new HistorySnapshot();
+        history.add("p1", "spam", "warn", "0", 0);
+        history.add("p1", "spam", "mute", "1h", DAY);
+        history.add("p2", "spam", "warn", "0", 0);
+        history.add("p3", "cheating", "ban", "0", 0);
+
+        RuleSimulation.Result result = run(history,
+                Map.of("spam", rule("spam", "warn", "0", "mute", "1h"), "cheating", rule("cheating", "ban", "0")),
+                Map.of("spam", rule("spam", "mute", "1h", "ban", "7d"), "griefing", rule("griefing", "warn", "0")));
+
+        assertEquals(4, result.rows());
+        assertEquals(3, result.players());
+        assertEquals(List.of("cheating", "griefing", "spam"),
+                result.rules().stream().map(RuleSimulation.RuleOutcome::rule).toList());
+
+        RuleSimulation.RuleOutcome spam = outcome(result, "spam");
+        assertEquals(List.of(new RuleSimulation.TierOutcome(1, "warn", "0", 2, 2),
+                new RuleSimulation.TierOutcome(2, "mute", "1h", 1, 1)), spam.current());
+        assertEquals(List.of(new RuleSimulation.TierOutcome(1, "mute", "1h", 2, 2),
+                new RuleSimulation.TierOutcome(2, "ban", "7d", 1, 1)), spam.candidate());
+        assertEquals(0, spam.currentApprovals());
+        assertEquals(1, spam.candidateApprovals());
+        assertEquals(3, spam.changed());
+
+        // Removed by the candidate: its punishments keep their recorded type and duration
+        RuleSimulation.RuleOutcome cheating = outcome(result, "cheating");
+        assertEquals(List.of(new RuleSimulation.TierOutcome(1, "ban", "0", 1, 1)), cheating.current());
+        assertTrue(cheating.candidate().isEmpty());
+        assertEquals(1, cheating.currentApprovals());
+        assertEquals(0, cheating.changed());
+
+        // Added by the candidate, nobody was punished for it yet
+        RuleSimulation.RuleOutcome griefing = outcome(result, "griefing");
+        assertTrue(griefing.current().isEmpty());
+        assertEquals(List.of(new RuleSimulation.TierOutcome(1, "warn", "0", 0, 0)), griefing.candidate());
+
+        assertEquals(1, result.currentApprovals());
+        assertEquals(1, result.candidateApprovals());
+        assertEquals(3, result.changed());
+    }
+
+    @Test
+    void replayedPunishmentsFeedSeverity() {
+        HistorySnapshot history = new HistorySnapshot();
+        history.add("p1", "spam", "warn", "0", 0);
+        history.add("p1", "cheating", "warn", "0", DAY);
+
+        // Under the candidate the spam offense is a permanent ban, which raises the cheating tier
+        PunishmentRule cheating = rule("cheating", "warn", "0", "mute", "1d", "ban", "0");
+        RuleSimulation.Result result = run(history,
+                Map.of("spam", rule("spam", "warn", "0"), "cheating", cheating),
+                Map.of("spam", rule("spam", "ban", "0"), "cheating", cheating));
+
+        RuleSimulation.RuleOutcome outcome = outcome(result, "cheating");
+        assertEquals(1, outcome.current().get(0).punishments());
+        assertEquals(0, outcome.current().get(1).punishments());
+        assertEquals(0, outcome.candidate().get(0).punishments());
+        assertEquals(1, outcome.candidate().get(1).punishments());
+        assertEquals(1, outcome.changed());
+    }
+}
@@ -0,0 +1,42 @@
+package com.alan.autoPunish.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    private static List<List<String>> readAll(String text) throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(text));
+        List<List<String>> records = new ArrayList<>();
+        for (List<String> record = csv.next(); record != null; record = csv.next()) records.add(record);
+        return records;
+    }
+
+    @Test
+    void readsPlainRecordsWithAnyLineEnding() throws IOException {
+        assertEquals(List.of(List.of("a", "b", ""), List.of("c", "", "d"), List.of("e")),
+                readAll("a,b,\nc,,d\r\ne"));
+        assertEquals(List.of(List.of("a"), List.of("b")), readAll("a\r\rb\r"), "blank lines are skipped");
+        assertTrue(readAll("").isEmpty());
+    }
+
+    @Test
+    void quotedFieldsKeepSeparatorsQuotesAndNewlines() throws IOException {
+        assertEquals(List.of(List.of("spam, repeated", "said \"hi\"", "two\r\nlines"), List.of("next")),
+                readAll("\"spam, repeated\",\"said \"\"hi\"\"\",\"two\r\nlines\"\nnext\n"));
+        assertEquals(List.of(List.of("", "x")), readAll("\"\",x"));
+        // A quote inside an unquoted field is literal
+        assertEquals(List.of(List.of("5\" screen")), readAll("5\" screen"));
+    }
+
+    @Test
+    void unterminatedQuoteFails() {
+        assertThrows(IOException.class, () -> readAll("\"never closed,\n"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.alan.autoPunish.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsBurstThenThrottles() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+        assertTrue(bucket.isIdle());
+        for (int i = 0; i < 3; i++) assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        assertFalse(bucket.isIdle());
+
+        long wait = bucket.nanosUntilAvailable();
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "next token within one interval, was " + wait);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!bucket.tryAcquire()) {
+            assertTrue(System.nanoTime() < deadline, "a token is back after 10ms");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(50, 0.001);
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        if (bucket.tryAcquire()) acquired.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(50, acquired.get());
+    }
+}
@@ -0,0 +1,45 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCachingTest {
+    // Tue, 15 Nov 1994 08:12:31 GMT
+    private static final long MODIFIED = 784887151_000L;
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        String etag = "\"punishments-abc-3\"";
+        assertTrue(HttpCaching.matches(etag, etag));
+        assertTrue(HttpCaching.matches("\"other\", " + etag, etag));
+        assertTrue(HttpCaching.matches("W/" + etag, etag));
+        assertTrue(HttpCaching.matches("*", etag));
+        assertFalse(HttpCaching.matches("\"punishments-abc-2\"", etag));
+    }
+
+    @Test
+    void ifModifiedSinceComparesWholeSeconds() {
+        String date = "Tue, 15 Nov 1994 08:12:31 GMT";
+        assertTrue(HttpCaching.notModifiedSince(date, MODIFIED));
+        assertTrue(HttpCaching.notModifiedSince(date, MODIFIED + 999), "sub-second changes are invisible to HTTP dates");
+        assertFalse(HttpCaching.notModifiedSince(date, MODIFIED + 1000));
+        assertFalse(HttpCaching.notModifiedSince("yesterday", MODIFIED));
+        assertFalse(HttpCaching.notModifiedSince(null, MODIFIED));
+    }
+
+    @Test
+    void dataVersionTagChangesOnEveryBump() {
+        DataVersion version = new DataVersion("punishments");
+        String before = version.etag("page", 1);
+        assertEquals(before, version.etag("page", 1));
+        assertNotEquals(before, version.etag("page", 2));
+        assertTrue(before.startsWith("\"punishments-") && before.endsWith("-0-page-1\""), before);
+
+        long modified = version.getLastModified();
+        version.bump();
+        assertEquals(1, version.get());
+        assertNotEquals(before, version.etag("page", 1));
+        assertTrue(version.getLastModified() >= modified);
+    }
+}
@@ -0,0 +1,79 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    private static final long LOCKOUT = 60_000L;
+    private static final long NOW = 1_000_000_000L;
+
+    @Test
+    void locksOutUserAfterRepeatedFailures() {
+        LoginThrottle throttle = new LoginThrottle(3, 100, LOCKOUT, 100);
+        for (int i = 0; i < 2; i++) throttle.recordFailure("Admin", "10.0.0.1", NOW);
+        assertEquals(0, throttle.lockedFor("admin", "10.0.0.1", NOW));
+
+        throttle.recordFailure("ADMIN", "10.0.0.2", NOW);
+        assertEquals(LOCKOUT, throttle.lockedFor("admin", "10.0.0.3", NOW), "usernames match case-insensitively");
+        assertEquals(0, throttle.lockedFor("other", "10.0.0.1", NOW));
+        assertEquals(0, throttle.lockedFor("admin", "10.0.0.1", NOW + LOCKOUT));
+    }
+
+    @Test
+    void locksOutAddressAcrossUsernames() {
+        LoginThrottle throttle = new LoginThrottle(100, 2, LOCKOUT, 100);
+        throttle.recordFailure("alice", "10.0.0.1", NOW);
+        throttle.recordFailure("bob", "10.0.0.1", NOW);
+
+        assertEquals(LOCKOUT, throttle.lockedFor("carol", "10.0.0.1", NOW));
+        assertEquals(0, throttle.lockedFor("carol", "10.0.0.2", NOW));
+    }
+
+    @Test
+    void lockoutsDoubleUntilTheFailuresAge() {
+        LoginThrottle throttle = new LoginThrottle(1, 100, LOCKOUT, 100);
+        throttle.recordFailure("admin", "10.0.0.1", NOW);
+        assertEquals(LOCKOUT, throttle.lockedFor("admin", "10.0.0.1", NOW));
+
+        long later = NOW + LOCKOUT;
+        throttle.recordFailure("admin", "10.0.0.1", later);
+        assertEquals(2 * LOCKOUT, throttle.lockedFor("admin", "10.0.0.1", later));
+
+        // Capped at 15 minutes
+        long muchLater = later + 2 * LOCKOUT;
+        for (int i = 0; i < 10; i++) throttle.recordFailure("admin", "10.0.0.1", muchLater);
+        assertEquals(15 * 60_000L, throttle.lockedFor("admin", "10.0.0.1", muchLater));
+
+        // A quiet period starts over from the base lockout
+        long quiet = muchLater + 31 * 60_000L;
+        throttle.recordFailure("admin", "10.0.0.1", quiet);
+        assertEquals(LOCKOUT, throttle.lockedFor("admin", "10.0.0.1", quiet));
+    }
+
+    @Test
+    void successClearsOnlyTheUsersFailures() {
+        LoginThrottle throttle = new LoginThrottle(2, 3, LOCKOUT, 100);
+        throttle.recordFailure("admin", "10.0.0.1", NOW);
+        throttle.recordSuccess("admin");
+        throttle.recordFailure("admin", "10.0.0.1", NOW);
+        assertEquals(0, throttle.lockedFor("admin", "10.0.0.1", NOW));
+
+        // Logging in to another account between guesses does not reset the address
+        throttle.recordSuccess("mine");
+        throttle.recordFailure("victim", "10.0.0.1", NOW);
+        assertEquals(LOCKOUT, throttle.lockedFor("mine", "10.0.0.1", NOW));
+    }
+
+    @Test
+    void trackedEntriesAreCapped() {
+        LoginThrottle throttle = new LoginThrottle(5, 5, LOCKOUT, 4);
+        for (int i = 0; i < 10; i++) throttle.recordFailure("user" + i, "10.0.0." + i, NOW);
+        assertEquals(4, throttle.size());
+
+        // Stale entries make room again
+        long stale = NOW + 16 * 60_000L;
+        throttle.recordFailure("late", "10.0.1.1", stale);
+        assertEquals(2, throttle.size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PanelSessionStoreTest {
+    private static final Logger LOGGER = Logger.getLogger("PanelSessionStoreTest");
+    private static final long TTL = 60_000L;
+
+    /** Records what the store writes instead of touching a database */
+    private static class RecordingPersistence implements SessionPersistence {
+        final List<PanelSession> stored = new ArrayList<>();
+        final List<PanelSession> saved = new ArrayList<>();
+        final List<String> deleted = new ArrayList<>();
+        final List<String> deletedUsers = new ArrayList<>();
+        int expiryUpdates;
+
+        @Override
+        public List<PanelSession> loadSessions(long now) {
+            return stored;
+        }
+
+        @Override
+        public void saveSession(PanelSession session) {
+            saved.add(session);
+        }
+
+        @Override
+        public void updateExpiry(Collection<PanelSession> sessions) {
+            expiryUpdates++;
+        }
+
+        @Override
+        public void deleteSession(String key) {
+            deleted.add(key);
+        }
+
+        @Override
+        public void deleteSessionsForUser(String username) {
+            deletedUsers.add(username);
+        }
+
+        @Override
+        public void deleteExpiredSessions(long now) {
+        }
+    }
+
+    @Test
+    void loginAuthenticatesUntilLogout() {
+        RecordingPersistence persistence = new RecordingPersistence();
+        PanelSessionStore store = new PanelSessionStore(TTL, 100, 60, persistence, LOGGER);
+
+        String token = store.login("admin", "uuid-1", "ADMIN");
+        PanelSession session = store.authenticate(token);
+        assertNotNull(session);
+        assertEquals("admin", session.getUsername());
+        assertEquals("ADMIN", session.getRole());
+        assertNotEquals(token, session.getKey(), "only a hash of the token is stored");
+        assertEquals(List.of(session), persistence.saved);
+
+        assertNull(store.authenticate(token + "x"));
+        assertNull(store.authenticate(""));
+        assertNull(store.authenticate(null));
+
+        store.logout(token);
+        assertNull(store.authenticate(token));
+        assertEquals(List.of(session.getKey()), persistence.deleted);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void logoutUserDropsEverySessionOfThatUser() {
+        PanelSessionStore store = new PanelSessionStore(TTL, 100, 60, null, LOGGER);
+        String first = store.login("Admin", "uuid-1", "ADMIN");
+        String second = store.login("admin", "uuid-1", "ADMIN");
+        String other = store.login("mod", "uuid-2", "MODERATOR");
+
+        store.logoutUser("ADMIN");
+        assertNull(store.authenticate(first));
+        assertNull(store.authenticate(second));
+        assertNotNull(store.authenticate(other));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void fullShardsEvictAndDeleteTheirOldestSession() {
+        RecordingPersistence persistence = new RecordingPersistence();
+        // One session per shard
+        PanelSessionStore store = new PanelSessionStore(TTL, 1, 60, persistence, LOGGER);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 64; i++) tokens.add(store.login("user" + i, "uuid-" + i, "VIEWER"));
+
+        assertTrue(store.size() <= 16, "never more than one session per shard, was " + store.size());
+        assertEquals(64 - store.size(), persistence.deleted.size());
+        assertNotNull(store.authenticate(tokens.get(63)), "the newest login is never the one evicted");
+    }
+
+    @Test
+    void startRestoresLiveSessionsAndSweepDropsExpiredOnes() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        RecordingPersistence persistence = new RecordingPersistence();
+        persistence.stored.add(new PanelSession("live", "admin", "uuid-1", "ADMIN", now, now, now + TTL));
+        persistence.stored.add(new PanelSession("short", "mod", "uuid-2", "MODERATOR", now, now, now + 50));
+        persistence.stored.add(new PanelSession("gone", "mod", "uuid-2", "MODERATOR", now - TTL, now - TTL, now - 1));
+
+        PanelSessionStore store = new PanelSessionStore(TTL, 100, 60, persistence, LOGGER);
+        store.start();
+        try {
+            assertEquals(2, store.size(), "expired sessions are not restored");
+
+            Thread.sleep(100);
+            store.sweep();
+            assertEquals(1, store.size());
+            // Nothing was used, so no expiry needs rewriting
+            assertEquals(0, persistence.expiryUpdates);
+        } finally {
+            store.stop();
+        }
+    }
+}
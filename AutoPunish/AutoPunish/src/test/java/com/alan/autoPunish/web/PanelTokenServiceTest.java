@@ -0,0 +1,78 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PanelTokenServiceTest {
+    private static final Logger LOGGER = Logger.getLogger("PanelTokenServiceTest");
+    private static final long TTL = 3_600_000L;
+
+    private static PanelTokenService service(String secret) {
+        return new PanelTokenService(secret.getBytes(StandardCharsets.UTF_8), TTL, 60, null, LOGGER);
+    }
+
+    @Test
+    void issuedTokenAuthenticates() {
+        PanelTokenService tokens = service("secret");
+        PanelSession session = tokens.authenticate(tokens.login("Admin", "uuid-1", "admin"));
+
+        assertNotNull(session);
+        assertEquals("Admin", session.getUsername());
+        assertEquals("uuid-1", session.getUuid());
+        assertEquals("admin", session.getRole());
+        assertTrue(session.getExpiresAt() > System.currentTimeMillis() + TTL / 2);
+    }
+
+    @Test
+    void rejectsForgedTokens() {
+        PanelTokenService tokens = service("secret");
+        String token = tokens.login("Admin", "uuid-1", "staff");
+        int dot = token.lastIndexOf('.');
+
+        assertNull(service("other secret").authenticate(token));
+        // Same signature over a changed payload
+        char flipped = token.charAt(0) == 'e' ? 'f' : 'e';
+        assertNull(tokens.authenticate(flipped + token.substring(1)));
+        assertNull(tokens.authenticate(token.substring(0, dot)));
+        assertNull(tokens.authenticate("garbage"));
+        assertNull(tokens.authenticate(null));
+    }
+
+    @Test
+    void refreshRenewsOnlyPastHalfTheLifetime() {
+        PanelTokenService tokens = service("secret");
+        String token = tokens.login("Admin", "uuid-1", "staff");
+        PanelSession fresh = tokens.authenticate(token);
+        assertSame(token, tokens.refresh(token, fresh));
+
+        long now = System.currentTimeMillis();
+        PanelSession ageing = new PanelSession(fresh.getKey(), "Admin", "uuid-1", "staff", now - TTL, now, now + 1000);
+        String renewed = tokens.refresh(token, ageing);
+        assertNotEquals(token, renewed);
+        assertNotNull(tokens.authenticate(renewed));
+        assertNotNull(tokens.authenticate(token), "the old token is accepted for a grace period");
+
+        // Logging out the renewed token also revokes the one it replaced
+        tokens.logout(renewed);
+        assertNull(tokens.authenticate(renewed));
+        assertNull(tokens.authenticate(token));
+    }
+
+    @Test
+    void logoutUserRevokesIssuedTokens() throws InterruptedException {
+        PanelTokenService tokens = service("secret");
+        String token = tokens.login("Admin", "uuid-1", "staff");
+        String other = tokens.login("Other", "uuid-2", "staff");
+
+        tokens.logoutUser("admin");
+        assertNull(tokens.authenticate(token));
+        assertNotNull(tokens.authenticate(other));
+
+        Thread.sleep(2);
+        assertNotNull(tokens.authenticate(tokens.login("Admin", "uuid-1", "staff")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerNameIndexTest {
+
+    private static List<String> names(List<PlayerNameIndex.Match> matches) {
+        return matches.stream().map(PlayerNameIndex.Match::name).toList();
+    }
+
+    @Test
+    void searchesByPrefixAcrossSplitEdges() {
+        PlayerNameIndex index = new PlayerNameIndex();
+        index.add("Steve", "u1", 10);
+        index.add("Stephen", "u2", 30);
+        index.add("st", "u3", 20);
+        index.add("Alex", "u4", 40);
+
+        assertEquals(List.of("Stephen", "st", "Steve"), names(index.search("ST", 10)));
+        assertEquals(List.of("Stephen", "Steve"), names(index.search("ste", 10)), "prefix ends inside an edge");
+        assertEquals(List.of("Steve"), names(index.search("stev", 10)));
+        assertEquals(List.of("Stephen", "st"), names(index.search("s", 2)), "most recent first, up to the limit");
+        assertTrue(index.search("stx", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void keepsTheLatestSightingPerNameAndPlayer() {
+        PlayerNameIndex index = new PlayerNameIndex();
+        index.add("Notch", "u1", 50);
+        index.add("notch", "u1", 20);
+        index.add("Notch", "u2", 30);
+
+        List<PlayerNameIndex.Match> matches = index.search("notch", 10);
+        assertEquals(List.of(new PlayerNameIndex.Match("Notch", "u1", 50), new PlayerNameIndex.Match("Notch", "u2", 30)),
+                matches);
+    }
+
+    @Test
+    void removeForgetsEveryNameOfThePlayer() {
+        PlayerNameIndex index = new PlayerNameIndex();
+        index.add("OldName", "u1", 10);
+        index.add("NewName", "u1", 20);
+        index.add("Newbie", "u2", 5);
+
+        index.remove("u1");
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of("Newbie"), names(index.search("new", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void matchesBruteForceOnRandomNames() {
+        Random random = new Random(42);
+        PlayerNameIndex index = new PlayerNameIndex();
+        Map<String, Long> latest = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int c = 0; c < length; c++) name.append((char) ('a' + random.nextInt(3)));
+            long seen = random.nextInt(1_000_000);
+            index.add(name.toString(), "uuid-" + name, seen);
+            latest.merge(name.toString(), seen, Math::max);
+        }
+
+        for (String prefix : List.of("a", "ab", "cab", "bbb", "abcab")) {
+            List<Long> expected = new ArrayList<>();
+            latest.forEach((name, seen) -> {
+                if (name.startsWith(prefix)) expected.add(seen);
+            });
+            expected.sort(Comparator.reverseOrder());
+
+            List<Long> actual = index.search(prefix, 5).stream().map(PlayerNameIndex.Match::lastSeen).toList();
+            assertEquals(expected.subList(0, Math.min(5, expected.size())), actual, "prefix " + prefix);
+        }
+    }
+}
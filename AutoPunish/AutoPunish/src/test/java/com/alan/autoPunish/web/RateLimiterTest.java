@@ -0,0 +1,61 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> budgetStats(RateLimiter limiter, String budget) {
+        return (Map<String, Object>) ((Map<String, Object>) limiter.getStats().get("budgets")).get(budget);
+    }
+
+    @Test
+    void budgetsAreSeparatePerAddress() {
+        RateLimiter limiter = new RateLimiter(100, false);
+        limiter.addBudget("api", 2, 1);
+
+        assertEquals(-1, limiter.acquire("api", "10.0.0.1"));
+        assertEquals(-1, limiter.acquire("api", "10.0.0.1"));
+        long wait = limiter.acquire("api", "10.0.0.1");
+        assertTrue(wait > 0, "third request is throttled");
+
+        assertEquals(-1, limiter.acquire("api", "10.0.0.2"));
+        assertEquals(-1, limiter.acquire("unknown", "10.0.0.1"), "requests without a budget are not limited");
+
+        Map<String, Object> stats = budgetStats(limiter, "api");
+        assertEquals(3L, stats.get("allowed"));
+        assertEquals(1L, stats.get("throttled"));
+        assertEquals(2, limiter.getStats().get("trackedBuckets"));
+    }
+
+    @Test
+    void addressesPastTheCapShareTheOverflowBucket() {
+        RateLimiter limiter = new RateLimiter(1, false);
+        limiter.addBudget("api", 1, 1);
+
+        assertEquals(-1, limiter.acquire("api", "10.0.0.1"));
+        assertEquals(-1, limiter.acquire("api", "10.0.0.2"));
+        assertTrue(limiter.acquire("api", "10.0.0.3") > 0, "the overflow bucket was spent by the previous address");
+
+        assertEquals(2L, budgetStats(limiter, "api").get("overflow"));
+        assertEquals(1, limiter.getStats().get("trackedBuckets"));
+    }
+
+    @Test
+    void sweepDropsOnlyRefilledBuckets() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(100, false);
+        limiter.addBudget("fast", 1, 6000);
+        limiter.addBudget("slow", 1, 1);
+
+        limiter.acquire("fast", "10.0.0.1");
+        limiter.acquire("slow", "10.0.0.1");
+        // A fast token is back after 10ms
+        Thread.sleep(50);
+        limiter.sweep();
+        assertEquals(1, limiter.getStats().get("trackedBuckets"));
+    }
+}
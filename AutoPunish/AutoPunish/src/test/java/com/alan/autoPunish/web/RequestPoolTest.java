@@ -0,0 +1,94 @@
+package com.alan.autoPunish.web;
+
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPoolTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicBoolean cancelledSeen = new AtomicBoolean();
+    private RequestPool pool;
+    private Javalin app;
+
+    @BeforeEach
+    void start() {
+        pool = new RequestPool("test", 1, 4, 300, false);
+        app = Javalin.create();
+        app.get("/slow", pool.wrap(ctx -> {
+            started.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            cancelledSeen.set(RequestPool.isCancelled(ctx));
+            ctx.result("slow");
+        }));
+        app.get("/fast", pool.wrap(ctx -> {
+            started.incrementAndGet();
+            ctx.result("fast");
+        }));
+        app.start(0);
+    }
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        app.stop();
+        pool.shutdown();
+    }
+
+    private CompletableFuture<HttpResponse<String>> get(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + app.port() + path)).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void timedOutHandlerGivesItsSlotBack() throws Exception {
+        HttpResponse<String> slow = get("/slow").get(5, TimeUnit.SECONDS);
+        assertEquals(503, slow.statusCode());
+        assertNotNull(slow.headers().firstValue("Retry-After").orElse(null));
+
+        // The slow handler still runs, but no longer holds the only slot
+        HttpResponse<String> fast = get("/fast").get(5, TimeUnit.SECONDS);
+        assertEquals(200, fast.statusCode());
+        assertEquals("fast", fast.body());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cancelledSeen.get() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(cancelledSeen.get(), "the handler sees that its request timed out");
+    }
+
+    @Test
+    void requestTimedOutWhileQueuedNeverRuns() throws Exception {
+        // Background work holds the only slot; unlike requests it has no timeout
+        CountDownLatch holding = new CountDownLatch(1);
+        pool.execute(() -> {
+            holding.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        assertEquals(503, get("/fast").get(5, TimeUnit.SECONDS).statusCode());
+        release.countDown();
+        assertEquals(200, get("/fast").get(5, TimeUnit.SECONDS).statusCode());
+        assertEquals(1, started.get(), "the timed-out queued request was skipped");
+        assertEquals(1L, pool.getStats().get("timedOut"));
+    }
+}
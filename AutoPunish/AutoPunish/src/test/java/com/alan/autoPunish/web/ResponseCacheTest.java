@@ -0,0 +1,63 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> routeStats(ResponseCache cache, String route) {
+        return (Map<String, Object>) ((Map<String, Object>) cache.getStats().get("routes")).get(route);
+    }
+
+    @Test
+    void entriesOnlyHitForTheirGeneration() {
+        ResponseCache cache = new ResponseCache(1024);
+        byte[] body = {1, 2, 3};
+        cache.put("stats", "all", "\"v1\"", body);
+
+        assertArrayEquals(body, cache.get("stats", "all", "\"v1\""));
+        assertNull(cache.get("stats", "other", "\"v1\""));
+        assertNull(cache.get("stats", "all", "\"v2\""), "a write moved the generation on");
+        // The stale entry was dropped on the miss
+        assertNull(cache.get("stats", "all", "\"v1\""));
+        assertEquals(0, cache.getStats().get("entries"));
+        assertEquals(0L, cache.getStats().get("bytes"));
+
+        Map<String, Object> stats = routeStats(cache, "stats");
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(3L, stats.get("misses"));
+        assertEquals(0.25, stats.get("hitRate"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPastTheByteLimit() {
+        ResponseCache cache = new ResponseCache(800);
+        cache.put("list", "a", "g", new byte[100]);
+        cache.put("list", "b", "g", new byte[100]);
+        assertNotNull(cache.get("list", "a", "g"));
+
+        for (int i = 0; i < 7; i++) cache.put("list", "filler" + i, "g", new byte[100]);
+        assertNotNull(cache.get("list", "a", "g"), "recently read entries survive");
+        assertNull(cache.get("list", "b", "g"));
+        assertEquals(800L, cache.getStats().get("bytes"));
+        assertEquals(1L, routeStats(cache, "list").get("evictions"));
+    }
+
+    @Test
+    void oversizedBodiesAreNotCached() {
+        ResponseCache cache = new ResponseCache(800);
+        cache.put("export", "all", "g", new byte[101]);
+        assertNull(cache.get("export", "all", "g"));
+
+        cache.put("export", "all", "g", new byte[100]);
+        cache.put("export", "all", "g", new byte[50]);
+        assertEquals(50L, cache.getStats().get("bytes"), "replacing an entry releases its old size");
+
+        cache.clear();
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticSnapshotsTest {
+    private static final Logger LOGGER = Logger.getLogger("StaticSnapshotsTest");
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(20);
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.exists(file) ? Files.readString(file) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, byte[]> files(String index, String stats) {
+        return Map.of("index.json", index.getBytes(StandardCharsets.UTF_8),
+                "api/stats.json", stats.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rendersPlainAndGzippedFilesAndReplacesOnlyChangedOnes(@TempDir Path dir) throws Exception {
+        DataVersion version = new DataVersion("s");
+        AtomicReference<Map<String, byte[]>> content = new AtomicReference<>(files("[1]", "{}"));
+        AtomicInteger changes = new AtomicInteger();
+        StaticSnapshots snapshots = new StaticSnapshots(dir, version, 0, content::get, changes::incrementAndGet, LOGGER);
+        snapshots.start();
+        try {
+            Path index = snapshots.getPlainDirectory().resolve("index.json");
+            Path stats = snapshots.getPlainDirectory().resolve("api/stats.json");
+            await(() -> "{}".equals(read(stats)) && "[1]".equals(read(index)), "initial render");
+            assertEquals("{}", gunzip(snapshots.getGzipDirectory().resolve("api/stats.json")));
+            assertEquals(0, changes.get(), "the first render is not a data change");
+
+            FileTime statsWritten = Files.getLastModifiedTime(stats);
+            content.set(files("[1,2]", "{}"));
+            version.bump();
+            await(() -> changes.get() == 1, "re-rendered after the write");
+            assertEquals("[1,2]", read(index));
+            assertEquals("[1,2]", gunzip(snapshots.getGzipDirectory().resolve("index.json")));
+            assertEquals(statsWritten, Files.getLastModifiedTime(stats), "unchanged files are left alone");
+            try (var leftovers = Files.list(snapshots.getPlainDirectory())) {
+                assertTrue(leftovers.noneMatch(file -> file.toString().endsWith(".tmp")));
+            }
+        } finally {
+            snapshots.stop();
+        }
+    }
+
+    @Test
+    void failedRenderIsRetriedOnTheNextChange(@TempDir Path dir) throws Exception {
+        DataVersion version = new DataVersion("s");
+        AtomicInteger renders = new AtomicInteger();
+        StaticSnapshots snapshots = new StaticSnapshots(dir, version, 0, () -> {
+            if (renders.incrementAndGet() == 1) throw new IllegalStateException("database unavailable");
+            return files("[]", "{}");
+        }, null, LOGGER);
+        snapshots.start();
+        try {
+            await(() -> renders.get() == 1, "initial render");
+            Thread.sleep(300);
+            assertEquals(1, renders.get(), "no retry on every tick");
+            assertFalse(Files.exists(snapshots.getPlainDirectory().resolve("index.json")));
+
+            version.bump();
+            await(() -> "[]".equals(read(snapshots.getPlainDirectory().resolve("index.json"))), "render after the write");
+        } finally {
+            snapshots.stop();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.alan.autoPunish.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+    private static final Logger LOGGER = Logger.getLogger("TokenRevocationListTest");
+    private static final long HOUR = 3_600_000L;
+
+    /** Keeps saved revocations in a list */
+    private static class Store implements RevocationPersistence {
+        final List<TokenRevocation> saved = new ArrayList<>();
+
+        @Override
+        public void saveRevocation(TokenRevocation revocation) {
+            saved.add(revocation);
+        }
+
+        @Override
+        public List<TokenRevocation> loadRevocations(long revokedSince) {
+            return saved.stream().filter(revocation -> revocation.revokedAt() >= revokedSince).toList();
+        }
+
+        @Override
+        public void deleteExpiredRevocations(long now) {
+            saved.removeIf(revocation -> revocation.expiresAt() <= now);
+        }
+    }
+
+    @Test
+    void supersededTokenStaysValidDuringGrace() {
+        TokenRevocationList list = new TokenRevocationList(null, LOGGER);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        list.supersedeToken("old", expiresAt, 60_000L);
+        assertFalse(list.isRevoked("old", "admin", 0));
+
+        // A logout during the grace period applies at once
+        list.revokeToken("old", expiresAt);
+        assertTrue(list.isRevoked("old", "admin", 0));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void revokedUserRejectsEarlierTokensOnly() {
+        TokenRevocationList list = new TokenRevocationList(null, LOGGER);
+        long now = System.currentTimeMillis();
+        list.revokeUser("Admin", HOUR);
+
+        assertTrue(list.isRevoked("any", "admin", now - 1000));
+        assertFalse(list.isRevoked("any", "admin", now + 60_000L));
+        assertFalse(list.isRevoked("any", "other", now - 1000));
+    }
+
+    @Test
+    void supersededTokensAreSavedOnSync() {
+        Store store = new Store();
+        TokenRevocationList list = new TokenRevocationList(store, LOGGER);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+
+        list.revokeToken("logged-out", expiresAt);
+        list.supersedeToken("renewed", expiresAt, 10_000L);
+        assertEquals(List.of("logged-out"), store.saved.stream().map(TokenRevocation::subject).toList());
+
+        list.sync();
+        assertEquals(List.of("logged-out", "renewed"), store.saved.stream().map(TokenRevocation::subject).toList());
+
+        // Another node picks both up
+        TokenRevocationList other = new TokenRevocationList(store, LOGGER);
+        other.sync();
+        assertTrue(other.isRevoked("logged-out", "admin", 0));
+        assertEquals(2, other.size());
+    }
+
+    @Test
+    void syncForgetsExpiredEntries() {
+        Store store = new Store();
+        TokenRevocationList list = new TokenRevocationList(store, LOGGER);
+        list.revokeToken("expired", System.currentTimeMillis() - 1);
+        list.revokeUser("admin", -1);
+
+        list.sync();
+        assertEquals(0, list.size());
+        assertTrue(store.saved.isEmpty());
+    }
+}
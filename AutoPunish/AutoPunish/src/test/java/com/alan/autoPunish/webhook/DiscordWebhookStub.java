@@ -0,0 +1,175 @@
+package com.alan.autoPunish.webhook;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for a Discord webhook endpoint, used to exercise webhook delivery offline.
+ *
+ * Behaviour is configurable per test: artificial latency, a 429 with Discord's rate-limit
+ * headers every N requests, and a 5xx every M requests.
+ */
+public class DiscordWebhookStub implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile long latencyMillis;
+    private volatile int rateLimitEvery;
+    private volatile double rateLimitResetSeconds = 0.05;
+    private volatile int failEvery;
+
+    private final AtomicInteger requestCounter = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final ConcurrentLinkedQueue<Received> received = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A successfully accepted request
+     *
+     * @param body         Raw request body
+     * @param receivedNanos System.nanoTime() when the request was accepted
+     */
+    public record Received(String body, long receivedNanos) {
+    }
+
+    public DiscordWebhookStub() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newFixedThreadPool(16);
+        server.createContext("/api/webhooks", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/webhooks/0/stub";
+    }
+
+    public DiscordWebhookStub latency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Answer every {@code every}-th request with 429 and a reset window of {@code resetSeconds}.
+     */
+    public DiscordWebhookStub rateLimitEvery(int every, double resetSeconds) {
+        this.rateLimitEvery = every;
+        this.rateLimitResetSeconds = resetSeconds;
+        return this;
+    }
+
+    /**
+     * Answer every {@code every}-th request with 502.
+     */
+    public DiscordWebhookStub failEvery(int every) {
+        this.failEvery = every;
+        return this;
+    }
+
+    public long acceptedCount() {
+        return accepted.get();
+    }
+
+    public long rateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    public List<Received> received() {
+        return List.copyOf(received);
+    }
+
+    /**
+     * Wait until at least {@code count} requests were accepted.
+     *
+     * @return true if reached before the timeout
+     */
+    public boolean awaitAccepted(long count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (accepted.get() < count) {
+            if (System.currentTimeMillis() > deadline) return false;
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"message\":\"405: Method Not Allowed\",\"code\":0}");
+                return;
+            }
+
+            long latency = latencyMillis;
+            if (latency > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            int n = requestCounter.incrementAndGet();
+            if (rateLimitEvery > 0 && n % rateLimitEvery == 0) {
+                rateLimited.incrementAndGet();
+                String reset = String.valueOf(rateLimitResetSeconds);
+                exchange.getResponseHeaders().add("Retry-After", reset);
+                exchange.getResponseHeaders().add("X-RateLimit-Limit", "5");
+                exchange.getResponseHeaders().add("X-RateLimit-Remaining", "0");
+                exchange.getResponseHeaders().add("X-RateLimit-Reset-After", reset);
+                exchange.getResponseHeaders().add("X-RateLimit-Bucket", "stub");
+                respond(exchange, 429, "{\"message\":\"You are being rate limited.\",\"retry_after\":" + reset + ",\"global\":false}");
+                return;
+            }
+            if (failEvery > 0 && n % failEvery == 0) {
+                failed.incrementAndGet();
+                respond(exchange, 502, "{\"message\":\"502: Bad Gateway\",\"code\":0}");
+                return;
+            }
+
+            received.add(new Received(new String(body, StandardCharsets.UTF_8), System.nanoTime()));
+            accepted.incrementAndGet();
+            exchange.getResponseHeaders().add("X-RateLimit-Limit", "5");
+            exchange.getResponseHeaders().add("X-RateLimit-Remaining", "4");
+            exchange.getResponseHeaders().add("X-RateLimit-Reset-After", "2.0");
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
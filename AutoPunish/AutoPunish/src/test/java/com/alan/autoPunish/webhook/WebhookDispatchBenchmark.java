@@ -0,0 +1,102 @@
+package com.alan.autoPunish.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Burst benchmark for {@link WebhookRouter} dispatch to two sinks backed by local stubs.
+ * It measures the router and its sink queues only, not {@code WebhookManager}'s event
+ * formatting or its digest.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class WebhookDispatchBenchmark {
+    private static final Logger LOGGER = Logger.getLogger("WebhookDispatchBenchmark");
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int BURST = 5000;
+
+    static {
+        LOGGER.setLevel(Level.SEVERE);
+    }
+
+    @Test
+    void healthyEndpoints() throws Exception {
+        run("healthy", 0, 0, 0);
+    }
+
+    @Test
+    void slowEndpoints() throws Exception {
+        run("5ms latency", 5, 0, 0);
+    }
+
+    @Test
+    void degradedEndpoints() throws Exception {
+        run("429 every 50, 502 every 40", 1, 50, 40);
+    }
+
+    private void run(String scenario, long latencyMillis, int rateLimitEvery, int failEvery) throws Exception {
+        try (DiscordWebhookStub first = new DiscordWebhookStub();
+             DiscordWebhookStub second = new DiscordWebhookStub()) {
+            for (DiscordWebhookStub stub : List.of(first, second)) {
+                stub.latency(latencyMillis);
+                if (rateLimitEvery > 0) stub.rateLimitEvery(rateLimitEvery, 0.01);
+                if (failEvery > 0) stub.failEvery(failEvery);
+            }
+
+            WebhookRouter router = new WebhookRouter(
+                    List.of(new WebhookSinkConfig("first", first.url(), "json", BURST, 600000, BURST, 3, 10),
+                            new WebhookSinkConfig("second", second.url(), "json", BURST, 600000, BURST, 3, 10)),
+                    List.of(new WebhookRoute(Set.of(), Set.of(), Set.of(), List.of("first", "second"))),
+                    LOGGER);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < BURST; i++) {
+                router.dispatch(new WebhookMessage(WebhookEventType.PUNISHMENT, "spam", "mute", "10m",
+                        "{\"content\":\"benchmark\"}", Map.of("seq", i, "sent_nanos", System.nanoTime())));
+            }
+            long enqueueNanos = System.nanoTime() - start;
+
+            first.awaitAccepted(BURST, 120000);
+            second.awaitAccepted(BURST, 120000);
+            long totalNanos = System.nanoTime() - start;
+            router.shutdown(1000);
+
+            List<Long> latencies = new ArrayList<>();
+            for (DiscordWebhookStub stub : List.of(first, second)) {
+                for (DiscordWebhookStub.Received received : stub.received()) {
+                    JsonNode body = JSON.readTree(received.body());
+                    latencies.add(received.receivedNanos() - body.get("sent_nanos").asLong());
+                }
+            }
+            Collections.sort(latencies);
+
+            long expected = 2L * BURST;
+            long delivered = latencies.size();
+            System.out.printf("[webhook router benchmark] %-28s dispatch %,10.0f msg/s | delivery %,8.0f msg/s | " +
+                            "p50 %6.1f ms | p99 %7.1f ms | loss %d/%d%n",
+                    scenario,
+                    BURST / (enqueueNanos / 1e9),
+                    delivered / (totalNanos / 1e9),
+                    percentile(latencies, 0.50) / 1e6,
+                    percentile(latencies, 0.99) / 1e6,
+                    expected - delivered, expected);
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
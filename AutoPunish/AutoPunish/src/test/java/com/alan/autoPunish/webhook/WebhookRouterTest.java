@@ -0,0 +1,149 @@
+package com.alan.autoPunish.webhook;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookRouterTest {
+    private static final Logger LOGGER = Logger.getLogger("WebhookRouterTest");
+
+    private DiscordWebhookStub bans;
+    private DiscordWebhookStub tooling;
+
+    @BeforeEach
+    void startStubs() throws Exception {
+        bans = new DiscordWebhookStub();
+        tooling = new DiscordWebhookStub();
+    }
+
+    @AfterEach
+    void stopStubs() {
+        bans.close();
+        tooling.close();
+    }
+
+    static WebhookSinkConfig sink(String name, String url, String format, int queueSize) {
+        return new WebhookSinkConfig(name, url, format, queueSize, 60000, 1000, 3, 10);
+    }
+
+    static WebhookMessage punishment(String rule, String type, String duration) {
+        return new WebhookMessage(WebhookEventType.PUNISHMENT, rule, type, duration,
+                "{\"content\":\"test\"}", Map.of("rule", rule, "type", type, "player", "Steve", "staff", "Alex"));
+    }
+
+    @Test
+    void routesByEventAndType() throws Exception {
+        WebhookRouter router = new WebhookRouter(
+                List.of(sink("bans", bans.url(), "discord", 100), sink("tooling", tooling.url(), "json", 100)),
+                List.of(
+                        new WebhookRoute(Set.of("punishment"), Set.of(), Set.of("ban"), List.of("bans")),
+                        new WebhookRoute(Set.of("*"), Set.of(), Set.of(), List.of("tooling"))
+                ),
+                LOGGER);
+        try {
+            router.dispatch(punishment("spam", "warn", "0"));
+            router.dispatch(punishment("cheating", "ban", "7d"));
+
+            assertTrue(tooling.awaitAccepted(2, 5000));
+            assertTrue(bans.awaitAccepted(1, 5000));
+            Thread.sleep(100);
+            assertEquals(1, bans.acceptedCount());
+            assertTrue(tooling.received().get(0).body().contains("\"event\":\"punishment\""));
+        } finally {
+            router.shutdown(2000);
+        }
+    }
+
+    @Test
+    void retriesAfterRateLimitAndServerErrors() throws Exception {
+        bans.rateLimitEvery(3, 0.02).failEvery(5);
+        WebhookRouter router = new WebhookRouter(
+                List.of(sink("bans", bans.url(), "discord", 100)),
+                List.of(new WebhookRoute(Set.of(), Set.of(), Set.of(), List.of("bans"))),
+                LOGGER);
+        try {
+            for (int i = 0; i < 20; i++) router.dispatch(punishment("spam", "mute", "10m"));
+
+            assertTrue(bans.awaitAccepted(20, 10000), "every message should eventually be delivered");
+            assertTrue(bans.rateLimitedCount() > 0);
+            assertTrue(bans.failedCount() > 0);
+
+            // The stub answers before the sink counts the delivery
+            long deadline = System.currentTimeMillis() + 2000;
+            while (!Long.valueOf(20).equals(router.getStats().get("bans").get("delivered"))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Map<String, Object> stats = router.getStats().get("bans");
+            assertEquals(20L, stats.get("delivered"));
+            assertEquals(0L, stats.get("dropped"));
+        } finally {
+            router.shutdown(2000);
+        }
+    }
+
+    @Test
+    void slowSinkDoesNotDelayOthers() throws Exception {
+        bans.latency(500);
+        WebhookRouter router = new WebhookRouter(
+                List.of(sink("bans", bans.url(), "discord", 5), sink("tooling", tooling.url(), "json", 100)),
+                List.of(new WebhookRoute(Set.of(), Set.of(), Set.of(), List.of("bans", "tooling"))),
+                LOGGER);
+        try {
+            for (int i = 0; i < 20; i++) router.dispatch(punishment("spam", "warn", "0"));
+
+            assertTrue(tooling.awaitAccepted(20, 2000), "fast sink must not wait for the slow one");
+            assertTrue((Long) router.getStats().get("bans").get("dropped") > 0, "bounded queue should shed load");
+        } finally {
+            router.shutdown(100);
+        }
+    }
+
+    @Test
+    void digestBuffersLowPriorityEvents() throws Exception {
+        WebhookDigestConfig digestConfig = new WebhookDigestConfig(true, 3600, Set.of("punishment"),
+                Set.of("warn", "mute", "ban"), 3_600_000L, 5);
+        WebhookRouter router = new WebhookRouter(
+                List.of(sink("tooling", tooling.url(), "json", 100)),
+                List.of(new WebhookRoute(Set.of(), Set.of(), Set.of(), List.of("tooling"))),
+                digestConfig, LOGGER);
+
+        router.dispatch(punishment("spam", "warn", "0"));
+        router.dispatch(punishment("spam", "mute", "10m"));
+        router.dispatch(punishment("spam", "mute", "3d"));   // longer than max-duration
+        router.dispatch(punishment("cheating", "ban", "0")); // permanent ban is urgent
+
+        assertTrue(tooling.awaitAccepted(2, 5000));
+        Thread.sleep(100);
+        assertEquals(2, tooling.acceptedCount(), "only urgent events are sent immediately");
+
+        router.shutdown(2000);
+        assertEquals(3, tooling.acceptedCount(), "digest is flushed on shutdown");
+        String digest = tooling.received().get(2).body();
+        assertTrue(digest.contains("\"event\":\"digest\""));
+        assertTrue(digest.contains("\"total\":2"));
+    }
+
+    @Test
+    void permanentPunishmentsBypassDigest() {
+        WebhookDigest digest = new WebhookDigest(new WebhookDigestConfig(true, 3600, Set.of("punishment"),
+                Set.of("warn", "mute", "ban", "kick"), 3_600_000L, 5), LOGGER);
+        try {
+            assertFalse(digest.accepts(punishment("spam", "mute", "0")), "permanent mute is urgent");
+            assertFalse(digest.accepts(punishment("cheating", "ban", "0")), "permanent ban is urgent");
+            assertTrue(digest.accepts(punishment("spam", "mute", "10m")));
+            assertFalse(digest.accepts(punishment("spam", "mute", "3d")), "longer than max-duration");
+            assertTrue(digest.accepts(punishment("spam", "warn", "0")));
+            assertTrue(digest.accepts(punishment("spam", "kick", "0")));
+        } finally {
+            digest.shutdown();
+        }
+    }
+}